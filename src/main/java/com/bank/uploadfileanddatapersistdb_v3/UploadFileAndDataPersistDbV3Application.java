@@ -3,9 +3,11 @@ package com.bank.uploadfileanddatapersistdb_v3;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class UploadFileAndDataPersistDbV3Application {
 
 	public static void main(String[] args) {
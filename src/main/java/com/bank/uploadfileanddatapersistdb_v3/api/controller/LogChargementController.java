@@ -1,11 +1,18 @@
 package com.bank.uploadfileanddatapersistdb_v3.api.controller;
 // Controleur REST pour consulter les logs de chargement.
 
-import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogChargementSummaryDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogChargementDetailDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogChargementDetailPageDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogChargementPageDto;
 import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogChargementWithDetailsDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogPurgeReportDto;
 import com.bank.uploadfileanddatapersistdb_v3.api.mapper.LogChargementMapper;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.LogChargementService;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.LogRetentionService;
+import com.bank.uploadfileanddatapersistdb_v3.domain.exception.InvalidQueryParameterException;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargement;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargementDetail;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LineStatus;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,13 +20,22 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.media.Content;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
-import java.util.Comparator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -28,8 +44,10 @@ import java.util.List;
  * Endpoints REST pour consulter les logs d'import.
  *
  * Un log correspond au traitement d'un fichier (CSV/XML).
- * - La liste (GET /logs) retourne un résumé (sans détails ligne par ligne).
+ * - La liste (GET /logs) retourne un résumé (sans détails ligne par ligne), page par page (curseur).
  * - Le détail (GET /logs/{id}) retourne toutes les lignes (SUCCESS/FAILED + message).
+ * - Pour les gros fichiers : GET /logs/{id}/details (page par numéro de ligne)
+ *   et GET /logs/{id}/details/stream (NDJSON en flux).
  */
 @Tag(
         name = "Import Logs",
@@ -52,18 +70,45 @@ public class LogChargementController {
      */
     private final LogChargementMapper logChargementMapper;
 
+    /**
+     * Purge de rétention des logs (planifiée, ou déclenchée par POST /logs/purge).
+     */
+    private final LogRetentionService logRetentionService;
+
+    /**
+     * Taille de page par défaut et maximale de GET /logs.
+     */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Taille de page par défaut et maximale de GET /logs/{id}/details.
+     */
+    private static final int DEFAULT_DETAIL_PAGE_SIZE = 500;
+    private static final int MAX_DETAIL_PAGE_SIZE = 5000;
+
+    /**
+     * Durée max d'un flux GET /logs/{id}/details/stream (propre à cet endpoint, pas le timeout async global).
+     */
+    @Value("${ingestion.log.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
     /**
      * GET /logs
      *
      * Liste les logs d'import avec filtres optionnels :
      * - fileName : filtre (contains, case-insensitive)
-     * - status   : filtre par statut final (SUCCESS/FAILED/PARTIALLY_TRAITED/IN_PROGRESS)
+     * - status   : filtre par statut final (SUCCESS/FAILED/PARTIALLY_TRAITED/INCOMPLETE/IN_PROGRESS)
+     * - from/to  : createdAt dans [from, to[
      *
-     * Retourne une liste triée par createdAt DESC (du plus récent au plus ancien).
+     * Retourne une page triée par createdAt DESC (du plus récent au plus ancien).
+     * Filtres, tri et pagination sont faits en SQL ; la page suivante s'obtient avec nextCursor.
      */
     @Operation(
-            summary = "List import logs (optional filtering)",
-            description = "Returns a list of import logs as summary DTOs. Optional filters: fileName (contains) and status."
+            summary = "List import logs (optional filtering, cursor pagination)",
+            description = "Returns one page of import logs as summary DTOs, newest first. "
+                    + "Optional filters: fileName (contains), status and createdAt range [from, to). "
+                    + "Pass nextCursor back as cursor to get the next page."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -71,12 +116,17 @@ public class LogChargementController {
                     description = "Logs retrieved successfully",
                     content = @Content(
                             mediaType = MediaType.APPLICATION_JSON_VALUE,
-                            array = @ArraySchema(schema = @Schema(implementation = LogChargementSummaryDto.class))
+                            schema = @Schema(implementation = LogChargementPageDto.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor, limit or date range",
+                    content = @Content
             )
     })
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<LogChargementSummaryDto> getAllLogs(
+    public LogChargementPageDto getAllLogs(
             @Parameter(
                     description = "Optional filter: match logs whose fileName contains this value (case-insensitive).",
                     example = "big_data_2026-01-04_17-45-26.csv"
@@ -87,15 +137,52 @@ public class LogChargementController {
                     description = "Optional filter: log status",
                     example = "SUCCESS"
             )
-            @RequestParam(name = "status", required = false) LogStatus status
+            @RequestParam(name = "status", required = false) LogStatus status,
+
+            @Parameter(
+                    description = "Optional filter: logs created at or after this date-time (ISO)",
+                    example = "2026-01-01T00:00:00"
+            )
+            @RequestParam(name = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(
+                    description = "Optional filter: logs created before this date-time (ISO)",
+                    example = "2026-02-01T00:00:00"
+            )
+            @RequestParam(name = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            @Parameter(description = "Cursor returned as nextCursor by the previous page (omit for the first page)")
+            @RequestParam(name = "cursor", required = false) String cursor,
+
+            @Parameter(description = "Page size (1-" + MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam(name = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
     ) {
-        // 1) Recherche via service (filtrage)
-        // 2) Tri par date décroissante
-        // 3) Mapping vers DTO summary (moins lourd que 'with details')
-        return logChargementService.searchLogs(fileName, status).stream()
-                .sorted(Comparator.comparing(LogChargement::getCreatedAt).reversed())
-                .map(logChargementMapper::toSummaryDto)
-                .toList();
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidQueryParameterException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidQueryParameterException("from must be before to");
+        }
+        LogChargementMapper.LogCursor after = logChargementMapper.parseCursor(cursor);
+
+        // 1) Recherche SQL (filtres + tri + curseur) ; une ligne de plus pour savoir s'il reste une page
+        List<LogChargement> rows = logChargementService.searchLogs(
+                fileName, status, from, to,
+                after == null ? null : after.createdAt(),
+                after == null ? null : after.id(),
+                limit + 1
+        );
+
+        // 2) Mapping vers DTO summary (moins lourd que 'with details')
+        boolean hasMore = rows.size() > limit;
+        List<LogChargement> page = hasMore ? rows.subList(0, limit) : rows;
+        return LogChargementPageDto.builder()
+                .items(page.stream().map(logChargementMapper::toSummaryDto).toList())
+                .nextCursor(hasMore ? logChargementMapper.toCursor(page.get(page.size() - 1)) : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     /**
@@ -137,4 +224,155 @@ public class LogChargementController {
         // Conversion en DTO avec détails (évite d'exposer l'entité)
         return logChargementMapper.toWithDetailsDto(log);
     }
+
+    /**
+     * POST /logs/purge
+     *
+     * Lance tout de suite la purge de rétention (sans attendre le passage planifié).
+     */
+    @Operation(
+            summary = "Purge expired logs now",
+            description = "Deletes logs older than their config retention (settings.logRetentionDays, or the default), "
+                    + "with their line details, in bounded batches. Returns the rows purged. "
+                    + "If a purge is already running, returns the previous report."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Purge completed",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = LogPurgeReportDto.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/purge", produces = MediaType.APPLICATION_JSON_VALUE)
+    public LogPurgeReportDto purge() {
+        return logChargementMapper.toPurgeReportDto(logRetentionService.purgeExpiredLogs());
+    }
+
+    /**
+     * GET /logs/{id}/details
+     *
+     * Une page de lignes du log, par numéro de ligne croissant (curseur = dernier numéro de la page),
+     * filtrée par statut et/ou code d'erreur, sans charger toutes les lignes du log.
+     */
+    @Operation(
+            summary = "Page through the line details of a log",
+            description = "Returns line details with lineNumber > afterLine, optionally filtered by status and error code. "
+                    + "Pass nextAfterLine back as afterLine to get the next page."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Details retrieved successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = LogChargementDetailPageDto.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid limit or afterLine", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Log not found", content = @Content)
+    })
+    @GetMapping(value = "/{id}/details", produces = MediaType.APPLICATION_JSON_VALUE)
+    public LogChargementDetailPageDto getLogDetails(
+            @Parameter(description = "Log identifier", example = "1", required = true)
+            @PathVariable Long id,
+
+            @Parameter(description = "Optional filter: line status", example = "FAILED")
+            @RequestParam(name = "status", required = false) LineStatus status,
+
+            @Parameter(description = "Optional filter: error code", example = "TYPE_MISMATCH")
+            @RequestParam(name = "errorCode", required = false) String errorCode,
+
+            @Parameter(description = "Return lines after this line number (nextAfterLine of the previous page)", example = "0")
+            @RequestParam(name = "afterLine", defaultValue = "0") int afterLine,
+
+            @Parameter(description = "Page size (1-" + MAX_DETAIL_PAGE_SIZE + ")", example = "500")
+            @RequestParam(name = "limit", defaultValue = "" + DEFAULT_DETAIL_PAGE_SIZE) int limit
+    ) {
+        if (limit < 1 || limit > MAX_DETAIL_PAGE_SIZE) {
+            throw new InvalidQueryParameterException("limit must be between 1 and " + MAX_DETAIL_PAGE_SIZE);
+        }
+        if (afterLine < 0) {
+            throw new InvalidQueryParameterException("afterLine must be >= 0");
+        }
+        LogChargement log = logChargementService.getLogById(id);
+
+        // Une ligne de plus pour savoir s'il reste une page
+        List<LogChargementDetail> rows = logChargementService.findDetails(
+                log, status, blankToNull(errorCode), afterLine, limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<LogChargementDetail> page = hasMore ? rows.subList(0, limit) : rows;
+        return LogChargementDetailPageDto.builder()
+                .logId(log.getId())
+                .items(page.stream().map(logChargementMapper::toDetailDto).toList())
+                .nextAfterLine(hasMore ? page.get(page.size() - 1).getLineNumber() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * GET /logs/{id}/details/stream
+     *
+     * Toutes les lignes du log en NDJSON (un objet JSON par ligne), écrites au fil de la lecture
+     * d'un curseur DB : ni la liste des lignes ni la réponse complète ne sont gardées en mémoire.
+     * Écrit sur un thread async avec son propre timeout (ingestion.log.stream.timeout-ms).
+     */
+    @Operation(
+            summary = "Stream the line details of a log as NDJSON",
+            description = "Streams every line detail (optionally filtered by status and error code) as "
+                    + "newline-delimited JSON, by increasing line number."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Details streamed",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = LogChargementDetailDto.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "404", description = "Log not found", content = @Content)
+    })
+    @GetMapping(value = "/{id}/details/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamLogDetails(
+            @Parameter(description = "Log identifier", example = "1", required = true)
+            @PathVariable Long id,
+
+            @Parameter(description = "Optional filter: line status", example = "FAILED")
+            @RequestParam(name = "status", required = false) LineStatus status,
+
+            @Parameter(description = "Optional filter: error code", example = "TYPE_MISMATCH")
+            @RequestParam(name = "errorCode", required = false) String errorCode,
+
+            @Parameter(hidden = true) HttpServletResponse response
+    ) {
+        // Vérifié avant d'ouvrir le flux : un id inconnu reste un 404
+        LogChargement log = logChargementService.getLogById(id);
+        String code = blankToNull(errorCode);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        return new WebAsyncTask<>(streamTimeoutMs, () -> {
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+            logChargementService.streamDetails(log, status, code, detail -> {
+                try {
+                    writer.write(logChargementMapper.toNdjsonLine(detail));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    // Client déconnecté : interrompt la lecture du curseur
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            return null;
+        });
+    }
+
+    private static String blankToNull(String value) {
+        return (value == null || value.isBlank()) ? null : value.trim();
+    }
 }
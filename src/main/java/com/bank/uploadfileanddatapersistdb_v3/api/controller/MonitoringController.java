@@ -0,0 +1,191 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.controller;
+// Controleur REST pour consulter l'etat interne du moteur d'ingestion.
+
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.DuplicateQueryCacheDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.JobBulkheadDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.JobStoreDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogPurgeReportDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogSinkDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.PipelineStageDto;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.MonitoringService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * MonitoringController
+ *
+ * Endpoints de lecture seule sur l'état en mémoire du moteur d'ingestion
+ * (files entre étages du mode parallèle, cache des requêtes de doublons, ...).
+ */
+@Tag(
+        name = "Monitoring",
+        description = "Read-only view of the ingestion engine internals"
+)
+@RestController
+@RequestMapping("/monitoring")
+@RequiredArgsConstructor
+public class MonitoringController {
+
+    private final MonitoringService monitoringService;
+
+    /**
+     * GET /monitoring/pipelines
+     *
+     * Profondeur des files pour chaque fichier en cours de traitement en mode parallèle
+     * (ingestion.parallel.workers > 1).
+     */
+    @Operation(
+            summary = "Get parallel pipeline queue depths",
+            description = "Returns, for each file being ingested in parallel mode, the records waiting for a validator, "
+                    + "waiting in the reorder buffer and in flight."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Snapshot retrieved successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = PipelineStageDto.class))
+                    )
+            )
+    })
+    @GetMapping(value = "/pipelines", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<PipelineStageDto> pipelines() {
+        return monitoringService.pipelineStages();
+    }
+
+    /**
+     * GET /monitoring/duplicate-query-cache
+     *
+     * Compteurs du cache des requêtes d'existence utilisées pour les doublons en base.
+     */
+    @Operation(
+            summary = "Get duplicate query cache counters",
+            description = "Returns the hits, misses and cached shapes of the compiled existence queries "
+                    + "used for database duplicate checks."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Counters retrieved successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = DuplicateQueryCacheDto.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/duplicate-query-cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DuplicateQueryCacheDto duplicateQueryCache() {
+        return monitoringService.duplicateQueryCache();
+    }
+
+    /**
+     * GET /monitoring/log-retention
+     *
+     * Bilan du dernier passage de la purge de rétention des logs d'import (lignes supprimées par table).
+     */
+    @Operation(
+            summary = "Get the last log retention run",
+            description = "Returns the rows purged (logs, line details, ranges) and archived by the last run "
+                    + "of the import log retention job. Empty body if it has not run since startup."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Report retrieved successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = LogPurgeReportDto.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/log-retention", produces = MediaType.APPLICATION_JSON_VALUE)
+    public LogPurgeReportDto logRetention() {
+        return monitoringService.logRetention();
+    }
+
+    /**
+     * GET /monitoring/log-sink
+     *
+     * File entre l'ingestion et l'écrivain de logs dédié.
+     */
+    @Operation(
+            summary = "Get the asynchronous log writer queue",
+            description = "Returns the log events waiting for the dedicated writer thread, the submits that had to wait "
+                    + "for room (queue full) and the failed writes."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Counters retrieved successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = LogSinkDto.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/log-sink", produces = MediaType.APPLICATION_JSON_VALUE)
+    public LogSinkDto logSink() {
+        return monitoringService.logSink();
+    }
+
+    /**
+     * GET /monitoring/job-store
+     *
+     * Jobs asynchrones conservés et évictions (TTL, taille max).
+     */
+    @Operation(
+            summary = "Get the async job store size and evictions",
+            description = "Returns the jobs running in memory on this node, the job and per-file result rows stored, "
+                    + "and the finished jobs evicted by TTL or beyond the maximum size since startup."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Counters retrieved successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = JobStoreDto.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/job-store", produces = MediaType.APPLICATION_JSON_VALUE)
+    public JobStoreDto jobStore() {
+        return monitoringService.jobStore();
+    }
+
+    /**
+     * GET /monitoring/job-executors
+     *
+     * Pools de jobs par config : jobs en cours, en attente et refusés.
+     */
+    @Operation(
+            summary = "Get the per-config job executors",
+            description = "Returns, for each config that submitted a job since startup, its bulkhead limits and the jobs "
+                    + "running, queued and rejected (POST /process/start-async answered 429)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Counters retrieved successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = JobBulkheadDto.class))
+                    )
+            )
+    })
+    @GetMapping(value = "/job-executors", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<JobBulkheadDto> jobExecutors() {
+        return monitoringService.jobExecutors();
+    }
+}
@@ -4,6 +4,7 @@ package com.bank.uploadfileanddatapersistdb_v3.api.controller;
 import com.bank.uploadfileanddatapersistdb_v3.api.dto.FinalResultDto;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.AsyncProcessingService;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobProgressService;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobProgressStreamService;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobResultService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -27,10 +29,11 @@ import java.util.Map;
  * Fonctionnement global :
  * - Le client uploade des fichiers CSV/XML dans DATA_IN (via /folders/upload-to-in).
  * - Le client appelle /process/start-async pour démarrer le traitement asynchrone.
- * - Le client appelle /process/progress/{jobId} pour suivre la progression.
+ * - Le client appelle /process/progress/{jobId} pour suivre la progression
+ *   (ou s'abonne à /process/progress/{jobId}/stream en Server-Sent Events).
  *
- * Note : le traitement asynchrone suppose que @EnableAsync est activé
- * (souvent dans une classe @Configuration).
+ * Note : les jobs s'exécutent sur un pool dédié par config (bulkhead) ;
+ * quand il est plein, /process/start-async répond 429.
  */
 @Tag(
         name = "Processing",
@@ -51,11 +54,16 @@ public class ProcessingController {
     private final AsyncProcessingService asyncProcessingService;
 
     /**
-     * Service in-memory (dans ton projet) qui stocke l'état des jobs
+     * Service qui stocke l'état des jobs (en base)
      * et permet de récupérer : percent, timeLeft, processedRecords, etc.
      */
     private final JobProgressService jobProgressService;
 
+    /**
+     * Diffusion SSE de la progression (un producteur par job, partagé par les abonnés).
+     */
+    private final JobProgressStreamService jobProgressStreamService;
+
     /**
      * Stocke le resultat final par job (fichiers traites / echoues).
      */
@@ -71,7 +79,9 @@ public class ProcessingController {
      */
     @Operation(
             summary = "Start async processing job",
-            description = "Creates a new job, counts total records in DATA_IN, then starts asynchronous file processing."
+            description = "Creates a new job, counts total records in DATA_IN, then starts asynchronous file processing "
+                    + "on the config's job pool. Rejected with 429 when the config already has its maximum of running "
+                    + "and queued jobs."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -84,6 +94,11 @@ public class ProcessingController {
                                     example = "{\"jobId\":\"8a3f1b2c-1c1e-4f0b-9c7f-3a2a1c8d9e10\"}"
                             )
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Bulkhead of the config full: maximum of running and queued jobs reached",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
             )
     })
     @PostMapping(value = "/start-async", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -95,11 +110,9 @@ public class ProcessingController {
             )
             @RequestParam(name = "configId") String configId
     ) {
-        // 1) Initialise un job (création du jobId + totalRecords)
-        String jobId = asyncProcessingService.startJob(configId);
-
-        // 2) Lance le traitement asynchrone (le thread HTTP répond immédiatement)
-        asyncProcessingService.runJob(jobId, configId);
+        // 1) Admission dans le bulkhead de la config (429 si plein), init du job (jobId + totalRecords)
+        // 2) Lance le traitement sur le pool de la config (le thread HTTP répond immédiatement)
+        String jobId = asyncProcessingService.submitJob(configId);
 
         // 3) Retourne le jobId au client
         return ResponseEntity.ok(Map.of("jobId", jobId));
@@ -144,7 +157,7 @@ public class ProcessingController {
     ) {
         var dto = jobProgressService.get(jobId);
 
-        // Si le jobId n'existe pas en mémoire, on renvoie 404
+        // Si le jobId n'existe pas (en base), on renvoie 404
         if (dto == null) {
             return ResponseEntity.status(404).body(Map.of("error", "jobId not found"));
         }
@@ -153,6 +166,52 @@ public class ProcessingController {
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * GET /process/progress/{jobId}/stream
+     *
+     * Flux Server-Sent Events de la progression du job :
+     * - "progress" : JobProgressDto, à chaque changement (au plus un par intervalle)
+     * - "file" : fichier terminé (traité ou en échec)
+     * - "result" : FinalResultDto à la fin du job, puis le flux se ferme
+     *
+     * @param jobId identifiant du job renvoyé par /start-async
+     * @return flux SSE si le job existe, sinon 404.
+     */
+    @Operation(
+            summary = "Stream job progress",
+            description = "Server-Sent Events stream: 'progress' snapshots at a bounded rate, 'file' events as files complete, "
+                    + "then a final 'result' event before the stream closes."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Event stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Job not found",
+                    content = @Content
+            )
+    })
+    @GetMapping(value = "/progress/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> progressStream(
+            @Parameter(
+                    description = "Job identifier returned by /process/start-async",
+                    example = "8a3f1b2c-1c1e-4f0b-9c7f-3a2a1c8d9e10",
+                    required = true
+            )
+            @PathVariable String jobId
+    ) {
+        SseEmitter emitter = jobProgressStreamService.subscribe(jobId);
+
+        // Pas de corps JSON possible sur un flux text/event-stream : 404 sans corps
+        if (emitter == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     /**
      * GET /process/result/{jobId}
      *
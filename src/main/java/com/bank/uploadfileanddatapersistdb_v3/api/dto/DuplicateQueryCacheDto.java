@@ -0,0 +1,19 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.dto;
+// DTO des compteurs du cache des requetes de doublons.
+
+import lombok.*;
+
+/**
+ * Hit/miss counters of the compiled duplicate existence queries.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DuplicateQueryCacheDto {
+    private long hits;      // queries reused from the cache
+    private long misses;    // queries built (first use of an entity/fields/null shape)
+    private int entries;    // cached query shapes
+    private double hitRatio; // hits / (hits + misses), 0 when unused
+}
@@ -14,6 +14,7 @@ public class FileReaderConfigDto {
     private String modeChargement;
     private String entityClassName;
     private PathsDto paths;
+    private SettingsDto settings;
     private FileReaderMappingCsvDto fileMappingCSV;
     private FileReaderMappingXmlDto fileMappingXML;
 
@@ -26,6 +27,20 @@ public class FileReaderConfigDto {
         private String failedDir;
     }
 
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class SettingsDto {
+        private Integer batchSize; // records committed per transaction (null/1 = per record)
+        private String writeMode;  // JPA_MERGE / JDBC_BATCH
+        private Boolean collectAllErrors; // log every field error of a rejected line (default: first only)
+        private String inFileDuplicateMode; // EXACT / HASHED
+        private String logMode;             // FULL / COMPACT
+        private Boolean rejectFile;         // failed records go to <file>.rejects instead of log detail rows
+        private Integer logRetentionDays;   // import logs kept this many days (null = application default)
+        private Integer fileConcurrency;    // files ingested in parallel by an async job (null = application default)
+        private Integer maxConcurrentJobs;  // async jobs of this config running at the same time (null = application default)
+        private Integer jobQueueDepth;      // async jobs waiting for a thread before rejection (null = application default)
+    }
+
     @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
     public static class FileReaderMappingCsvDto {
         private String delimiter;
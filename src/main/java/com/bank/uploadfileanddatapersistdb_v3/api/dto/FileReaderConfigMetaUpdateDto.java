@@ -17,4 +17,5 @@ public class FileReaderConfigMetaUpdateDto {
     private String modeChargement;
     private String entityClassName;
     private FileReaderConfigDto.PathsDto paths;
+    private FileReaderConfigDto.SettingsDto settings;
 }
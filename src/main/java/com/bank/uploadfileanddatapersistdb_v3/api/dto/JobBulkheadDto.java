@@ -0,0 +1,22 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.dto;
+// DTO du pool de jobs (bulkhead) d'une config.
+
+import lombok.*;
+
+/**
+ * Limits and counters of a config's async job pool.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobBulkheadDto {
+    private String configId;
+    private int maxConcurrentJobs; // threads of the pool (settings.maxConcurrentJobs)
+    private int queueDepth;        // jobs admitted while waiting for a thread (settings.jobQueueDepth)
+    private int active;            // jobs running
+    private int queued;            // jobs waiting for a thread
+    private long completed;        // jobs finished since startup
+    private long rejected;         // submissions refused with 429 since startup
+}
@@ -4,7 +4,7 @@ package com.bank.uploadfileanddatapersistdb_v3.api.dto;
 import lombok.*;
 
 /**
- * In-memory progress view for async processing jobs.
+ * Progress view for async processing jobs (stored in the database, readable from any node).
  */
 @Getter
 @Setter
@@ -20,6 +20,10 @@ public class JobProgressDto {
 
     private int percent; // 0..100
 
-    private Long timeLeft;        // Estimated remaining time (null if unknown)
+    private long bytesRead;
+    private double recordsPerSecond; // Sliding-window throughput
+    private double bytesPerSecond;
+
+    private Long timeLeft;        // Estimated remaining time from smoothed recent throughput (null if unknown)
     private Long totalTimeSeconds;  // Elapsed time since job start
 }
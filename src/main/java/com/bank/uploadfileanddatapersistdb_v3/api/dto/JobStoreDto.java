@@ -0,0 +1,28 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.dto;
+// DTO de la taille et des evictions du stockage des jobs.
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Size and eviction counters of the async job store (ingestion_job / ingestion_job_file).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobStoreDto {
+    private int runningInMemory;       // jobs running on this node (only in-memory state)
+    private long jobsStored;           // job rows, all statuses
+    private long finishedStored;       // finished job rows (eviction candidates)
+    private long filesStored;          // per-file result rows
+    private long ttlHours;             // ingestion.job.retention.ttl-hours (0 = no TTL)
+    private long maxJobs;              // ingestion.job.retention.max-jobs (0 = unbounded)
+    private long evictedByTtl;         // jobs evicted because expired, since startup
+    private long evictedBySize;        // jobs evicted beyond maxJobs, since startup
+    private long filesEvicted;         // per-file rows deleted with them
+    private LocalDateTime lastRunAt;   // last eviction run (null if none yet)
+    private String lastError;          // error of the last run (null if OK)
+}
@@ -15,5 +15,6 @@ import lombok.*;
 public class LogChargementDetailDto {
     private Integer lineNumber;
     private LineStatus status;
+    private String errorCode;
     private String detailProblem;
 }
@@ -0,0 +1,22 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.dto;
+// DTO page de lignes de log (pagination par numero de ligne).
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of line details of an import log, by increasing line number.
+ * Pass nextAfterLine as the afterLine parameter to fetch the following page (null when hasMore is false).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogChargementDetailPageDto {
+    private Long logId;
+    private List<LogChargementDetailDto> items;
+    private Integer nextAfterLine;
+    private boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.dto;
+// DTO page de logs (pagination par curseur).
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of import log summaries, newest first.
+ * Pass nextCursor as the cursor parameter to fetch the following page (null when hasMore is false).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogChargementPageDto {
+    private List<LogChargementSummaryDto> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
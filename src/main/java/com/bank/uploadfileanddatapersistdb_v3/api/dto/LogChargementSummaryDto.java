@@ -5,6 +5,7 @@ import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogStatus;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * Lightweight DTO for listing import logs without details.
@@ -17,9 +18,13 @@ import java.time.LocalDateTime;
 public class LogChargementSummaryDto {
     private Long id;
     private String fileName;
+    private String configId;
     private LogStatus status;
     private LocalDateTime createdAt;
     private Integer totalLines;
     private Integer successLines;
     private Integer failedLines;
+    private String rejectFileName;
+    private Map<String, Integer> errorCountsByCode;  // e.g. TYPE_MISMATCH -> 12
+    private Map<String, Integer> errorCountsByField; // e.g. salary -> 9
 }
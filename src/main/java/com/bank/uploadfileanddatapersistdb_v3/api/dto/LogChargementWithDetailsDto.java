@@ -4,6 +4,7 @@ package com.bank.uploadfileanddatapersistdb_v3.api.dto;
 import lombok.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Detailed DTO for a log including line-by-line details.
@@ -16,10 +17,15 @@ import java.util.List;
 public class LogChargementWithDetailsDto {
     private Long id;
     private String fileName;
+    private String configId;
     private String status;
     private String createdAt;
     private Integer totalLines;
     private Integer successLines;
     private Integer failedLines;
+    private String logMode; // FULL / COMPACT (success ranges expanded into details)
+    private String rejectFileName; // failed records are in this file instead of details
+    private Map<String, Integer> errorCountsByCode;
+    private Map<String, Integer> errorCountsByField;
     private List<LogChargementDetailDto> details;
 }
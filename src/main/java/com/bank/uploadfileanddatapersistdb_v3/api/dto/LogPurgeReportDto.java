@@ -0,0 +1,27 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.dto;
+// DTO bilan d'un passage de la purge de retention des logs.
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Rows purged by one run of the import log retention job.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogPurgeReportDto {
+    private LocalDateTime startedAt;
+    private long durationMs;
+    private long logsPurged;         // log_chargement rows
+    private long detailsPurged;      // log_chargement_detail rows
+    private long rangesPurged;       // log_chargement_range rows (COMPACT mode)
+    private long logsArchived;       // summaries copied to log_chargement_archive
+    private int batches;             // log batches, each deleted in short transactions
+    private Map<String, Long> logsPurgedByConfig; // "" = logs without a known config
+    private String error;            // null when the run completed
+}
@@ -0,0 +1,22 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.dto;
+// DTO de la file de l'ecrivain de logs asynchrone.
+
+import lombok.*;
+
+/**
+ * Queue and counters of the asynchronous import log writer.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogSinkDto {
+    private boolean async;        // dedicated writer thread active
+    private int queued;           // log events waiting for the writer
+    private int capacity;         // queue capacity (ingestion.log.async.buffer-size)
+    private long submitted;       // events submitted since startup
+    private long processed;       // lines handed to the JDBC batch writer
+    private long blockedSubmits;  // submits that waited for room (queue full)
+    private long writeErrors;     // failed writes (lines lost)
+}
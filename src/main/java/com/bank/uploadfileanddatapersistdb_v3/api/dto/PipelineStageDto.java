@@ -0,0 +1,24 @@
+package com.bank.uploadfileanddatapersistdb_v3.api.dto;
+// DTO de l'etat des files du pipeline parallele.
+
+import lombok.*;
+
+/**
+ * Queue depths of a file currently ingested in parallel mode.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PipelineStageDto {
+    private String fileName;
+
+    private int workers;        // parallel validators
+    private int queueDepth;     // max records read but not yet written
+
+    private int inputQueued;     // read, waiting for a validator
+    private int reorderBuffered; // validated, waiting for their turn to be written
+    private int inFlight;        // read, not yet written
+    private int nextLine;        // next line expected by the writer
+}
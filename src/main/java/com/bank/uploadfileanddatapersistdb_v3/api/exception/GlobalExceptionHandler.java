@@ -26,6 +26,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiError);
     }
 
+    @ExceptionHandler(InvalidQueryParameterException.class)
+    public ResponseEntity<ApiError> handleInvalidQueryParameter(InvalidQueryParameterException ex, HttpServletRequest request) {
+        ApiError apiError = ApiError.of(
+                HttpStatus.BAD_REQUEST.value(),
+                "Invalid query parameter",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiError);
+    }
+
     @ExceptionHandler(FileProcessingException.class)
     public ResponseEntity<ApiError> handleFileProcessing(FileProcessingException ex, HttpServletRequest request) {
         ApiError apiError = ApiError.of(
@@ -114,6 +125,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiError);
     }
 
+    @ExceptionHandler(JobRejectedException.class)
+    public ResponseEntity<ApiError> handleJobRejected(JobRejectedException ex, HttpServletRequest request) {
+        ApiError apiError = ApiError.of(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Job rejected",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(apiError);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGeneric(Exception ex, HttpServletRequest request) {
         ApiError apiError = ApiError.of(
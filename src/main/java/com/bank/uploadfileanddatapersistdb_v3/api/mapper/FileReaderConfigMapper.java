@@ -4,6 +4,9 @@ package com.bank.uploadfileanddatapersistdb_v3.api.mapper;
 import com.bank.uploadfileanddatapersistdb_v3.api.dto.FileReaderConfigDto;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.*;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.FieldType;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.InFileDuplicateMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.WriteMode;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -45,6 +48,23 @@ public class FileReaderConfigMapper {
                     .build());
         }
 
+        // Settings (Embeddable -> DTO)
+        if (cfg.getSettings() != null) {
+            dto.setSettings(FileReaderConfigDto.SettingsDto.builder()
+                    .batchSize(cfg.getSettings().getBatchSize())
+                    .writeMode(cfg.getSettings().getWriteMode() == null ? null : cfg.getSettings().getWriteMode().name())
+                    .collectAllErrors(cfg.getSettings().getCollectAllErrors())
+                    .inFileDuplicateMode(cfg.getSettings().getInFileDuplicateMode() == null ? null
+                            : cfg.getSettings().getInFileDuplicateMode().name())
+                    .logMode(cfg.getSettings().getLogMode() == null ? null : cfg.getSettings().getLogMode().name())
+                    .rejectFile(cfg.getSettings().getRejectFile())
+                    .logRetentionDays(cfg.getSettings().getLogRetentionDays())
+                    .fileConcurrency(cfg.getSettings().getFileConcurrency())
+                    .maxConcurrentJobs(cfg.getSettings().getMaxConcurrentJobs())
+                    .jobQueueDepth(cfg.getSettings().getJobQueueDepth())
+                    .build());
+        }
+
         // CSV mapping -> DTO
         if (cfg.getFileMappingCSV() != null) {
             FileReaderMappingCSV csv = cfg.getFileMappingCSV();
@@ -129,6 +149,22 @@ public class FileReaderConfigMapper {
                     .build());
         }
 
+        // Settings
+        if (dto.getSettings() != null) {
+            cfg.setSettings(IngestionSettingsEmbeddable.builder()
+                    .batchSize(dto.getSettings().getBatchSize())
+                    .writeMode(parseWriteMode(dto.getSettings().getWriteMode()))
+                    .collectAllErrors(dto.getSettings().getCollectAllErrors())
+                    .inFileDuplicateMode(parseInFileDuplicateMode(dto.getSettings().getInFileDuplicateMode()))
+                    .logMode(parseLogMode(dto.getSettings().getLogMode()))
+                    .rejectFile(dto.getSettings().getRejectFile())
+                    .logRetentionDays(dto.getSettings().getLogRetentionDays())
+                    .fileConcurrency(dto.getSettings().getFileConcurrency())
+                    .maxConcurrentJobs(dto.getSettings().getMaxConcurrentJobs())
+                    .jobQueueDepth(dto.getSettings().getJobQueueDepth())
+                    .build());
+        }
+
         // CSV mapping
         if (dto.getFileMappingCSV() != null) {
             FileReaderMappingCSV csv = cfg.getFileMappingCSV();
@@ -202,4 +238,19 @@ public class FileReaderConfigMapper {
         if (type == null || type.isBlank()) return null;
         return FieldType.valueOf(type.trim());
     }
+
+    private WriteMode parseWriteMode(String mode) {
+        if (mode == null || mode.isBlank()) return null;
+        return WriteMode.valueOf(mode.trim());
+    }
+
+    private InFileDuplicateMode parseInFileDuplicateMode(String mode) {
+        if (mode == null || mode.isBlank()) return null;
+        return InFileDuplicateMode.valueOf(mode.trim());
+    }
+
+    private LogMode parseLogMode(String mode) {
+        if (mode == null || mode.isBlank()) return null;
+        return LogMode.valueOf(mode.trim());
+    }
 }
@@ -26,6 +26,9 @@ public class JobProgressMapper {
      * @param totalRecords nombre total d’enregistrements
      * @param processedRecords nombre déjà traité
      * @param percent pourcentage d’avancement (0..100)
+     * @param bytesRead octets lus des fichiers du job
+     * @param recordsPerSecond débit récent (fenêtre glissante) en records/s
+     * @param bytesPerSecond débit récent (fenêtre glissante) en octets/s
      * @param timeLeft estimation du temps restant en secondes (nullable)
      * @param totalTimeSeconds temps écoulé depuis le début du job
      * @return JobProgressDto prêt à être exposé via l’API
@@ -36,6 +39,9 @@ public class JobProgressMapper {
             int totalRecords,
             int processedRecords,
             int percent,
+            long bytesRead,
+            double recordsPerSecond,
+            double bytesPerSecond,
             Long timeLeft,
             long totalTimeSeconds
     ) {
@@ -45,6 +51,9 @@ public class JobProgressMapper {
                 .totalRecords(totalRecords)
                 .processedRecords(processedRecords)
                 .percent(percent)
+                .bytesRead(bytesRead)
+                .recordsPerSecond(recordsPerSecond)
+                .bytesPerSecond(bytesPerSecond)
                 .timeLeft(timeLeft)
                 .totalTimeSeconds(totalTimeSeconds)
                 .build();
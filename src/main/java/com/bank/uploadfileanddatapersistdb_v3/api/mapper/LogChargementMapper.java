@@ -4,14 +4,24 @@ package com.bank.uploadfileanddatapersistdb_v3.api.mapper;
 import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogChargementDetailDto;
 import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogChargementSummaryDto;
 import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogChargementWithDetailsDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogPurgeReportDto;
+import com.bank.uploadfileanddatapersistdb_v3.domain.exception.InvalidQueryParameterException;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargement;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargementDetail;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargementRange;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.LogPurgeReport;
 import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Maps LogChargement/LogChargementDetail to API DTOs (summary and detailed).
@@ -21,15 +31,65 @@ public class LogChargementMapper {
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * Writer JSON d'un LogChargementDetailDto (ObjectMapper de l'application), préparé une fois pour le flux NDJSON.
+     */
+    private final ObjectWriter detailWriter;
+
+    public LogChargementMapper(ObjectMapper objectMapper) {
+        this.detailWriter = objectMapper.writerFor(LogChargementDetailDto.class);
+    }
+
+    /**
+     * Position dans la liste des logs (createdAt DESC, id DESC) : dernier log d'une page.
+     */
+    public record LogCursor(LocalDateTime createdAt, Long id) {
+    }
+
+    /**
+     * Curseur opaque de la page suivante : base64url("createdAt|id"), createdAt en ISO avec fraction.
+     */
+    public String toCursor(LogChargement log) {
+        String raw = log.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "|" + log.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return la position du curseur, ou null si cursor est absent
+     * @throws InvalidQueryParameterException si le curseur n'a pas été produit par toCursor()
+     */
+    public LogCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep <= 0) {
+                throw new InvalidQueryParameterException("Invalid cursor: " + cursor);
+            }
+            return new LogCursor(
+                    LocalDateTime.parse(raw.substring(0, sep), DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidQueryParameterException("Invalid cursor: " + cursor);
+        }
+    }
+
     public LogChargementSummaryDto toSummaryDto(LogChargement log) {
         return LogChargementSummaryDto.builder()
                 .id(log.getId())
                 .fileName(log.getFileName())
+                .configId(log.getConfigId())
                 .status(log.getStatus())
                 .createdAt(log.getCreatedAt())
                 .totalLines(log.getTotalLines())
                 .successLines(log.getSuccessLines())
                 .failedLines(log.getFailedLines())
+                .rejectFileName(log.getRejectFileName())
+                .errorCountsByCode(log.getErrorCountsByCode())
+                .errorCountsByField(log.getErrorCountsByField())
                 .build();
     }
 
@@ -37,25 +97,79 @@ public class LogChargementMapper {
         return LogChargementDetailDto.builder()
                 .lineNumber(detail.getLineNumber())
                 .status(detail.getStatus())
+                .errorCode(detail.getErrorCode())
                 .detailProblem(detail.getDetailProblem())
                 .build();
     }
 
+    /**
+     * Bilan d'un passage de la purge de rétention (null si la purge n'a jamais tourné).
+     */
+    public LogPurgeReportDto toPurgeReportDto(LogPurgeReport report) {
+        if (report == null) {
+            return null;
+        }
+        return LogPurgeReportDto.builder()
+                .startedAt(report.startedAt())
+                .durationMs(report.durationMs())
+                .logsPurged(report.logsPurged())
+                .detailsPurged(report.detailsPurged())
+                .rangesPurged(report.rangesPurged())
+                .logsArchived(report.logsArchived())
+                .batches(report.batches())
+                .logsPurgedByConfig(report.logsPurgedByConfig())
+                .error(report.error())
+                .build();
+    }
+
+    /**
+     * Log avec une entrée par ligne : en mode COMPACT, les plages de SUCCESS
+     * sont redéployées ligne par ligne puis fusionnées avec les détails, par numéro de ligne.
+     */
     public LogChargementWithDetailsDto toWithDetailsDto(LogChargement log) {
-        List<LogChargementDetailDto> detailDtos = log.getDetails().stream()
-                .sorted(Comparator.comparing(LogChargementDetail::getLineNumber))
-                .map(this::toDetailDto)
-                .collect(Collectors.toList());
+        List<LogChargementDetailDto> detailDtos = new ArrayList<>();
+        for (LogChargementDetail detail : log.getDetails()) {
+            detailDtos.add(toDetailDto(detail));
+        }
+        if (log.getRanges() != null) {
+            for (LogChargementRange range : log.getRanges()) {
+                expandRange(range, detailDtos);
+            }
+        }
+        detailDtos.sort(Comparator.comparing(LogChargementDetailDto::getLineNumber,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
 
         return LogChargementWithDetailsDto.builder()
                 .id(log.getId())
                 .fileName(log.getFileName())
+                .configId(log.getConfigId())
                 .status(log.getStatus() != null ? log.getStatus().name() : null)
                 .createdAt(log.getCreatedAt() != null ? log.getCreatedAt().format(DATE_TIME_FORMATTER) : null)
                 .totalLines(log.getTotalLines())
                 .successLines(log.getSuccessLines())
                 .failedLines(log.getFailedLines())
+                .logMode(log.getLogMode() != null ? log.getLogMode().name() : null)
+                .rejectFileName(log.getRejectFileName())
+                .errorCountsByCode(log.getErrorCountsByCode())
+                .errorCountsByField(log.getErrorCountsByField())
                 .details(detailDtos)
                 .build();
     }
+
+    /**
+     * Ligne NDJSON (un objet JSON par ligne, sans retour à la ligne final) d'un détail,
+     * sérialisé comme LogChargementDetailDto (mêmes champs que GET /{id}/details).
+     */
+    public String toNdjsonLine(LogChargementDetail detail) {
+        return detailWriter.writeValueAsString(toDetailDto(detail));
+    }
+
+    private void expandRange(LogChargementRange range, List<LogChargementDetailDto> target) {
+        for (int line = range.getStartLine(); line <= range.getEndLine(); line++) {
+            target.add(LogChargementDetailDto.builder()
+                    .lineNumber(line)
+                    .status(range.getStatus())
+                    .build());
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.event;
+// Evenement applicatif : un fichier d'un job est termine (traite ou en echec).
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.JobFileStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by JobResultService when a file of a job is recorded as treated or failed.
+ *
+ * @param jobId         job identifier
+ * @param fileName      file name (as moved to DATA_BACKUP / DATA_FAILED)
+ * @param status        TREATED or FAILED
+ * @param detailProblem failure reason, null when treated
+ * @param completedAt   when the outcome was recorded
+ */
+public record JobFileCompletedEvent(String jobId,
+                                    String fileName,
+                                    JobFileStatus status,
+                                    String detailProblem,
+                                    LocalDateTime completedAt) {
+}
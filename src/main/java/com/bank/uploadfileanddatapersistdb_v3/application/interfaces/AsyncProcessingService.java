@@ -6,6 +6,16 @@ package com.bank.uploadfileanddatapersistdb_v3.application.interfaces;
  * Used by controllers to start and run async ingestion jobs.
  */
 public interface AsyncProcessingService {
+    /**
+     * Admits a job in its config's bulkhead, starts it, then runs it in the background
+     * on the config's job pool.
+     *
+     * @return generated jobId
+     * @throws com.bank.uploadfileanddatapersistdb_v3.domain.exception.JobRejectedException
+     *         if the config already has its maximum of running and queued jobs
+     */
+    String submitJob(String configId);
+
     /**
      * Starts a job by counting total records in DATA_IN
      * and initializing progress tracking.
@@ -14,8 +24,8 @@ public interface AsyncProcessingService {
     String startJob(String configId);
 
     /**
-     * Runs the ingestion job asynchronously.
-     * This method is triggered after startJob().
+     * Runs the ingestion job on the calling thread.
+     * This method is triggered after startJob() (by submitJob() on the config's job pool).
      */
     void runJob(String jobId, String configId);
 }
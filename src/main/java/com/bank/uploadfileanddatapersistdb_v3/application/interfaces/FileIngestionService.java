@@ -15,4 +15,16 @@ public interface FileIngestionService {
     public int ingestCsvPathWithProgress(Path filePath, String mappingPath, ProgressReporter progressReporter);
 
     public int ingestXmlPathWithProgress(Path filePath, String mappingPath, ProgressReporter progressReporter);
+
+    /**
+     * Same as ingestCsvPathWithProgress, with the file's record count when the caller already knows it
+     * (used to pre-size the HASHED in-file duplicate table; 0 = unknown).
+     */
+    public int ingestCsvPathWithProgress(Path filePath, String mappingPath, ProgressReporter progressReporter, int expectedRecords);
+
+    /**
+     * Same as ingestXmlPathWithProgress, with the file's record count when the caller already knows it
+     * (used to pre-size the HASHED in-file duplicate table; 0 = unknown).
+     */
+    public int ingestXmlPathWithProgress(Path filePath, String mappingPath, ProgressReporter progressReporter, int expectedRecords);
 }
@@ -25,6 +25,8 @@ public interface FolderService {
 
     Path moveOneFromInToTreatmentWithTimestamp(String configId);
 
+    String originalFileName(Path treatmentFile);
+
     Path moveTreatmentToBackup(String configId, Path treatmentFile);
 
     Path moveTreatmentToFailed(String configId, Path treatmentFile);
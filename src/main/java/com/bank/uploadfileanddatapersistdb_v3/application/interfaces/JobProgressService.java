@@ -17,6 +17,11 @@ public interface JobProgressService {
      */
     void incrementProcessed(String jobId);
 
+    /**
+     * Add bytes read from the job's current file (throughput in bytes/s).
+     */
+    void addBytesRead(String jobId, long bytes);
+
     /**
      * Mark job as finished successfully.
      */
@@ -34,4 +39,9 @@ public interface JobProgressService {
      * @return JobProgressDto or null if job not found
      */
     JobProgressDto get(String jobId);
+
+    /**
+     * Number of jobs running on this node (progress state held in memory).
+     */
+    int runningJobs();
 }
@@ -0,0 +1,15 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.interfaces;
+// Interface pour diffuser la progression d'un job en Server-Sent Events.
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface JobProgressStreamService {
+    /**
+     * Subscribe to a job's event stream: "progress" snapshots at a bounded rate,
+     * "file" events as files complete, then a final "result" event.
+     *
+     * @param jobId job identifier
+     * @return emitter, or null if job not found
+     */
+    SseEmitter subscribe(String jobId);
+}
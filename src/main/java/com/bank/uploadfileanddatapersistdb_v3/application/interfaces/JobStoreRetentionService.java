@@ -0,0 +1,18 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.interfaces;
+// Interface pour borner le stockage des jobs asynchrones.
+
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.JobStoreStats;
+
+public interface JobStoreRetentionService {
+    /**
+     * Evict finished jobs older than the TTL, then the oldest ones beyond the maximum size.
+     *
+     * @return number of jobs evicted by this run
+     */
+    long evictFinishedJobs();
+
+    /**
+     * Stored jobs, in-memory running jobs and eviction counters.
+     */
+    JobStoreStats stats();
+}
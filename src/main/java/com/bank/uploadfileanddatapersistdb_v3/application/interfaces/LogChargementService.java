@@ -2,10 +2,14 @@ package com.bank.uploadfileanddatapersistdb_v3.application.interfaces;
 // Interface pour les logs de chargement.
 
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargement;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargementDetail;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LineStatus;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Use-case contract for import logs: create, update per line, finalize, and search.
@@ -14,13 +18,29 @@ public interface LogChargementService {
 
     LogChargement startLog(String fileName);
 
+    LogChargement startLog(String fileName, String configId, LogMode logMode);
+
     void addLine(LogChargement log, int lineNumber, LineStatus status, String detailProblem);
 
+    void addRejectedLine(LogChargement log, int lineNumber);
+
+    void flushLines(LogChargement log);
+
     void finalizeLog(LogChargement log, int totalLines, int successLines, int failedLines);
 
     List<LogChargement> getAllLogs();
 
     LogChargement getLogById(Long id);
 
-    List<LogChargement> searchLogs(String fileName, LogStatus status);
+    List<LogChargementDetail> findDetails(LogChargement log, LineStatus status, String errorCode, int afterLine, int limit);
+
+    void streamDetails(LogChargement log, LineStatus status, String errorCode, Consumer<LogChargementDetail> sink);
+
+    List<LogChargement> searchLogs(String fileName,
+                                   LogStatus status,
+                                   LocalDateTime from,
+                                   LocalDateTime to,
+                                   LocalDateTime afterCreatedAt,
+                                   Long afterId,
+                                   int limit);
 }
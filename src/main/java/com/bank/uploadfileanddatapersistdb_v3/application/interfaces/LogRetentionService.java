@@ -0,0 +1,22 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.interfaces;
+// Interface pour la retention des logs de chargement.
+
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.LogPurgeReport;
+
+/**
+ * Use-case contract for import log retention: purge logs older than their config's retention.
+ */
+public interface LogRetentionService {
+
+    /**
+     * Purges expired logs (and their details) now, in bounded batches.
+     *
+     * @return report of this run (the previous report if a run is already in progress)
+     */
+    LogPurgeReport purgeExpiredLogs();
+
+    /**
+     * Report of the last completed run, or null if the purge never ran.
+     */
+    LogPurgeReport lastReport();
+}
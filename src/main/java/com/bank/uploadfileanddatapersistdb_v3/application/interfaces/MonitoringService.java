@@ -0,0 +1,49 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.interfaces;
+// Interface pour exposer l'etat interne du moteur d'ingestion.
+
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.DuplicateQueryCacheDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.JobBulkheadDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.JobStoreDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogPurgeReportDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogSinkDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.PipelineStageDto;
+
+import java.util.List;
+
+public interface MonitoringService {
+    /**
+     * Queue depths of the files currently ingested in parallel mode.
+     *
+     * @return one entry per running file (empty when idle or in sequential mode)
+     */
+    List<PipelineStageDto> pipelineStages();
+
+    /**
+     * Hit/miss counters of the duplicate existence query cache.
+     */
+    DuplicateQueryCacheDto duplicateQueryCache();
+
+    /**
+     * Rows purged by the last run of the log retention job.
+     *
+     * @return last report, or null if the purge never ran since startup
+     */
+    LogPurgeReportDto logRetention();
+
+    /**
+     * Queue depth and counters of the asynchronous log writer.
+     */
+    LogSinkDto logSink();
+
+    /**
+     * Stored async jobs and eviction counters of the job store.
+     */
+    JobStoreDto jobStore();
+
+    /**
+     * Running, queued and rejected jobs of each config's bulkhead.
+     *
+     * @return one entry per config that submitted a job since startup
+     */
+    List<JobBulkheadDto> jobExecutors();
+}
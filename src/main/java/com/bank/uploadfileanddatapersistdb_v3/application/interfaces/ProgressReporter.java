@@ -2,10 +2,16 @@ package com.bank.uploadfileanddatapersistdb_v3.application.interfaces;
 // Callback simple pour signaler un record traite.
 
 /**
- * Reports progress at record level (line/record).
- * Implementation is typically JobProgressService (in-memory).
+ * Reports progress at record level (line/record), and optionally the bytes read from the file.
+ * Implementation is typically JobProgressService (lock-free counters, flushed to the database periodically).
  */
 @FunctionalInterface
 public interface ProgressReporter {
     void onRecordProcessed();
+
+    /**
+     * Bytes read from the source file (called per buffered read, not per record).
+     */
+    default void onBytesRead(long bytes) {
+    }
 }
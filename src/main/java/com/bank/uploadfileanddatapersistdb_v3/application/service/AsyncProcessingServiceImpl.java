@@ -2,15 +2,26 @@ package com.bank.uploadfileanddatapersistdb_v3.application.service;
 // Orchestration du traitement batch asynchrone.
 
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.*;
+import com.bank.uploadfileanddatapersistdb_v3.domain.exception.JobRejectedException;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.IngestionSettingsEmbeddable;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.executor.IngestionJobExecutor;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.executor.IngestionThreads;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -26,9 +37,19 @@ import java.util.stream.Collectors;
  *    - déplacer le fichier traité vers DATA_BACKUP (succès) ou DATA_FAILED (erreur)
  * 3) Mettre à jour l’état d’avancement (JobProgressService) après chaque record traité
  *
+ * Fichiers en parallèle (settings.fileConcurrency, sinon ingestion.job.file-concurrency) :
+ * - N workers prennent chacun un fichier de DATA_IN (move atomique : un fichier n'est pris qu'une fois)
+ *   et l'ingèrent, jusqu'à ce que DATA_IN soit vide
+ * - tous alimentent le même job : compteurs de progression sans verrou, une ligne de résultat par fichier
+ * - 1 worker = traitement séquentiel historique, sur le thread du job
+ * - ingestion.execution.mode=VIRTUAL : job et workers sur threads virtuels, fichiers ingérés en même
+ *   temps bornés par le pool de connexions (IngestionThreads)
+ *
  * Important :
- * - Le traitement est asynchrone grâce à @Async.
- * - Le controller appelle startJob(...) pour init le job, puis runJob(...) pour l’exécuter en background.
+ * - Le controller appelle submitJob(...) : admission dans le bulkhead de la config (IngestionJobExecutor),
+ *   init du job (startJob), puis runJob(...) en background sur le pool de la config.
+ * - Bulkhead plein (settings.maxConcurrentJobs + settings.jobQueueDepth jobs admis) : JobRejectedException
+ *   (HTTP 429), avant toute création de job.
  */
 @Service
 @RequiredArgsConstructor
@@ -57,7 +78,7 @@ public class AsyncProcessingServiceImpl implements AsyncProcessingService {
     private final FileIngestionService ingestionService;
 
     /**
-     * Stocke en mémoire l’état d’avancement d’un job (RUNNING/FINISHED/FAILED),
+     * Stocke (en base, écritures regroupées) l’état d’avancement d’un job (RUNNING/FINISHED/FAILED),
      * le totalRecords, processedRecords, le percent, etc.
      */
     private final JobProgressService jobProgressService;
@@ -74,6 +95,90 @@ public class AsyncProcessingServiceImpl implements AsyncProcessingService {
      */
     private final FileRecordCounter fileRecordCounter;
 
+    /**
+     * Records par fichier de DATA_IN (nom d'origine), comptés au démarrage du job :
+     * transmis à l'ingestion du fichier, qui n'a pas à le relire. Retiré à la fin du job.
+     */
+    private final Map<String, Map<String, Integer>> recordCountsByJob = new ConcurrentHashMap<>();
+
+    /**
+     * Lecture de settings.fileConcurrency.
+     */
+    private final FileReaderConfigService configService;
+
+    /**
+     * Fichiers traités en parallèle par un job quand la config ne le précise pas.
+     */
+    @Value("${ingestion.job.file-concurrency:1}")
+    private int defaultFileConcurrency;
+
+    /**
+     * Plafond de settings.fileConcurrency (threads créés par job).
+     */
+    @Value("${ingestion.job.max-file-concurrency:8}")
+    private int maxFileConcurrency;
+
+    /**
+     * Pools de jobs cloisonnés par config.
+     */
+    private final IngestionJobExecutor jobExecutor;
+
+    /**
+     * Threads plateforme ou virtuels, et borne des fichiers en base (mode VIRTUAL).
+     */
+    private final IngestionThreads threads;
+
+    /**
+     * Jobs exécutés en même temps par config quand la config ne le précise pas.
+     */
+    @Value("${ingestion.executor.max-concurrent-jobs:2}")
+    private int defaultMaxConcurrentJobs;
+
+    /**
+     * Jobs admis en attente par config quand la config ne le précise pas.
+     */
+    @Value("${ingestion.executor.queue-depth:5}")
+    private int defaultJobQueueDepth;
+
+    /**
+     * Admet le job dans le bulkhead de la config, l'initialise, puis le lance sur le pool de la config.
+     *
+     * @param configId identifiant de configuration
+     * @return jobId unique (UUID)
+     */
+    @Override
+    public String submitJob(String configId) {
+        String id = requireConfigId(configId);
+        IngestionSettingsEmbeddable settings = configService.getEntity(id).getSettings();
+        int maxConcurrentJobs = (settings == null || settings.getMaxConcurrentJobs() == null)
+                ? defaultMaxConcurrentJobs : settings.getMaxConcurrentJobs();
+        int jobQueueDepth = (settings == null || settings.getJobQueueDepth() == null)
+                ? defaultJobQueueDepth : settings.getJobQueueDepth();
+
+        // 1) Réserve une place (JobRejectedException si le bulkhead est plein)
+        IngestionJobExecutor.Permit permit = jobExecutor.admit(id, maxConcurrentJobs, jobQueueDepth);
+
+        // 2) Création du job ; place rendue si elle échoue
+        String jobId;
+        try {
+            jobId = startJob(id);
+        } catch (RuntimeException ex) {
+            permit.release();
+            throw ex;
+        }
+
+        // 3) Exécution sur le pool de la config (le thread HTTP répond immédiatement)
+        try {
+            permit.execute(() -> runJob(jobId, id));
+        } catch (JobRejectedException ex) {
+            // Pool refusé (arrêt du noeud) : place déjà rendue, le job créé ne tournera pas
+            recordCountsByJob.remove(jobId);
+            jobProgressService.fail(jobId);
+            throw ex;
+        }
+        return jobId;
+    }
+
     /**
      * Démarre un job :
      * - s’assure que les dossiers existent
@@ -90,22 +195,20 @@ public class AsyncProcessingServiceImpl implements AsyncProcessingService {
         folderService.ensureFoldersExist(id);
 
         // totalRecords sert a calculer un % realiste + ETA (timeLeft)
-        int totalRecords = countTotalRecordsInDataIn(id);
+        Map<String, Integer> recordCounts = countRecordsInDataIn(id);
+        int totalRecords = recordCounts.values().stream().mapToInt(Integer::intValue).sum();
 
         // Creation du job (status RUNNING) + stockage du totalRecords
         String jobId = jobProgressService.start(totalRecords);
         jobResultService.start(jobId);
+        recordCountsByJob.put(jobId, recordCounts);
         return jobId;
     }
 
     /**
-     * Exécute le job de façon asynchrone.
-     *
-     * @Async signifie :
-     * - la méthode s’exécute dans un thread séparé
-     * - l’appel HTTP (controller) n’attend pas la fin du traitement
+     * Exécute le job sur le thread appelant (un thread du bulkhead de la config via submitJob).
      *
-     * Traitement :
+     * Traitement (par chaque worker, fileConcurrency workers) :
      * - boucle infinie:
      *    - déplacer un fichier depuis DATA_IN vers DATA_TREATMENT
      *    - si aucun fichier => stop
@@ -119,97 +222,179 @@ public class AsyncProcessingServiceImpl implements AsyncProcessingService {
      * @param configId identifiant de config
      */
     @Override
-    @Async
     public void runJob(String jobId, String configId) {
 
         String id = requireConfigId(configId);
 
         try {
-            while (true) {
+            int workers = fileConcurrency(id);
+            if (workers <= 1) {
+                processFiles(jobId, id);
+            } else {
+                runWorkers(jobId, id, workers);
+            }
 
-                // 1) Prendre 1 fichier du dossier IN et le déplacer en TREATMENT
-                //    (le fichier est renommé avec timestamp par FolderService)
-                Path treatmentFile = folderService.moveOneFromInToTreatmentWithTimestamp(id);
+            // Tous les fichiers ont été traités (ou plus de fichiers dans DATA_IN)
+            jobProgressService.finish(jobId);
 
-                // S'il n'y a plus de fichiers à traiter, on sort de la boucle
-                if (treatmentFile == null) break;
+        } catch (Exception ex) {
+            // Erreur globale "hors fichier" (ex: problème listing dossier, etc.)
+            org.slf4j.LoggerFactory.getLogger(AsyncProcessingServiceImpl.class)
+                    .error("Job {} failed: {}", jobId, ex.getMessage(), ex);
+            jobProgressService.fail(jobId);
+        } finally {
+            recordCountsByJob.remove(jobId);
+        }
+    }
 
-                // Nom du fichier en minuscule pour tester l’extension
-                String name = treatmentFile.getFileName().toString().toLowerCase(Locale.ROOT);
+    /**
+     * Lance workers - 1 threads en plus du thread du job ; chacun traite des fichiers jusqu'à DATA_IN vide.
+     * Une erreur globale d'un worker fait échouer le job une fois tous les workers terminés.
+     */
+    private void runWorkers(String jobId, String configId, int workers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(workers - 1,
+                threads.factory("job-" + jobId.substring(0, Math.min(8, jobId.length())) + "-file-"));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 1; i < workers; i++) {
+                futures.add(pool.submit(() -> {
+                    processFiles(jobId, configId);
+                    return null;
+                }));
+            }
 
+            Exception failure = null;
+            try {
+                processFiles(jobId, configId);
+            } catch (Exception ex) {
+                failure = ex;
+            }
+            for (Future<?> f : futures) {
                 try {
-                    // 2) Ingestion selon le type de fichier
-                    if (name.endsWith(".csv")) {
-
-                        // ingestCsvPathWithProgress(...) traite chaque record et
-                        // appelle progressReporter.onRecordProcessed() après chaque record.
-                        // Ici, on branche ce callback sur jobProgressService.incrementProcessed(jobId).
-                        ingestionService.ingestCsvPathWithProgress(
-                                treatmentFile,
-                                id,
-                                () -> jobProgressService.incrementProcessed(jobId)
-                        );
-
-                    } else if (name.endsWith(".xml")) {
-
-                        ingestionService.ingestXmlPathWithProgress(
-                                treatmentFile,
-                                id,
-                                () -> jobProgressService.incrementProcessed(jobId)
-                        );
-
-                    } else {
-                        // 3) Type non supporté => on le met en FAILED.
-                        // Note : on ne fait pas incrementProcessed car ce fichier
-                        // ne fait normalement pas partie du "totalRecords" (countRecords renvoie 0).
-                        jobResultService.addFailed(jobId, treatmentFile.getFileName().toString(), "Unsupported file type");
-                        folderService.moveTreatmentToFailed(id, treatmentFile);
-                        continue;
+                    f.get();
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = (ex.getCause() instanceof Exception cause) ? cause : ex;
                     }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-                    // 4) Si ingestion OK => on archive en BACKUP
-                    folderService.moveTreatmentToBackup(id, treatmentFile);
-                    jobResultService.addTreated(jobId, treatmentFile.getFileName().toString());
+    /**
+     * Boucle d'un worker : prend un fichier de DATA_IN, l'ingère, le range, jusqu'à DATA_IN vide.
+     */
+    private void processFiles(String jobId, String id) {
+        while (true) {
+
+            // 1) Prendre 1 fichier du dossier IN et le déplacer en TREATMENT
+            //    (le fichier est renommé avec timestamp par FolderService)
+            Path treatmentFile = folderService.moveOneFromInToTreatmentWithTimestamp(id);
+
+            // S'il n'y a plus de fichiers à traiter, on sort de la boucle
+            if (treatmentFile == null) break;
+
+            // Nom du fichier en minuscule pour tester l’extension
+            String name = treatmentFile.getFileName().toString().toLowerCase(Locale.ROOT);
+
+            // Records comptés au démarrage du job (0 : fichier arrivé après, ou comptage en échec)
+            int expectedRecords = expectedRecords(jobId, treatmentFile);
+
+            try {
+                // 2) Ingestion selon le type de fichier
+                if (name.endsWith(".csv")) {
+
+                    // ingestCsvPathWithProgress(...) traite chaque record et
+                    // appelle progressReporter.onRecordProcessed() après chaque record.
+                    // Ici, on branche ce callback (et les octets lus) sur jobProgressService via reporterFor(jobId).
+                    // En mode VIRTUAL, le fichier attend d'abord une place parmi les connexions de la base.
+                    threads.runWithDatabasePermit(() -> ingestionService.ingestCsvPathWithProgress(
+                            treatmentFile,
+                            id,
+                            reporterFor(jobId),
+                            expectedRecords
+                    ));
+
+                } else if (name.endsWith(".xml")) {
+
+                    threads.runWithDatabasePermit(() -> ingestionService.ingestXmlPathWithProgress(
+                            treatmentFile,
+                            id,
+                            reporterFor(jobId),
+                            expectedRecords
+                    ));
+
+                } else {
+                    // 3) Type non supporté => on le met en FAILED.
+                    // Note : on ne fait pas incrementProcessed car ce fichier
+                    // ne fait normalement pas partie du "totalRecords" (countRecords renvoie 0).
+                    jobResultService.addFailed(jobId, treatmentFile.getFileName().toString(), "Unsupported file type");
+                    folderService.moveTreatmentToFailed(id, treatmentFile);
+                    continue;
+                }
 
-                } catch (Exception ex) {
-                    // Erreur sur ce fichier : on log et on le déplace en FAILED
-                    org.slf4j.LoggerFactory.getLogger(AsyncProcessingServiceImpl.class)
-                            .error("Processing failed for file {}: {}", treatmentFile.getFileName(), ex.getMessage(), ex);
+                // 4) Si ingestion OK => on archive en BACKUP
+                folderService.moveTreatmentToBackup(id, treatmentFile);
+                jobResultService.addTreated(jobId, treatmentFile.getFileName().toString());
 
-                    jobResultService.addFailed(
-                            jobId,
-                            treatmentFile.getFileName().toString(),
-                            ex.getMessage()
-                    );
-                    folderService.moveTreatmentToFailed(id, treatmentFile);
+            } catch (Exception ex) {
+                // Erreur sur ce fichier : on log et on le déplace en FAILED
+                org.slf4j.LoggerFactory.getLogger(AsyncProcessingServiceImpl.class)
+                        .error("Processing failed for file {}: {}", treatmentFile.getFileName(), ex.getMessage(), ex);
 
-                    // Important : on continue la boucle => le job traite les autres fichiers
-                    // (on ne stoppe pas tout le batch sur une erreur isolée)
-                }
+                jobResultService.addFailed(
+                        jobId,
+                        treatmentFile.getFileName().toString(),
+                        ex.getMessage()
+                );
+                folderService.moveTreatmentToFailed(id, treatmentFile);
+
+                // Important : on continue la boucle => le job traite les autres fichiers
+                // (on ne stoppe pas tout le batch sur une erreur isolée)
             }
+        }
+    }
 
-            // Tous les fichiers ont été traités (ou plus de fichiers dans DATA_IN)
-            jobProgressService.finish(jobId);
+    /**
+     * settings.fileConcurrency de la config, sinon valeur par défaut ; borné à max-file-concurrency.
+     */
+    private int fileConcurrency(String configId) {
+        IngestionSettingsEmbeddable settings = configService.getEntity(configId).getSettings();
+        Integer configured = (settings == null) ? null : settings.getFileConcurrency();
+        int n = (configured != null) ? configured : defaultFileConcurrency;
+        return Math.max(1, Math.min(n, Math.max(1, maxFileConcurrency)));
+    }
 
-        } catch (Exception ex) {
-            // Erreur globale "hors fichier" (ex: problème listing dossier, etc.)
-            jobProgressService.fail(jobId);
+    /**
+     * Nombre de records du fichier compté par startJob, retrouvé par son nom dans DATA_IN.
+     */
+    private int expectedRecords(String jobId, Path treatmentFile) {
+        Map<String, Integer> counts = recordCountsByJob.get(jobId);
+        if (counts == null) {
+            return 0;
         }
+        return counts.getOrDefault(folderService.originalFileName(treatmentFile), 0);
     }
 
     /**
-     * Calcule le total d’enregistrements à traiter dans DATA_IN.
+     * Compte les enregistrements à traiter dans DATA_IN, par fichier.
      *
      * Étapes :
      * 1) récupérer le chemin du dossier IN (dépendant de configId)
      * 2) lister tous les fichiers réguliers
      * 3) pour chaque fichier, compter le nombre de records (CSV ou XML)
-     * 4) sommer pour obtenir totalRecords
+     * 4) startJob somme les comptes pour obtenir totalRecords
      *
      * Pourquoi :
      * - JobProgressService a besoin d’un totalRecords pour afficher percent et ETA.
+     * - l'ingestion de chaque fichier réutilise son compte (table des doublons HASHED) sans le relire.
      */
-    private int countTotalRecordsInDataIn(String configId) {
+    private Map<String, Integer> countRecordsInDataIn(String configId) {
         try {
             // Récupère le dossier IN depuis la config DB via DataFoldersProvider
             Path inDir = folders.inPath(configId);
@@ -222,22 +407,39 @@ public class AsyncProcessingServiceImpl implements AsyncProcessingService {
                         .collect(Collectors.toList());
             }
 
-            // Somme des records de tous les fichiers
-            int total = 0;
+            // Records de chaque fichier
+            Map<String, Integer> counts = new ConcurrentHashMap<>();
             for (Path p : files) {
                 // countRecords(...) retourne 0 si extension inconnue
-                total += Math.max(0, fileRecordCounter.countRecords(p, configId));
+                counts.put(p.getFileName().toString(), Math.max(0, fileRecordCounter.countRecords(p, configId)));
             }
-            return total;
+            return counts;
 
         } catch (Exception e) {
-            // Si le comptage échoue, on log et on retourne 0
+            // Si le comptage échoue, on log et on retourne un compte vide (total 0)
             org.slf4j.LoggerFactory.getLogger(AsyncProcessingServiceImpl.class)
                     .error("Failed to count total records in DATA_IN: {}", e.getMessage(), e);
-            return 0;
+            return Map.of();
         }
     }
 
+    /**
+     * Branche la progression d'un fichier (records traités, octets lus) sur le job.
+     */
+    private ProgressReporter reporterFor(String jobId) {
+        return new ProgressReporter() {
+            @Override
+            public void onRecordProcessed() {
+                jobProgressService.incrementProcessed(jobId);
+            }
+
+            @Override
+            public void onBytesRead(long bytes) {
+                jobProgressService.addBytesRead(jobId, bytes);
+            }
+        };
+    }
+
     private String requireConfigId(String configId) {
         if (configId == null || configId.isBlank()) {
             throw new IllegalArgumentException("configId is required");
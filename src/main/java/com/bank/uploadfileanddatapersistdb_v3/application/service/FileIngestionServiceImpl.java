@@ -3,21 +3,30 @@ package com.bank.uploadfileanddatapersistdb_v3.application.service;
 
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.FileIngestionService;
 import com.bank.uploadfileanddatapersistdb_v3.domain.exception.StreamProcessingException;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.WriteMode;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.filesystem.PathMultipartFile;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.filesystem.RejectFileWriter;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.parser.CsvRecordReader;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.parser.RecordReader;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.parser.XmlRecordReader;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.persistence.GenericDuplicateDbChecker;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.persistence.GenericRecordPersister;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.persistence.JdbcBatchRecordPersister;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline.IngestionOptions;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline.IngestionPipeline;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.MappingRegistry;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.CsvSchema;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.FileSchema;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.XmlSchema;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.ProgressReporter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.function.LongConsumer;
 
 /**
  * FileIngestionServiceImpl
@@ -58,11 +67,34 @@ public class FileIngestionServiceImpl implements FileIngestionService {
      */
     private final GenericRecordPersister recordPersister;
 
+    /**
+     * Persiste par INSERT JDBC batch (settings.writeMode = JDBC_BATCH).
+     */
+    private final JdbcBatchRecordPersister jdbcBatchRecordPersister;
+
     /**
      * Vérifie si le record (selon les champs duplicateCheck) existe déjà en DB.
      */
     private final GenericDuplicateDbChecker duplicateDbChecker;
 
+    /**
+     * Validateurs parallèles par fichier (1 = traitement séquentiel sur le thread du job).
+     */
+    @Value("${ingestion.parallel.workers:1}")
+    private int parallelWorkers;
+
+    /**
+     * Lignes lues mais pas encore écrites, au maximum, en mode parallèle.
+     */
+    @Value("${ingestion.parallel.queue-depth:1000}")
+    private int parallelQueueDepth;
+
+    /**
+     * Records vérifiés en base en une seule requête de doublons (mode record par record).
+     */
+    @Value("${ingestion.duplicate.db-lookup-window:500}")
+    private int duplicateLookupWindow;
+
     /**
      * Ingestion d’un fichier CSV (Path) avec reporting de progression.
      *
@@ -73,6 +105,17 @@ public class FileIngestionServiceImpl implements FileIngestionService {
      */
     @Override
     public int ingestCsvPathWithProgress(Path filePath, String configId, ProgressReporter progressReporter) {
+        return ingestCsvPathWithProgress(filePath, configId, progressReporter, 0);
+    }
+
+    /**
+     * Ingestion d’un fichier CSV (Path), nombre de records déjà connu de l'appelant.
+     *
+     * @param expectedRecords records du fichier, compté au démarrage du job (0 = inconnu)
+     */
+    @Override
+    public int ingestCsvPathWithProgress(Path filePath, String configId, ProgressReporter progressReporter,
+                                         int expectedRecords) {
 
         // 1) Charger la config/mapping CSV depuis la DB
         CsvSchema schema = mappingRegistry.loadCsv(configId);
@@ -80,17 +123,17 @@ public class FileIngestionServiceImpl implements FileIngestionService {
 
         // 2) Adapter Path -> MultipartFile pour réutiliser CsvRecordReader
         // 3) RecordReader est AutoCloseable => try-with-resources ferme parser/streams
-        try (RecordReader rr = new CsvRecordReader(new PathMultipartFile(filePath), schema)) {
+        try (RecordReader rr = new CsvRecordReader(new PathMultipartFile(filePath, bytesListener(progressReporter)), schema)) {
 
             // 4) Délégation au pipeline générique
             return pipeline.process(
                     filePath.getFileName().toString(),    // nom pour les logs
-                    schema.getDuplicateCheck(),           // champs de détection doublons
-                    rr.iterator(),                        // records (Map<String,String>) en streaming
-                    schema.getColumns(),                  // règles de validation (CSV)
-                    record -> recordPersister.persist(record, schema.getColumns(), entityClass),          // persister un record validé
-                    (record, fields) -> duplicateDbChecker.exists(record, fields, schema.getColumns(), entityClass), // doublon DB
-                    progressReporter                      // callback progression
+                    schema.getPlan(),                     // règles de validation + champs doublons, par slot (CSV)
+                    rr.iterator(),                        // records (String[]) en streaming
+                    persisterFor(schema, entityClass),    // persister record/chunk validé
+                    dbCheckerFor(schema, entityClass),    // doublon DB (record ou lot)
+                    progressReporter,                     // callback progression
+                    optionsFor(schema, filePath, configId, expectedRecords) // réglages (batchSize, workers, ...)
             );
 
         } catch (Exception e) {
@@ -109,23 +152,34 @@ public class FileIngestionServiceImpl implements FileIngestionService {
      */
     @Override
     public int ingestXmlPathWithProgress(Path filePath, String configId, ProgressReporter progressReporter) {
+        return ingestXmlPathWithProgress(filePath, configId, progressReporter, 0);
+    }
+
+    /**
+     * Ingestion d’un fichier XML (Path), nombre de records déjà connu de l'appelant.
+     *
+     * @param expectedRecords records du fichier, compté au démarrage du job (0 = inconnu)
+     */
+    @Override
+    public int ingestXmlPathWithProgress(Path filePath, String configId, ProgressReporter progressReporter,
+                                         int expectedRecords) {
 
         // 1) Charger la config/mapping XML depuis la DB
         XmlSchema schema = mappingRegistry.loadXml(configId);
         Class<?> entityClass = resolveEntityClass(configId, schema.getEntityClassName());
 
         // 2) Adapter Path -> MultipartFile pour réutiliser XmlRecordReader
-        try (RecordReader rr = new XmlRecordReader(new PathMultipartFile(filePath), schema)) {
+        try (RecordReader rr = new XmlRecordReader(new PathMultipartFile(filePath, bytesListener(progressReporter)), schema)) {
 
             // 3) Délégation au pipeline générique
             return pipeline.process(
                     filePath.getFileName().toString(),    // nom pour les logs
-                    schema.getDuplicateCheck(),           // champs de détection doublons
-                    rr.iterator(),                        // records (Map<String,String>) en streaming
-                    schema.getFields(),                   // règles de validation (XML)
-                    record -> recordPersister.persist(record, schema.getFields(), entityClass),           // persister un record validé
-                    (record, fields) -> duplicateDbChecker.exists(record, fields, schema.getFields(), entityClass), // doublon DB
-                    progressReporter                      // callback progression
+                    schema.getPlan(),                     // règles de validation + champs doublons, par slot (XML)
+                    rr.iterator(),                        // records (String[]) en streaming
+                    persisterFor(schema, entityClass),    // persister record/chunk validé
+                    dbCheckerFor(schema, entityClass),    // doublon DB (record ou lot)
+                    progressReporter,                     // callback progression
+                    optionsFor(schema, filePath, configId, expectedRecords) // réglages (batchSize, workers, ...)
             );
 
         } catch (Exception e) {
@@ -133,6 +187,80 @@ public class FileIngestionServiceImpl implements FileIngestionService {
         }
     }
 
+    /**
+     * Adapte le persister choisi par la config (JPA merge ou JDBC batch)
+     * au contrat du pipeline (record seul ou chunk transactionnel).
+     */
+    private IngestionPipeline.RecordPersister persisterFor(FileSchema schema, Class<?> entityClass) {
+        RecordPlan plan = schema.getPlan();
+        if (schema.getWriteMode() == WriteMode.JDBC_BATCH) {
+            // INSERT construit maintenant : un mapping non insérable échoue avant la première ligne
+            jdbcBatchRecordPersister.prepare(plan, entityClass);
+            return new IngestionPipeline.RecordPersister() {
+                @Override
+                public void persist(Object[] record) {
+                    jdbcBatchRecordPersister.persist(record, plan, entityClass);
+                }
+
+                @Override
+                public void persistAll(List<Object[]> records) {
+                    jdbcBatchRecordPersister.persistAll(records, plan, entityClass);
+                }
+            };
+        }
+        return new IngestionPipeline.RecordPersister() {
+            @Override
+            public void persist(Object[] record) {
+                recordPersister.persist(record, plan, entityClass);
+            }
+
+            @Override
+            public void persistAll(List<Object[]> records) {
+                recordPersister.persistAll(records, plan, entityClass);
+            }
+        };
+    }
+
+    /**
+     * Adapte le checker de doublons DB au contrat du pipeline (record seul ou lot de records).
+     */
+    private IngestionPipeline.DuplicateDbChecker dbCheckerFor(FileSchema schema, Class<?> entityClass) {
+        RecordPlan plan = schema.getPlan();
+        return new IngestionPipeline.DuplicateDbChecker() {
+            @Override
+            public boolean exists(Object[] record) {
+                return duplicateDbChecker.exists(record, plan, entityClass);
+            }
+
+            @Override
+            public boolean[] existsAll(List<Object[]> records) {
+                return duplicateDbChecker.existsAll(records, plan, entityClass);
+            }
+        };
+    }
+
+    /**
+     * Octets lus du fichier -> progression du job (débit en octets/s), null sans reporter.
+     */
+    private static LongConsumer bytesListener(ProgressReporter progressReporter) {
+        return (progressReporter == null) ? null : progressReporter::onBytesRead;
+    }
+
+    private IngestionOptions optionsFor(FileSchema schema, Path filePath, String configId, int expectedRecords) {
+        return IngestionOptions.builder()
+                .batchSize(schema.getBatchSize())
+                .workers(parallelWorkers)
+                .queueDepth(parallelQueueDepth)
+                .collectAllErrors(schema.isCollectAllErrors())
+                .duplicateLookupWindow(duplicateLookupWindow)
+                .inFileDuplicateMode(schema.getInFileDuplicateMode())
+                .expectedRecords(Math.max(0, expectedRecords))
+                .logMode(schema.getLogMode())
+                .rejectFile(schema.isRejectFile() ? RejectFileWriter.sidecarOf(filePath) : null)
+                .configId(configId)
+                .build();
+    }
+
     private Class<?> resolveEntityClass(String configId, String entityClassName) {
         if (entityClassName == null || entityClassName.isBlank()) {
             throw new StreamProcessingException(
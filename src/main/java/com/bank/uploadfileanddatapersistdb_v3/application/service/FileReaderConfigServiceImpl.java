@@ -16,13 +16,20 @@ import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.DataFoldersEmb
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.FileReaderConfig;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.FileReaderMappingCSV;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.FileReaderMappingXML;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.IngestionSettingsEmbeddable;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.XmlFieldEntity;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.FieldType;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.InFileDuplicateMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.WriteMode;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository.FileReaderConfigRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 /**
  * Service métier responsable de la gestion des configurations de lecture (FileReaderConfig).
  *
@@ -141,6 +148,12 @@ public class FileReaderConfigServiceImpl implements FileReaderConfigService {
                         .idConfigFichier(dto.getIdConfigFichier())
                         .build());
 
+        // Rejeter les regex invalides avant d'enregistrer (sinon chaque fichier échouerait au chargement)
+        validatePatterns(dto);
+
+        // Mêmes bornes que updateMeta sur les réglages numériques
+        validateSettings(dto.getSettings());
+
         // Appliquer dto -> entity (paths + mappings CSV/XML + colonnes/champs + relations bidirectionnelles)
         mapper.updateEntityFromDto(dto, cfg);
 
@@ -212,6 +225,45 @@ public class FileReaderConfigServiceImpl implements FileReaderConfigService {
 
             cfg.setPaths(paths);
         }
+        if (update.getSettings() != null) {
+            IngestionSettingsEmbeddable settings = cfg.getSettings();
+            if (settings == null) {
+                settings = new IngestionSettingsEmbeddable();
+            }
+
+            if (update.getSettings().getBatchSize() != null) {
+                settings.setBatchSize(requirePositive(update.getSettings().getBatchSize(), "batchSize"));
+            }
+            if (update.getSettings().getWriteMode() != null) {
+                settings.setWriteMode(parseWriteMode(update.getSettings().getWriteMode()));
+            }
+            if (update.getSettings().getCollectAllErrors() != null) {
+                settings.setCollectAllErrors(update.getSettings().getCollectAllErrors());
+            }
+            if (update.getSettings().getInFileDuplicateMode() != null) {
+                settings.setInFileDuplicateMode(parseInFileDuplicateMode(update.getSettings().getInFileDuplicateMode()));
+            }
+            if (update.getSettings().getLogMode() != null) {
+                settings.setLogMode(parseLogMode(update.getSettings().getLogMode()));
+            }
+            if (update.getSettings().getRejectFile() != null) {
+                settings.setRejectFile(update.getSettings().getRejectFile());
+            }
+            if (update.getSettings().getLogRetentionDays() != null) {
+                settings.setLogRetentionDays(requirePositive(update.getSettings().getLogRetentionDays(), "logRetentionDays"));
+            }
+            if (update.getSettings().getFileConcurrency() != null) {
+                settings.setFileConcurrency(requirePositive(update.getSettings().getFileConcurrency(), "fileConcurrency"));
+            }
+            if (update.getSettings().getMaxConcurrentJobs() != null) {
+                settings.setMaxConcurrentJobs(requirePositive(update.getSettings().getMaxConcurrentJobs(), "maxConcurrentJobs"));
+            }
+            if (update.getSettings().getJobQueueDepth() != null) {
+                settings.setJobQueueDepth(requireNonNegative(update.getSettings().getJobQueueDepth(), "jobQueueDepth"));
+            }
+
+            cfg.setSettings(settings);
+        }
 
         repo.save(cfg);
         return mapper.toDto(cfg);
@@ -282,6 +334,8 @@ public class FileReaderConfigServiceImpl implements FileReaderConfigService {
             throw new FileProcessingException("CSV column orderIndex already exists: " + column.getOrderIndex());
         }
 
+        validatePattern(column.getPattern(), name);
+
         CsvColumnEntity entity = CsvColumnEntity.builder()
                 .orderIndex(column.getOrderIndex())
                 .name(name)
@@ -419,6 +473,8 @@ public class FileReaderConfigServiceImpl implements FileReaderConfigService {
             throw new FileProcessingException("XML field orderIndex already exists: " + field.getOrderIndex());
         }
 
+        validatePattern(field.getPattern(), name);
+
         XmlFieldEntity entity = XmlFieldEntity.builder()
                 .orderIndex(field.getOrderIndex())
                 .name(name)
@@ -531,6 +587,20 @@ public class FileReaderConfigServiceImpl implements FileReaderConfigService {
         return fields;
     }
 
+    private Integer requirePositive(Integer value, String label) {
+        if (value < 1) {
+            throw new FileProcessingException(label + " must be >= 1: " + value);
+        }
+        return value;
+    }
+
+    private Integer requireNonNegative(Integer value, String label) {
+        if (value < 0) {
+            throw new FileProcessingException(label + " must be >= 0: " + value);
+        }
+        return value;
+    }
+
     private String normalizeName(String name, String label) {
         if (name == null || name.isBlank()) {
             throw new FileProcessingException(label + " name is required");
@@ -607,6 +677,7 @@ public class FileReaderConfigServiceImpl implements FileReaderConfigService {
     }
 
     private void applyCsvColumnUpdate(CsvColumnEntity target, FileReaderConfigDto.CsvColumnDto source) {
+        validatePattern(source.getPattern(), target.getName());
         target.setOrderIndex(source.getOrderIndex());
         target.setHeader(source.getHeader());
         target.setType(parseFieldType(source.getType()));
@@ -616,6 +687,7 @@ public class FileReaderConfigServiceImpl implements FileReaderConfigService {
     }
 
     private void applyXmlFieldUpdate(XmlFieldEntity target, FileReaderConfigDto.XmlFieldDto source) {
+        validatePattern(source.getPattern(), target.getName());
         target.setOrderIndex(source.getOrderIndex());
         target.setTag(source.getTag());
         target.setType(parseFieldType(source.getType()));
@@ -624,6 +696,75 @@ public class FileReaderConfigServiceImpl implements FileReaderConfigService {
         target.setPattern(source.getPattern());
     }
 
+    private void validateSettings(FileReaderConfigDto.SettingsDto settings) {
+        if (settings == null) {
+            return;
+        }
+        if (settings.getBatchSize() != null) {
+            requirePositive(settings.getBatchSize(), "batchSize");
+        }
+        if (settings.getLogRetentionDays() != null) {
+            requirePositive(settings.getLogRetentionDays(), "logRetentionDays");
+        }
+        if (settings.getFileConcurrency() != null) {
+            requirePositive(settings.getFileConcurrency(), "fileConcurrency");
+        }
+        if (settings.getMaxConcurrentJobs() != null) {
+            requirePositive(settings.getMaxConcurrentJobs(), "maxConcurrentJobs");
+        }
+        if (settings.getJobQueueDepth() != null) {
+            requireNonNegative(settings.getJobQueueDepth(), "jobQueueDepth");
+        }
+    }
+
+    private void validatePatterns(FileReaderConfigDto dto) {
+        if (dto.getFileMappingCSV() != null && dto.getFileMappingCSV().getColumns() != null) {
+            for (FileReaderConfigDto.CsvColumnDto c : dto.getFileMappingCSV().getColumns()) {
+                validatePattern(c.getPattern(), c.getName());
+            }
+        }
+        if (dto.getFileMappingXML() != null && dto.getFileMappingXML().getFields() != null) {
+            for (FileReaderConfigDto.XmlFieldDto f : dto.getFileMappingXML().getFields()) {
+                validatePattern(f.getPattern(), f.getName());
+            }
+        }
+    }
+
+    private void validatePattern(String pattern, String fieldName) {
+        if (pattern == null || pattern.isBlank()) {
+            return;
+        }
+        try {
+            Pattern.compile(pattern);
+        } catch (PatternSyntaxException e) {
+            throw new FileProcessingException("Invalid pattern for field '" + fieldName + "': " + e.getDescription());
+        }
+    }
+
+    private WriteMode parseWriteMode(String mode) {
+        try {
+            return WriteMode.valueOf(mode.trim());
+        } catch (IllegalArgumentException e) {
+            throw new FileProcessingException("Invalid write mode: " + mode);
+        }
+    }
+
+    private InFileDuplicateMode parseInFileDuplicateMode(String mode) {
+        try {
+            return InFileDuplicateMode.valueOf(mode.trim());
+        } catch (IllegalArgumentException e) {
+            throw new FileProcessingException("Invalid in-file duplicate mode: " + mode);
+        }
+    }
+
+    private LogMode parseLogMode(String mode) {
+        try {
+            return LogMode.valueOf(mode.trim());
+        } catch (IllegalArgumentException e) {
+            throw new FileProcessingException("Invalid log mode: " + mode);
+        }
+    }
+
     private FieldType parseFieldType(String type) {
         if (type == null || type.isBlank()) {
             return null;
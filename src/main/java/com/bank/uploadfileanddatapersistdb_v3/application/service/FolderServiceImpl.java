@@ -4,6 +4,7 @@ package com.bank.uploadfileanddatapersistdb_v3.application.service;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.DataFoldersProvider;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.FolderService;
 import com.bank.uploadfileanddatapersistdb_v3.domain.exception.FileProcessingException;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.filesystem.RejectFileWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -43,6 +44,7 @@ class FolderServiceImpl implements FolderService {
      * Exemple : employees_2026-01-02_12-05-44.csv
      */
     private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private static final int TS_LENGTH = "yyyy-MM-dd_HH-mm-ss".length();
 
     /**
      * Crée les répertoires DATA_* si ils n’existent pas.
@@ -201,6 +203,11 @@ class FolderServiceImpl implements FolderService {
      * Stratégie de sélection :
      * - choisir le fichier le plus ancien (min lastModified)
      *
+     * Prise atomique (plusieurs workers ou noeuds sur le même DATA_IN) :
+     * - le déplacement est un rename ATOMIC_MOVE : un seul worker obtient le fichier
+     * - un fichier pris entre le listing et le move (NoSuchFileException) : on passe au suivant,
+     *   puis on relit DATA_IN si tous les candidats ont été pris par d'autres
+     *
      * @return Path du fichier déplacé dans DATA_TREATMENT, ou null s’il n’y a aucun fichier à traiter
      */
 
@@ -208,34 +215,52 @@ class FolderServiceImpl implements FolderService {
     public Path moveOneFromInToTreatmentWithTimestamp(String configId) {
         ensureFoldersExist(configId);
 
-        try (Stream<Path> s = Files.list(inPath(configId))) {
-
-            // Choisir le plus ancien fichier (par date de modification)
-            Path chosen = s.filter(Files::isRegularFile)
-                    .min(Comparator.comparingLong(this::lastModifiedSafe))
-                    .orElse(null);
-
-            // Aucun fichier à traiter
-            if (chosen == null) return null;
-
-            // Renommer avec timestamp
-            String fileName = chosen.getFileName().toString();
-            String renamed = appendTimestamp(fileName, LocalDateTime.now());
+        try {
+            while (true) {
+                // Candidats du plus ancien au plus récent (par date de modification)
+                List<Path> candidates;
+                try (Stream<Path> s = Files.list(inPath(configId))) {
+                    candidates = s.filter(Files::isRegularFile)
+                            .sorted(Comparator.comparingLong(this::lastModifiedSafe))
+                            .collect(Collectors.toList());
+                }
 
-            // Nouveau chemin dans DATA_TREATMENT
-            Path target = treatmentPath(configId).resolve(renamed);
+                // Aucun fichier à traiter
+                if (candidates.isEmpty()) return null;
 
-            // Move (atomique si possible sur le même FS)
-            return Files.move(chosen, target, StandardCopyOption.REPLACE_EXISTING);
+                for (Path chosen : candidates) {
+                    // Renommer avec timestamp, dans DATA_TREATMENT
+                    String renamed = appendTimestamp(chosen.getFileName().toString(), LocalDateTime.now());
+                    Path target = treatmentPath(configId).resolve(renamed);
 
+                    try {
+                        return claim(chosen, target);
+                    } catch (NoSuchFileException taken) {
+                        // Pris par un autre worker : candidat suivant
+                    }
+                }
+            }
         } catch (Exception e) {
             throw new FileProcessingException("Cannot move file DATA_IN -> DATA_TREATMENT: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Rename atomique ; move classique si DATA_IN et DATA_TREATMENT ne sont pas sur le même FS
+     * (la source disparaît alors à la fin de la copie : un autre worker peut échouer en NoSuchFileException).
+     */
+    private Path claim(Path source, Path target) throws java.io.IOException {
+        try {
+            return Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            return Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * Déplace un fichier depuis DATA_TREATMENT vers DATA_BACKUP.
      * À utiliser après traitement réussi.
+     * Son fichier de rejets (settings.rejectFile), s'il existe, le suit.
      */
     @Override
     public Path moveTreatmentToBackup(String configId, Path treatmentFile) {
@@ -246,16 +271,21 @@ class FolderServiceImpl implements FolderService {
 
         Path target = backupPath(configId).resolve(treatmentFile.getFileName().toString());
 
+        Path moved;
         try {
-            return Files.move(treatmentFile, target, StandardCopyOption.REPLACE_EXISTING);
+            moved = Files.move(treatmentFile, target, StandardCopyOption.REPLACE_EXISTING);
         } catch (Exception e) {
             throw new FileProcessingException("Cannot move file DATA_TREATMENT -> DATA_BACKUP: " + e.getMessage(), e);
         }
+        // Le fichier est rangé : un échec du sidecar ne remet pas ce déplacement en cause
+        moveRejectFile(treatmentFile, backupPath(configId));
+        return moved;
     }
 
     /**
      * Déplace un fichier depuis DATA_TREATMENT vers DATA_FAILED.
      * À utiliser si le parsing/validation/persistence a échoué.
+     * Son fichier de rejets (settings.rejectFile), s'il existe, le suit.
      */
     @Override
     public Path moveTreatmentToFailed(String configId, Path treatmentFile) {
@@ -266,11 +296,33 @@ class FolderServiceImpl implements FolderService {
 
         Path target = failedPath(configId).resolve(treatmentFile.getFileName().toString());
 
+        Path moved;
         try {
-            return Files.move(treatmentFile, target, StandardCopyOption.REPLACE_EXISTING);
+            moved = Files.move(treatmentFile, target, StandardCopyOption.REPLACE_EXISTING);
         } catch (Exception e) {
             throw new FileProcessingException("Cannot move file DATA_TREATMENT -> DATA_FAILED: " + e.getMessage(), e);
         }
+        // Le fichier est rangé : un échec du sidecar ne remet pas ce déplacement en cause
+        moveRejectFile(treatmentFile, failedPath(configId));
+        return moved;
+    }
+
+    /**
+     * Déplace le fichier de rejets sidecar (<fichier>.rejects) à côté du fichier source, s'il existe.
+     * En cas d'échec, il reste dans DATA_TREATMENT (erreur loggée, pas levée : le fichier source est déjà rangé).
+     */
+    private void moveRejectFile(Path treatmentFile, Path targetDir) {
+        Path rejects = RejectFileWriter.sidecarOf(treatmentFile);
+        if (!Files.exists(rejects)) {
+            return;
+        }
+        try {
+            Files.move(rejects, targetDir.resolve(rejects.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            org.slf4j.LoggerFactory.getLogger(FolderServiceImpl.class)
+                    .error("File {} moved to {} but its reject file stayed in DATA_TREATMENT: {}",
+                            treatmentFile.getFileName(), targetDir, e.getMessage(), e);
+        }
     }
 
     /**
@@ -313,6 +365,32 @@ class FolderServiceImpl implements FolderService {
         return inPath(configId).resolve(simpleName);
     }
 
+    /**
+     * Nom du fichier dans DATA_IN avant son passage en DATA_TREATMENT (timestamp retiré).
+     * Exemple : employees_2026-01-02_10-15-00.csv -> employees.csv
+     *
+     * Un nom sans timestamp est renvoyé tel quel.
+     */
+    @Override
+    public String originalFileName(Path treatmentFile) {
+        String fileName = treatmentFile.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        boolean hasExt = dot > 0 && dot < fileName.length() - 1;
+        String base = hasExt ? fileName.substring(0, dot) : fileName;
+        String ext = hasExt ? fileName.substring(dot) : "";
+
+        int sep = base.length() - TS_LENGTH - 1;
+        if (sep <= 0 || base.charAt(sep) != '_') {
+            return fileName;
+        }
+        try {
+            LocalDateTime.parse(base.substring(sep + 1), TS);
+        } catch (java.time.format.DateTimeParseException notStamped) {
+            return fileName;
+        }
+        return base.substring(0, sep) + ext;
+    }
+
     /**
      * Ajoute un timestamp au nom de fichier avant extension.
      * Exemple : employees.csv -> employees_2026-01-02_10-15-00.csv
@@ -1,157 +1,471 @@
 package com.bank.uploadfileanddatapersistdb_v3.application.service;
-// Suivi en memoire de l'avancement d'un job.
+// Suivi persistant (DB) de l'avancement d'un job, ecritures regroupees.
 
 import com.bank.uploadfileanddatapersistdb_v3.api.dto.JobProgressDto;
 import com.bank.uploadfileanddatapersistdb_v3.api.mapper.JobProgressMapper;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobProgressService;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.IngestionJob;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.JobStatus;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline.ThroughputMeter;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository.IngestionJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.time.Duration;
-import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * JobProgressServiceImpl
  *
- * Service en mémoire (in-memory) pour suivre la progression des jobs asynchrones.
+ * Suivi de la progression des jobs asynchrones, persisté en base (table ingestion_job) :
+ * n'importe quel noeud répond à GET /process/progress/{jobId}, et un redémarrage ne perd pas les jobs.
  *
  * Responsabilités :
- * - gérer l’état interne des jobs (RUNNING / FINISHED / FAILED)
- * - calculer percent, elapsed time et ETA
+ * - gérer l’état des jobs (RUNNING / FINISHED / FAILED)
+ * - calculer percent, débits, elapsed time et ETA
  * - déléguer la construction du DTO au JobProgressMapper
+ *
+ * Compteurs sans verrou :
+ * - incrementProcessed() / addBytesRead() ne font qu'un LongAdder.increment/add, sûr quel que soit
+ *   le nombre de threads d'ingestion ; les lecteurs (HTTP, flush) en lisent la somme
+ * - débit : ThroughputMeter échantillonne ces sommes à chaque flush (fenêtre glissante,
+ *   ingestion.job.throughput-window-seconds) ; l'ETA vient du débit lissé (EWMA,
+ *   ingestion.job.eta-smoothing-seconds) et suit un ralentissement de la base en cours de job
+ *
+ * Écritures regroupées :
+ * - flushProgress() écrit compteurs, débits et ETA des jobs qui ont changé, au plus une fois par
+ *   ingestion.job.progress-flush-ms (un UPDATE par job), quel que soit le débit de records
+ * - finish() / fail() écrivent tout de suite le statut final et le dernier compteur ; l'état en mémoire
+ *   n'est retiré qu'une fois cette écriture réussie (sinon réessayée à chaque flush)
+ * - heartbeat : un job en cours est réécrit au moins toutes les ingestion.job.heartbeat-seconds,
+ *   même sans progression (updatedAt sert à détecter les jobs orphelins) ; flushProgress() a son propre
+ *   thread du scheduler (spring.task.scheduling.pool.size), une purge longue ne retarde pas le heartbeat
+ * - le statut final n'est écrit que sur un job encore RUNNING : un job déjà marqué FAILED par le sweep
+ *   ou au redémarrage reste FAILED (signalé dans les logs), jamais repassé en FINISHED
+ *
+ * Jobs orphelins (noeud arrêté, renommé, ou écriture finale jamais passée) :
+ * - failStaleJobs() marque FAILED les jobs RUNNING dont updatedAt date de plus de
+ *   ingestion.job.stale-after-seconds, quel que soit le noeud
+ * - au démarrage, si ingestion.job.node-id est fixé, les jobs RUNNING de ce noeud sont marqués FAILED
+ *   tout de suite ; sans node-id, chaque instance prend un identifiant unique (hôte + suffixe aléatoire)
+ *   pour ne jamais toucher aux jobs d'une autre instance du même hôte
+ *
+ * Le noeud qui exécute le job lit son compteur en mémoire (à jour) ; les autres lisent la base
+ * (en retard d'au plus un intervalle de flush). Base indisponible : le noeud exécutant répond
+ * depuis la mémoire et réessaie l'écriture au flush suivant.
+ *
+ * La mémoire ne garde que les jobs en cours sur ce noeud (retirés à finish/fail) ; les jobs
+ * terminés sont évincés de la base par JobStoreRetentionService (TTL, taille max).
  */
 @Service
+@RequiredArgsConstructor
 public class JobProgressServiceImpl implements JobProgressService {
 
     /**
-     * État interne d’un job.
+     * État en mémoire d’un job exécuté par ce noeud.
      * Caché à l’extérieur (API expose uniquement JobProgressDto).
      */
     private static class State {
-        String status;
-        int totalRecords;
-        int processedRecords;
-        Instant startedAt;
-        Long estimatedTotalSeconds;
+        final int totalRecords;
+        final LocalDateTime startedAt;
+        final LongAdder processedRecords = new LongAdder();
+        final LongAdder bytesRead = new LongAdder();
+        final ThroughputMeter meter;
+        volatile long flushedAtNanos;
+        volatile JobStatus finalStatus; // statut final pas encore écrit en base (null = en cours)
+        volatile long flushedRecords;
+        volatile long flushedBytes;
+        volatile long flushedRecordsPerSecond;
+        volatile Long estimatedTotalSeconds;
+
+        State(int totalRecords, LocalDateTime startedAt, ThroughputMeter meter) {
+            this.totalRecords = totalRecords;
+            this.startedAt = startedAt;
+            this.meter = meter;
+        }
+
+        int processed() {
+            return (int) Math.min(Integer.MAX_VALUE, processedRecords.sum());
+        }
     }
 
     /**
-     * Store thread-safe (jobId -> State).
-     * Nécessaire car accès concurrent (thread async + HTTP).
+     * Jobs en cours sur ce noeud (jobId -> State).
+     * Nécessaire car accès concurrent (thread async + HTTP + flush planifié).
      */
-    private final Map<String, State> store = new ConcurrentHashMap<>();
+    private final Map<String, State> running = new ConcurrentHashMap<>();
+
+    private final IngestionJobRepository jobRepository;
 
     /**
      * Mapper DTO dédié.
      */
     private final JobProgressMapper mapper;
 
-    public JobProgressServiceImpl(JobProgressMapper mapper) {
-        this.mapper = mapper;
-    }
+    /**
+     * Identifiant stable du noeud : ses jobs RUNNING sont marqués FAILED à son redémarrage.
+     * Vide : identifiant unique par instance (hôte + suffixe), jobs orphelins repris par failStaleJobs().
+     */
+    @Value("${ingestion.job.node-id:}")
+    private String nodeId;
+
+    /**
+     * Écriture d'un job en cours au moins toutes les heartbeat-seconds, même sans progression.
+     */
+    @Value("${ingestion.job.heartbeat-seconds:30}")
+    private long heartbeatSeconds;
+
+    /**
+     * Job RUNNING sans écriture depuis stale-after-seconds : considéré orphelin (doit dépasser le heartbeat).
+     */
+    @Value("${ingestion.job.stale-after-seconds:300}")
+    private long staleAfterSeconds;
+
+    private String resolvedNode;
+
+    /**
+     * Fenêtre du débit affiché (records/s, octets/s).
+     */
+    @Value("${ingestion.job.throughput-window-seconds:10}")
+    private double throughputWindowSeconds;
+
+    /**
+     * Constante de temps du lissage EWMA du débit utilisé pour l'ETA.
+     */
+    @Value("${ingestion.job.eta-smoothing-seconds:10}")
+    private double etaSmoothingSeconds;
 
     @Override
     public String start(int totalRecords) {
         String id = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int total = Math.max(0, totalRecords);
 
-        State s = new State();
-        s.status = "RUNNING";
-        s.totalRecords = Math.max(0, totalRecords);
-        s.processedRecords = 0;
-        s.startedAt = Instant.now();
-        s.estimatedTotalSeconds = null;
+        jobRepository.save(IngestionJob.builder()
+                .jobId(id)
+                .status(JobStatus.RUNNING)
+                .totalRecords(total)
+                .processedRecords(0)
+                .node(node())
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
 
-        store.put(id, s);
+        State s = new State(total, now, new ThroughputMeter(throughputWindowSeconds, etaSmoothingSeconds));
+        s.meter.sample(0, 0, System.nanoTime());
+        s.flushedAtNanos = System.nanoTime();
+        running.put(id, s);
         return id;
     }
 
     @Override
     public void incrementProcessed(String jobId) {
-        State s = store.get(jobId);
+        State s = running.get(jobId);
         if (s == null) return;
-        s.processedRecords++;
+        s.processedRecords.increment();
     }
 
     @Override
-    public void finish(String jobId) {
-        State s = store.get(jobId);
+    public void addBytesRead(String jobId, long bytes) {
+        State s = running.get(jobId);
         if (s == null) return;
-        s.status = "FINISHED";
+        s.bytesRead.add(bytes);
+    }
+
+    @Override
+    public void finish(String jobId) {
+        complete(jobId, JobStatus.FINISHED);
     }
 
     @Override
     public void fail(String jobId) {
-        State s = store.get(jobId);
-        if (s == null) return;
-        s.status = "FAILED";
+        complete(jobId, JobStatus.FAILED);
+    }
+
+    /**
+     * Échantillonne le débit des jobs de ce noeud et écrit ceux qui ont changé depuis le dernier passage.
+     */
+    @Scheduled(fixedDelayString = "${ingestion.job.progress-flush-ms:500}")
+    public void flushProgress() {
+        LocalDateTime now = LocalDateTime.now();
+        long nanos = System.nanoTime();
+        long heartbeatNanos = TimeUnit.SECONDS.toNanos(Math.max(1, heartbeatSeconds));
+        for (Map.Entry<String, State> e : running.entrySet()) {
+            State s = e.getValue();
+            if (s.finalStatus != null) {
+                // Écriture finale en échec : réessayée ici jusqu'à ce qu'elle passe
+                writeFinal(e.getKey(), s);
+                continue;
+            }
+            long processed = s.processedRecords.sum();
+            long bytes = s.bytesRead.sum();
+            s.meter.sample(processed, bytes, nanos);
+
+            // Débit qui change sans nouveau record (job bloqué) : écrit aussi, l'ETA des autres noeuds suit
+            ThroughputMeter.Rates rates = s.meter.rates();
+            long recordsPerSecond = Math.round(rates.recordsPerSecond());
+            boolean unchanged = processed == s.flushedRecords && bytes == s.flushedBytes
+                    && recordsPerSecond == s.flushedRecordsPerSecond;
+            if (unchanged && nanos - s.flushedAtNanos < heartbeatNanos) {
+                continue;
+            }
+            int processedRecords = (int) Math.min(Integer.MAX_VALUE, processed);
+            try {
+                jobRepository.updateProgress(e.getKey(), processedRecords, bytes,
+                        rates.recordsPerSecond(), rates.bytesPerSecond(),
+                        timeLeft(s.totalRecords, processedRecords, rates.smoothedRecordsPerSecond(), s.startedAt),
+                        s.estimatedTotalSeconds, now, JobStatus.RUNNING);
+                s.flushedRecords = processed;
+                s.flushedBytes = bytes;
+                s.flushedRecordsPerSecond = recordsPerSecond;
+                s.flushedAtNanos = nanos;
+            } catch (DataAccessException ex) {
+                // Réessayé au prochain passage ; la progression reste lisible en mémoire sur ce noeud
+                org.slf4j.LoggerFactory.getLogger(JobProgressServiceImpl.class)
+                        .warn("Progress flush failed for job {}: {}", e.getKey(), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Jobs laissés RUNNING par un arrêt de ce noeud : leur thread n'existe plus, ils sont marqués FAILED.
+     * Seulement avec un ingestion.job.node-id fixé (un identifiant généré ne revient jamais).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        if (nodeId == null || nodeId.isBlank()) {
+            return;
+        }
+        try {
+            int interrupted = jobRepository.failRunningOnNode(node(), LocalDateTime.now(), JobStatus.RUNNING, JobStatus.FAILED);
+            if (interrupted > 0) {
+                org.slf4j.LoggerFactory.getLogger(JobProgressServiceImpl.class)
+                        .warn("{} job(s) interrupted by the restart of node {} marked FAILED", interrupted, node());
+            }
+        } catch (DataAccessException ex) {
+            org.slf4j.LoggerFactory.getLogger(JobProgressServiceImpl.class)
+                    .error("Cannot mark interrupted jobs as FAILED: {}", ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Jobs RUNNING qui ne sont plus écrits (noeud disparu, identifiant changé) : marqués FAILED.
+     * Les jobs de ce noeud sont écrits à chaque heartbeat et ne sont donc pas concernés.
+     */
+    @Scheduled(fixedDelayString = "${ingestion.job.stale-sweep-ms:60000}")
+    public void failStaleJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        long staleAfter = Math.max(staleAfterSeconds, 2 * Math.max(1, heartbeatSeconds));
+        try {
+            int stale = jobRepository.failStale(now.minusSeconds(staleAfter), now, JobStatus.RUNNING, JobStatus.FAILED);
+            if (stale > 0) {
+                org.slf4j.LoggerFactory.getLogger(JobProgressServiceImpl.class)
+                        .warn("{} orphan job(s) without update for {} s marked FAILED", stale, staleAfter);
+            }
+        } catch (DataAccessException ex) {
+            org.slf4j.LoggerFactory.getLogger(JobProgressServiceImpl.class)
+                    .warn("Stale job sweep failed: {}", ex.getMessage());
+        }
     }
 
     @Override
     public JobProgressDto get(String jobId) {
-        State s = store.get(jobId);
-        if (s == null) return null;
+        State local = running.get(jobId);
+
+        IngestionJob job;
+        try {
+            job = jobRepository.findById(jobId).orElse(null);
+        } catch (DataAccessException ex) {
+            if (local == null) throw ex;
+            job = null; // base indisponible : état en mémoire du noeud exécutant
+        }
+        if (local == null && job == null) return null;
+
+        // Le noeud exécutant a les compteurs et le débit à jour ; sinon dernières valeurs écrites en base
+        String status = (local != null)
+                ? (local.finalStatus != null ? local.finalStatus : JobStatus.RUNNING).name()
+                : job.getStatus().name();
+        int totalRecords = (local != null) ? local.totalRecords : job.getTotalRecords();
+        int processedRecords = (local != null) ? local.processed() : job.getProcessedRecords();
+        long bytesRead = (local != null) ? local.bytesRead.sum() : job.getBytesRead();
+        LocalDateTime startedAt = (local != null) ? local.startedAt : job.getStartedAt();
+        Long estimatedTotalSeconds = (local != null) ? local.estimatedTotalSeconds : job.getEstimatedTotalSeconds();
+
+        double recordsPerSecond = 0;
+        double bytesPerSecond = 0;
+        if (local != null) {
+            ThroughputMeter.Rates rates = local.meter.rates();
+            recordsPerSecond = rates.recordsPerSecond();
+            bytesPerSecond = rates.bytesPerSecond();
+        } else if ("RUNNING".equals(status)) {
+            recordsPerSecond = (job.getRecordsPerSecond() == null) ? 0 : job.getRecordsPerSecond();
+            bytesPerSecond = (job.getBytesPerSecond() == null) ? 0 : job.getBytesPerSecond();
+        }
 
-        // 1) Temps écoulé
+        // 1) Temps écoulé (jusqu'à la fin du job s'il est terminé)
+        LocalDateTime end = (local == null && job.getFinishedAt() != null) ? job.getFinishedAt() : LocalDateTime.now();
         long elapsedSec = 0;
-        if (s.startedAt != null) {
-            elapsedSec = Math.max(0, Duration.between(s.startedAt, Instant.now()).getSeconds());
+        if (startedAt != null) {
+            elapsedSec = Math.max(0, Duration.between(startedAt, end).getSeconds());
         }
 
         // 2) Pourcentage
         int percent;
-        if (s.totalRecords <= 0) {
-            percent = "FINISHED".equals(s.status) ? 100 : 0;
+        if (totalRecords <= 0) {
+            percent = "FINISHED".equals(status) ? 100 : 0;
         } else {
-            long p = (s.processedRecords * 100L) / s.totalRecords;
+            long p = (processedRecords * 100L) / totalRecords;
             percent = (int) Math.min(100, Math.max(0, p));
         }
 
-        // 3) ETA (time left)
-        Long timeLeft = null;
-        if ("RUNNING".equals(s.status)
-                && s.totalRecords > 0
-                && s.processedRecords > 0
-                && elapsedSec > 0) {
-
-            double rate = (double) s.processedRecords / (double) elapsedSec;
-            if (rate > 0) {
-                long remaining = s.totalRecords - s.processedRecords;
-                timeLeft = remaining <= 0
-                        ? 0L
-                        : (long) Math.ceil(remaining / rate);
-            }
-        } else if (!"RUNNING".equals(s.status)) {
+        // 3) ETA (time left) : débit récent lissé (EWMA)
+        Long timeLeft;
+        if (!"RUNNING".equals(status)) {
             timeLeft = 0L;
+        } else if (local != null) {
+            timeLeft = timeLeft(totalRecords, processedRecords, local.meter.rates().smoothedRecordsPerSecond(), startedAt);
+        } else if (job.getTimeLeftSeconds() != null) {
+            timeLeft = job.getTimeLeftSeconds();
+        } else {
+            timeLeft = timeLeft(totalRecords, processedRecords, 0, startedAt);
         }
 
         // 4) Total time (estimated upfront when possible)
         long totalTimeSeconds = 0L;
-        if (s.estimatedTotalSeconds != null) {
-            totalTimeSeconds = s.estimatedTotalSeconds;
-        } else if ("RUNNING".equals(s.status)
+        if (estimatedTotalSeconds != null) {
+            totalTimeSeconds = estimatedTotalSeconds;
+        } else if ("RUNNING".equals(status)
                 && timeLeft != null
-                && s.totalRecords > 0
-                && s.processedRecords > 0
+                && totalRecords > 0
+                && processedRecords > 0
                 && elapsedSec > 0) {
             long estimate = elapsedSec + timeLeft;
-            s.estimatedTotalSeconds = estimate;
+            if (local != null) {
+                // Fixée une fois, écrite en base au prochain flush
+                local.estimatedTotalSeconds = estimate;
+            }
             totalTimeSeconds = estimate;
-        } else if ("FINISHED".equals(s.status)) {
-            s.estimatedTotalSeconds = elapsedSec;
+        } else if ("FINISHED".equals(status)) {
             totalTimeSeconds = elapsedSec;
         }
 
         // 5) Mapping vers DTO (via mapper)
         return mapper.toDto(
                 jobId,
-                s.status,
-                s.totalRecords,
-                s.processedRecords,
+                status,
+                totalRecords,
+                processedRecords,
                 percent,
+                bytesRead,
+                recordsPerSecond,
+                bytesPerSecond,
                 timeLeft,
                 totalTimeSeconds
         );
     }
+
+    @Override
+    public int runningJobs() {
+        return running.size();
+    }
+
+    /**
+     * Temps restant au débit lissé ; tant qu'aucun débit n'est mesuré (premier flush),
+     * débit moyen depuis le début du job.
+     *
+     * @return secondes restantes, null si inconnu
+     */
+    private static Long timeLeft(int totalRecords, int processedRecords, double smoothedRate, LocalDateTime startedAt) {
+        if (totalRecords <= 0 || processedRecords <= 0) {
+            return null;
+        }
+        long remaining = totalRecords - processedRecords;
+        if (remaining <= 0) {
+            return 0L;
+        }
+        double rate = smoothedRate;
+        if (rate <= 0) {
+            long elapsedSec = Math.max(0, Duration.between(startedAt, LocalDateTime.now()).getSeconds());
+            if (elapsedSec == 0) {
+                return null;
+            }
+            rate = (double) processedRecords / elapsedSec;
+        }
+        return (long) Math.ceil(remaining / rate);
+    }
+
+    private void complete(String jobId, JobStatus status) {
+        State s = running.get(jobId);
+        if (s != null) {
+            s.finalStatus = status;
+            writeFinal(jobId, s);
+            return;
+        }
+        try {
+            jobRepository.findById(jobId).ifPresent(job -> {
+                int updated = jobRepository.complete(jobId, status, job.getProcessedRecords(), job.getBytesRead(),
+                        LocalDateTime.now(), JobStatus.RUNNING);
+                if (updated == 0) {
+                    warnNotRunning(jobId, status);
+                }
+            });
+        } catch (DataAccessException ex) {
+            org.slf4j.LoggerFactory.getLogger(JobProgressServiceImpl.class)
+                    .error("Cannot mark job {} as {}: {}", jobId, status, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Écrit le statut final d'un job de ce noeud ; l'état en mémoire n'est retiré qu'après succès.
+     */
+    private void writeFinal(String jobId, State s) {
+        try {
+            int updated = jobRepository.complete(jobId, s.finalStatus, s.processed(), s.bytesRead.sum(),
+                    LocalDateTime.now(), JobStatus.RUNNING);
+            if (updated == 0) {
+                // Statut écrit par quelqu'un d'autre (sweep, redémarrage) : on ne l'écrase pas, rien à réessayer
+                warnNotRunning(jobId, s.finalStatus);
+            }
+            running.remove(jobId, s);
+        } catch (DataAccessException ex) {
+            org.slf4j.LoggerFactory.getLogger(JobProgressServiceImpl.class)
+                    .error("Cannot mark job {} as {} (retried at next flush): {}", jobId, s.finalStatus, ex.getMessage());
+        }
+    }
+
+    private static void warnNotRunning(String jobId, JobStatus status) {
+        org.slf4j.LoggerFactory.getLogger(JobProgressServiceImpl.class)
+                .warn("Job {} ended {} but was no longer RUNNING in the database: existing status kept", jobId, status);
+    }
+
+    private String node() {
+        String node = resolvedNode;
+        if (node == null) {
+            node = (nodeId != null && !nodeId.isBlank())
+                    ? nodeId
+                    : hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+            resolvedNode = node;
+        }
+        return node;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
 }
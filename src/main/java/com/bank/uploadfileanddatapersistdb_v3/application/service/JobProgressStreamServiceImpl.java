@@ -0,0 +1,238 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.service;
+// Service de diffusion SSE de la progression des jobs asynchrones.
+
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.JobProgressDto;
+import com.bank.uploadfileanddatapersistdb_v3.application.event.JobFileCompletedEvent;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobProgressService;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobProgressStreamService;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobResultService;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.JobStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JobProgressStreamServiceImpl
+ *
+ * Flux SSE (GET /process/progress/{jobId}/stream) : un canal par job, partagé par tous ses abonnés.
+ * - un seul producteur par canal : une tâche planifiée lit la progression (JobProgressService.get)
+ *   toutes les interval-ms et diffuse l'instantané à chaque abonné ; cent abonnés coûtent
+ *   une lecture par intervalle, comme un seul
+ * - "progress" n'est envoyé que si l'instantané a changé (débit borné par l'intervalle)
+ * - "file" : fichier terminé (JobFileCompletedEvent, après commit) ; seuls les abonnés
+ *   connectés au noeud qui exécute le job les reçoivent, les autres voient le "result" final
+ * - fin du job : dernier "progress", "result" (JobResultService), puis fermeture du flux
+ *
+ * Le canal et sa tâche disparaissent avec le dernier abonné (déconnexion, timeout, fin du job).
+ */
+@Service
+@RequiredArgsConstructor
+public class JobProgressStreamServiceImpl implements JobProgressStreamService {
+
+    private static final long MIN_INTERVAL_MS = 100;
+
+    private final JobProgressService jobProgressService;
+
+    private final JobResultService jobResultService;
+
+    /**
+     * Intervalle entre deux instantanés "progress" d'un job.
+     */
+    @Value("${ingestion.job.sse.interval-ms:500}")
+    private long intervalMs;
+
+    /**
+     * Durée de vie d'une connexion SSE (le client se reconnecte au-delà).
+     */
+    @Value("${ingestion.job.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    /**
+     * Threads des producteurs (partagés par tous les canaux).
+     */
+    @Value("${ingestion.job.sse.threads:2}")
+    private int threads;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newScheduledThreadPool(Math.max(1, threads),
+                Thread.ofPlatform().name("job-sse-", 0).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        channels.values().forEach(this::close);
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        JobProgressDto snapshot = (jobId == null) ? null : jobProgressService.get(jobId);
+        if (snapshot == null) {
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        send(emitter, "progress", snapshot);
+        if (!isRunning(snapshot)) {
+            // Job déjà terminé : instantané final et résultat, sans canal
+            send(emitter, "result", jobResultService.get(jobId));
+            emitter.complete();
+            return emitter;
+        }
+
+        Channel channel = channels.compute(jobId, (k, c) -> {
+            if (c == null || c.closed) {
+                c = new Channel(k);
+                c.lastKey = key(snapshot);
+                Channel created = c;
+                c.ticker = scheduler.scheduleWithFixedDelay(() -> tick(created),
+                        interval(), interval(), TimeUnit.MILLISECONDS);
+            }
+            c.emitters.add(emitter);
+            return c;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(channel, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(channel, emitter));
+        return emitter;
+    }
+
+    /**
+     * Fichier terminé : relayé aux abonnés du job (hors du thread d'ingestion).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileCompleted(JobFileCompletedEvent event) {
+        Channel channel = channels.get(event.jobId());
+        if (channel == null) {
+            return;
+        }
+        scheduler.execute(() -> broadcast(channel, "file", event));
+    }
+
+    /**
+     * Producteur du canal : une lecture de progression, diffusée à tous les abonnés.
+     */
+    private void tick(Channel channel) {
+        if (channel.closed) {
+            return;
+        }
+        try {
+            JobProgressDto snapshot = jobProgressService.get(channel.jobId);
+            if (snapshot == null) {
+                close(channel);
+                return;
+            }
+            String key = key(snapshot);
+            if (!key.equals(channel.lastKey)) {
+                channel.lastKey = key;
+                broadcast(channel, "progress", snapshot);
+            }
+            if (!isRunning(snapshot)) {
+                broadcast(channel, "result", jobResultService.get(channel.jobId));
+                close(channel);
+            }
+        } catch (RuntimeException e) {
+            // La tâche planifiée ne doit pas s'arrêter : nouvel essai à l'intervalle suivant
+            org.slf4j.LoggerFactory.getLogger(JobProgressStreamServiceImpl.class)
+                    .warn("SSE progress tick failed for job {}: {}", channel.jobId, e.getMessage());
+        }
+    }
+
+    private void broadcast(Channel channel, String name, Object data) {
+        for (SseEmitter emitter : channel.emitters) {
+            if (!send(emitter, name, data)) {
+                unsubscribe(channel, emitter);
+            }
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data == null ? Map.of() : data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté ou flux déjà fermé
+            return false;
+        }
+    }
+
+    private void unsubscribe(Channel channel, SseEmitter emitter) {
+        channel.emitters.remove(emitter);
+        channels.computeIfPresent(channel.jobId, (k, c) -> {
+            if (c != channel || !c.emitters.isEmpty()) {
+                return c;
+            }
+            c.stop();
+            return null;
+        });
+    }
+
+    private void close(Channel channel) {
+        channels.remove(channel.jobId, channel);
+        channel.stop();
+        for (SseEmitter emitter : channel.emitters) {
+            emitter.complete();
+        }
+        channel.emitters.clear();
+    }
+
+    private long interval() {
+        return Math.max(MIN_INTERVAL_MS, intervalMs);
+    }
+
+    private static boolean isRunning(JobProgressDto snapshot) {
+        return JobStatus.RUNNING.name().equals(snapshot.getStatus());
+    }
+
+    /**
+     * Ce qui rend un instantané différent du précédent.
+     */
+    private static String key(JobProgressDto snapshot) {
+        return snapshot.getStatus() + '|' + snapshot.getProcessedRecords() + '|' + snapshot.getBytesRead()
+                + '|' + Objects.toString(snapshot.getTimeLeft());
+    }
+
+    /**
+     * Canal d'un job : ses abonnés et son producteur.
+     */
+    private static final class Channel {
+        private final String jobId;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile ScheduledFuture<?> ticker;
+        private volatile String lastKey;
+        private volatile boolean closed;
+
+        Channel(String jobId) {
+            this.jobId = jobId;
+        }
+
+        void stop() {
+            closed = true;
+            ScheduledFuture<?> t = ticker;
+            if (t != null) {
+                t.cancel(false);
+            }
+        }
+    }
+}
@@ -1,75 +1,116 @@
 package com.bank.uploadfileanddatapersistdb_v3.application.service;
-// Stockage en memoire du resultat final d'un job.
+// Stockage persistant (DB) du resultat final d'un job.
 
 import com.bank.uploadfileanddatapersistdb_v3.api.dto.FinalResultDto;
+import com.bank.uploadfileanddatapersistdb_v3.application.event.JobFileCompletedEvent;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobResultService;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.IngestionJob;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.IngestionJobFile;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.JobFileStatus;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository.IngestionJobFileRepository;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository.IngestionJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * JobResultServiceImpl
+ *
+ * Résultat par fichier des jobs asynchrones, persisté en base (table ingestion_job_file) :
+ * une ligne par fichier traité ou en échec, écrite dès que le fichier est terminé.
+ * GET /process/result/{jobId} est donc servi par n'importe quel noeud.
+ *
+ * Chaque fichier enregistré publie un JobFileCompletedEvent (flux SSE des jobs).
+ */
 @Service
+@RequiredArgsConstructor
 public class JobResultServiceImpl implements JobResultService {
 
-    private static class State {
-        private final List<String> treated;
-        private final List<FinalResultDto.FileFailedDto> failed;
+    /**
+     * Longueur de la colonne detail_problem (IngestionJobFile).
+     */
+    private static final int DETAIL_MAX_LENGTH = 2000;
 
-        private State() {
-            this.treated = Collections.synchronizedList(new ArrayList<>());
-            this.failed = Collections.synchronizedList(new ArrayList<>());
-        }
-    }
+    private final IngestionJobRepository jobRepository;
 
-    private final Map<String, State> store = new ConcurrentHashMap<>();
+    private final IngestionJobFileRepository jobFileRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Le job (ligne ingestion_job) est créé par JobProgressService.start() : rien à initialiser ici.
+     */
     @Override
     public void start(String jobId) {
-        if (jobId == null || jobId.isBlank()) {
-            return;
-        }
-        store.put(jobId, new State());
     }
 
     @Override
+    @Transactional
     public void addTreated(String jobId, String fileName) {
-        if (jobId == null || fileName == null) {
-            return;
-        }
-        State s = store.get(jobId);
-        if (s == null) {
-            return;
-        }
-        s.treated.add(fileName);
+        addFile(jobId, fileName, JobFileStatus.TREATED, null);
     }
 
     @Override
+    @Transactional
     public void addFailed(String jobId, String fileName, String detailProblem) {
+        addFile(jobId, fileName, JobFileStatus.FAILED, detailProblem);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FinalResultDto get(String jobId) {
+        if (jobId == null || !jobRepository.existsById(jobId)) {
+            return null;
+        }
+
+        List<String> treated = new ArrayList<>();
+        List<FinalResultDto.FileFailedDto> failed = new ArrayList<>();
+        for (IngestionJobFile f : jobFileRepository.findByJobJobIdOrderByIdAsc(jobId)) {
+            if (f.getStatus() == JobFileStatus.TREATED) {
+                treated.add(f.getFileName());
+            } else {
+                failed.add(FinalResultDto.FileFailedDto.builder()
+                        .filename(f.getFileName())
+                        .detailProblem(f.getDetailProblem())
+                        .build());
+            }
+        }
+        return FinalResultDto.builder()
+                .filesTreated(treated)
+                .filesFailed(failed)
+                .build();
+    }
+
+    private void addFile(String jobId, String fileName, JobFileStatus status, String detailProblem) {
         if (jobId == null || fileName == null) {
             return;
         }
-        State s = store.get(jobId);
-        if (s == null) {
+        IngestionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
             return;
         }
-        s.failed.add(FinalResultDto.FileFailedDto.builder()
-                .filename(fileName)
-                .detailProblem(detailProblem)
+        IngestionJobFile file = jobFileRepository.save(IngestionJobFile.builder()
+                .job(job)
+                .fileName(fileName)
+                .status(status)
+                .detailProblem(truncate(detailProblem))
+                .finishedAt(LocalDateTime.now())
                 .build());
+
+        // Reçu par les abonnés après le commit
+        eventPublisher.publishEvent(new JobFileCompletedEvent(
+                jobId, file.getFileName(), file.getStatus(), file.getDetailProblem(), file.getFinishedAt()));
     }
 
-    @Override
-    public FinalResultDto get(String jobId) {
-        State s = store.get(jobId);
-        if (s == null) {
-            return null;
+    private static String truncate(String detail) {
+        if (detail == null || detail.length() <= DETAIL_MAX_LENGTH) {
+            return detail;
         }
-        return FinalResultDto.builder()
-                .filesTreated(new ArrayList<>(s.treated))
-                .filesFailed(new ArrayList<>(s.failed))
-                .build();
+        return detail.substring(0, DETAIL_MAX_LENGTH);
     }
 }
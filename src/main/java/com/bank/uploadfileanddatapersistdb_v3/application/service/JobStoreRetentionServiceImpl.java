@@ -0,0 +1,167 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.service;
+// Service de retention : eviction planifiee des jobs asynchrones termines.
+
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobProgressService;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobStoreRetentionService;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.JobStatus;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.JobStoreStats;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository.IngestionJobFileRepository;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository.IngestionJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JobStoreRetentionServiceImpl
+ *
+ * Borne le stockage des jobs asynchrones (ingestion_job et leurs lignes ingestion_job_file) :
+ * - TTL : un job terminé (FINISHED / FAILED) depuis plus de ingestion.job.retention.ttl-hours est évincé
+ * - taille max : au-delà de ingestion.job.retention.max-jobs jobs terminés, les plus anciens sont évincés
+ * - un job RUNNING n'est jamais évincé
+ * - par paquets de batch-size jobs (résultats par fichier puis jobs, chaque DELETE commité seul)
+ *
+ * Seuls les jobs en cours sur ce noeud restent en mémoire (JobProgressService) ; un job évincé
+ * répond 404 sur /process/progress et /process/result. Compteurs : GET /monitoring/job-store.
+ */
+@Service
+@RequiredArgsConstructor
+public class JobStoreRetentionServiceImpl implements JobStoreRetentionService {
+
+    private final IngestionJobRepository jobRepository;
+
+    private final IngestionJobFileRepository jobFileRepository;
+
+    private final JobProgressService jobProgressService;
+
+    /**
+     * Conservation d'un job terminé (0 = pas d'éviction par âge).
+     */
+    @Value("${ingestion.job.retention.ttl-hours:168}")
+    private long ttlHours;
+
+    /**
+     * Jobs terminés conservés au plus (0 = pas de limite).
+     */
+    @Value("${ingestion.job.retention.max-jobs:10000}")
+    private long maxJobs;
+
+    /**
+     * Jobs supprimés par paquet.
+     */
+    @Value("${ingestion.job.retention.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Un seul passage à la fois.
+     */
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder evictedByTtl = new LongAdder();
+    private final LongAdder evictedBySize = new LongAdder();
+    private final LongAdder filesEvicted = new LongAdder();
+
+    private volatile LocalDateTime lastRunAt;
+    private volatile String lastError;
+
+    /**
+     * Passage planifié (par défaut toutes les 10 minutes).
+     */
+    @Scheduled(fixedDelayString = "${ingestion.job.retention.interval-ms:600000}",
+            initialDelayString = "${ingestion.job.retention.interval-ms:600000}")
+    public void scheduledEviction() {
+        evictFinishedJobs();
+    }
+
+    @Override
+    public long evictFinishedJobs() {
+        if (!evicting.compareAndSet(false, true)) {
+            return 0;
+        }
+        long evicted = 0;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int limit = Math.max(1, batchSize);
+
+            // 1) Expirés
+            if (ttlHours > 0) {
+                LocalDateTime cutoff = now.minusHours(ttlHours);
+                List<String> ids;
+                do {
+                    ids = jobRepository.findFinishedIdsBefore(JobStatus.RUNNING, cutoff, Pageable.ofSize(limit));
+                    long deleted = evict(ids);
+                    evictedByTtl.add(deleted);
+                    evicted += deleted;
+                } while (ids.size() == limit);
+            }
+
+            // 2) Au-delà de la taille max : les plus anciens
+            if (maxJobs > 0) {
+                long excess = jobRepository.countByStatusNot(JobStatus.RUNNING) - maxJobs;
+                while (excess > 0) {
+                    List<String> ids = jobRepository.findFinishedIds(JobStatus.RUNNING,
+                            Pageable.ofSize((int) Math.min(limit, excess)));
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    long deleted = evict(ids);
+                    evictedBySize.add(deleted);
+                    evicted += deleted;
+                    excess -= ids.size();
+                }
+            }
+            lastError = null;
+        } catch (DataAccessException ex) {
+            // Reprise au passage suivant : les jobs non supprimés sont toujours candidats
+            lastError = ex.getMessage();
+            org.slf4j.LoggerFactory.getLogger(JobStoreRetentionServiceImpl.class)
+                    .error("Job store eviction interrupted: {}", ex.getMessage(), ex);
+        } finally {
+            lastRunAt = LocalDateTime.now();
+            evicting.set(false);
+        }
+
+        if (evicted > 0) {
+            org.slf4j.LoggerFactory.getLogger(JobStoreRetentionServiceImpl.class)
+                    .info("Job store eviction: {} finished job(s) evicted", evicted);
+        }
+        return evicted;
+    }
+
+    @Override
+    public JobStoreStats stats() {
+        return new JobStoreStats(
+                jobProgressService.runningJobs(),
+                jobRepository.count(),
+                jobRepository.countByStatusNot(JobStatus.RUNNING),
+                jobFileRepository.count(),
+                Math.max(0, ttlHours),
+                Math.max(0, maxJobs),
+                evictedByTtl.sum(),
+                evictedBySize.sum(),
+                filesEvicted.sum(),
+                lastRunAt,
+                lastError
+        );
+    }
+
+    /**
+     * Supprime les résultats par fichier puis les jobs.
+     *
+     * @return jobs supprimés
+     */
+    private long evict(List<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        filesEvicted.add(jobFileRepository.deleteByJobIds(ids));
+        return jobRepository.deleteByJobIds(ids);
+    }
+}
@@ -6,7 +6,11 @@ import com.bank.uploadfileanddatapersistdb_v3.domain.exception.LogChargementNotF
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargement;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargementDetail;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LineStatus;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogStatus;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.AsyncLogSink;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.LogChargementDetailQueryRepository;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.LogChargementSearchRepository;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository.LogChargementRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -15,6 +19,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * LogChargementServiceImpl
@@ -23,9 +30,9 @@ import java.util.List;
  *
  * Un "LogChargement" représente le traitement d’un fichier (CSV/XML) :
  * - fileName, createdAt
- * - statut global : IN_PROGRESS / SUCCESS / FAILED / PARTIALLY_TRAITED
+ * - statut global : IN_PROGRESS / SUCCESS / FAILED / PARTIALLY_TRAITED / INCOMPLETE
  * - compteurs : totalLines / successLines / failedLines
- * - détails ligne par ligne (LogChargementDetail)
+ * - détails ligne par ligne (LogChargementDetail), écrits en flux par un thread dédié (AsyncLogSink)
  *
  * Ce service est utilisé par IngestionPipeline :
  * - startLog() au début du fichier
@@ -41,6 +48,22 @@ public class LogChargementServiceImpl implements LogChargementService {
      */
     private final LogChargementRepository logChargementRepository;
 
+    /**
+     * File vers l'écrivain de log dédié : les détails sont insérés par batch JDBC
+     * hors du thread et des transactions d'ingestion.
+     */
+    private final AsyncLogSink logSink;
+
+    /**
+     * Recherche filtrée et paginée (keyset) des logs, en SQL.
+     */
+    private final LogChargementSearchRepository logChargementSearchRepository;
+
+    /**
+     * Lecture paginée ou en flux des lignes d'un log (sans charger log.details).
+     */
+    private final LogChargementDetailQueryRepository detailQueryRepository;
+
     /**
      * Démarre un log pour un fichier.
      * On crée une entrée LogChargement en DB avec statut IN_PROGRESS.
@@ -51,11 +74,27 @@ public class LogChargementServiceImpl implements LogChargementService {
     @Override
     @Transactional
     public LogChargement startLog(String fileName) {
+        return startLog(fileName, null, LogMode.FULL);
+    }
+
+    /**
+     * Démarre un log pour un fichier, avec un mode de stockage des lignes.
+     *
+     * @param fileName nom du fichier en cours de traitement
+     * @param configId config d'origine (rétention des logs par config), null si inconnue
+     * @param logMode FULL (un détail par ligne) ou COMPACT (détails des échecs + plages de SUCCESS)
+     * @return LogChargement persisté (avec ID DB)
+     */
+    @Override
+    @Transactional
+    public LogChargement startLog(String fileName, String configId, LogMode logMode) {
 
         // Création du log "racine" (un log par fichier)
         LogChargement log = LogChargement.builder()
                 .fileName(fileName)
+                .configId(configId)
                 .status(LogStatus.IN_PROGRESS)
+                .logMode(logMode == null ? LogMode.FULL : logMode)
                 .createdAt(LocalDateTime.now())
                 .details(new ArrayList<>()) // liste vide de détails au départ
                 .build();
@@ -73,7 +112,10 @@ public class LogChargementServiceImpl implements LogChargementService {
      * - message d'erreur éventuel
      *
      * Important :
-     * - cette méthode met aussi à jour les compteurs total/success/failed
+     * - cette méthode met aussi à jour les compteurs total/success/failed (en mémoire, sur le log)
+     * - le détail n'est pas gardé dans log.details : il est déposé dans la file de AsyncLogSink,
+     *   puis inséré par batch par son thread écrivain (pas de transaction ici : une annulation
+     *   de la transaction de données n'efface pas la ligne de log)
      *
      * @param log log du fichier (entité racine)
      * @param lineNumber numéro de ligne dans le fichier (ou index record XML)
@@ -81,7 +123,6 @@ public class LogChargementServiceImpl implements LogChargementService {
      * @param detailProblem message d’erreur (null si SUCCESS)
      */
     @Override
-    @Transactional
     public void addLine(LogChargement log, int lineNumber, LineStatus status, String detailProblem) {
 
         // 1) Mise à jour des compteurs globaux
@@ -93,26 +134,53 @@ public class LogChargementServiceImpl implements LogChargementService {
             log.incrementFailed();
         }
 
-        // 2) Création du détail ligne par ligne
-        LogChargementDetail detail = LogChargementDetail.builder()
-                .lineNumber(lineNumber)
-                .status(status)
-                .detailProblem(detailProblem)
-                .logChargement(log) // FK vers le log
-                .build();
+        // 2) Mode COMPACT : une ligne SUCCESS prolonge la plage en cours (pas de détail)
+        if (log.getLogMode() == LogMode.COMPACT && status == LineStatus.SUCCESS) {
+            logSink.appendRange(log.getId(), lineNumber, status);
+            return;
+        }
+
+        // 3) Détail ligne par ligne : file bornée vers l'écrivain dédié, inséré par batch JDBC (FK = id du log)
+        logSink.append(log.getId(), lineNumber, status, detailProblem);
+    }
+
+    /**
+     * Compte une ligne en échec dont le détail est dans le fichier de rejets (settings.rejectFile) :
+     * seuls les compteurs total/failed sont mis à jour, aucune ligne de détail n'est insérée.
+     *
+     * @param log log du fichier (entité racine)
+     * @param lineNumber numéro de ligne dans le fichier (ou index record XML)
+     */
+    @Override
+    public void addRejectedLine(LogChargement log, int lineNumber) {
+        log.incrementTotal();
+        log.incrementFailed();
+    }
 
-        // 3) Ajout à la collection (relation OneToMany)
-        // Si cascade=ALL est actif, Hibernate persistera le detail au commit.
-        log.addDetail(detail);
+    /**
+     * Écrit les détails encore en tampon pour ce log.
+     * Appelé en fin de fichier, y compris quand le traitement s'arrête sur une erreur :
+     * attend que l'écrivain ait inséré toutes les lignes déjà déposées.
+     * Des lignes perdues par l'écrivain marquent le log incomplet (statut INCOMPLETE à la finalisation).
+     */
+    @Override
+    public void flushLines(LogChargement log) {
+        if (!logSink.flush(log.getId())) {
+            log.setDetailsIncomplete(true);
+        }
     }
 
     /**
      * Finalise un log après traitement complet du fichier.
-     * Détermine le statut global final (SUCCESS/FAILED/PARTIALLY_TRAITED) selon les compteurs.
+     * Détermine le statut global final (SUCCESS/FAILED/PARTIALLY_TRAITED) selon les compteurs,
+     * INCOMPLETE si des lignes de détail n'ont pas pu être écrites (les compteurs restent justes).
      *
      * NOTE :
      * - les paramètres totalLines/successLines/failedLines ne sont pas utilisés ici.
      * - le statut est calculé à partir de log.getSuccessLines() / log.getFailedLines()
+     * - les histogrammes d'erreurs (par code, par champ) sont tenus par le pipeline au fil des lignes
+     * - seuls les compteurs, les histogrammes et le statut sont recopiés sur l'entité gérée : on ne fusionne pas
+     *   le log détaché (sa collection details, vide, supprimerait les détails via orphanRemoval)
      *
      * @param log log à finaliser
      */
@@ -120,12 +188,19 @@ public class LogChargementServiceImpl implements LogChargementService {
     @Transactional
     public void finalizeLog(LogChargement log, int totalLines, int successLines, int failedLines) {
 
+        // Derniers détails en file et en tampon (barrière)
+        flushLines(log);
+
         // Compteurs internes (sécurisés si null)
         int ok = (log.getSuccessLines() == null) ? 0 : log.getSuccessLines();
         int ko = (log.getFailedLines() == null) ? 0 : log.getFailedLines();
 
         // Détermination du statut global
-        if (ok > 0 && ko == 0) {
+        if (log.isDetailsIncomplete()) {
+            org.slf4j.LoggerFactory.getLogger(LogChargementServiceImpl.class)
+                    .error("Log {} ({}) finalized INCOMPLETE: line details lost by the log writer", log.getId(), log.getFileName());
+            log.setStatus(LogStatus.INCOMPLETE);
+        } else if (ok > 0 && ko == 0) {
             log.setStatus(LogStatus.SUCCESS);
         } else if (ok == 0 && ko > 0) {
             log.setStatus(LogStatus.FAILED);
@@ -135,8 +210,21 @@ public class LogChargementServiceImpl implements LogChargementService {
             log.setStatus(LogStatus.FAILED);
         }
 
-        // Sauvegarde du statut final en DB
-        logChargementRepository.save(log);
+        // Sauvegarde des compteurs et du statut final en DB
+        LogChargement managed = logChargementRepository.findById(log.getId())
+                .orElseThrow(() -> new LogChargementNotFoundException("LogChargement not found with id: " + log.getId()));
+        managed.setTotalLines(log.getTotalLines());
+        managed.setSuccessLines(log.getSuccessLines());
+        managed.setFailedLines(log.getFailedLines());
+        managed.setStatus(log.getStatus());
+        managed.setRejectFileName(log.getRejectFileName());
+        managed.setErrorCountsByCode(copyOf(log.getErrorCountsByCode()));
+        managed.setErrorCountsByField(copyOf(log.getErrorCountsByField()));
+        logChargementRepository.save(managed);
+    }
+
+    private static Map<String, Integer> copyOf(Map<String, Integer> counts) {
+        return (counts == null) ? new TreeMap<>() : new TreeMap<>(counts);
     }
 
     /**
@@ -164,29 +252,56 @@ public class LogChargementServiceImpl implements LogChargementService {
     }
 
     /**
-     * Recherche simple sur les logs en mémoire (après findAll()).
+     * Une page de lignes du log (numéro > afterLine), filtrée par statut et/ou code d'erreur.
+     * En mode COMPACT, les plages SUCCESS sont redéployées ligne par ligne.
+     *
+     * @param limit nombre max de lignes retournées
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<LogChargementDetail> findDetails(LogChargement log,
+                                                 LineStatus status,
+                                                 String errorCode,
+                                                 int afterLine,
+                                                 int limit) {
+        return detailQueryRepository.findPage(log.getId(), status, errorCode,
+                log.getLogMode() == LogMode.COMPACT, afterLine, limit);
+    }
+
+    /**
+     * Toutes les lignes du log, par numéro croissant, passées une à une à sink
+     * (curseur DB : aucune liste construite, mémoire constante).
+     */
+    @Override
+    public void streamDetails(LogChargement log,
+                              LineStatus status,
+                              String errorCode,
+                              Consumer<LogChargementDetail> sink) {
+        detailQueryRepository.stream(log.getId(), status, errorCode,
+                log.getLogMode() == LogMode.COMPACT, sink);
+    }
+
+    /**
+     * Recherche paginée des logs, filtrée et triée en SQL (createdAt DESC, id DESC).
      * Filtre par :
      * - fileName (contains, insensitive)
      * - status exact
+     * - createdAt dans [from, to[
      *
-     * NOTE :
-     * - Pour de gros volumes, il vaut mieux faire cette recherche en SQL via repository.
+     * Pagination par curseur : la page suivante commence après (afterCreatedAt, afterId),
+     * le dernier log de la page précédente (pas d'OFFSET).
+     *
+     * @param limit nombre max de logs retournés
      */
     @Override
     @Transactional(readOnly = true)
-    public List<LogChargement> searchLogs(String fileName, LogStatus status) {
-        return logChargementRepository.findAll().stream()
-
-                // filtre sur fileName si fourni
-                .filter(log -> {
-                    if (fileName == null || fileName.isBlank()) return true;
-                    return log.getFileName() != null
-                            && log.getFileName().toLowerCase().contains(fileName.toLowerCase());
-                })
-
-                // filtre sur status si fourni
-                .filter(log -> status == null || status.equals(log.getStatus()))
-
-                .toList();
+    public List<LogChargement> searchLogs(String fileName,
+                                          LogStatus status,
+                                          LocalDateTime from,
+                                          LocalDateTime to,
+                                          LocalDateTime afterCreatedAt,
+                                          Long afterId,
+                                          int limit) {
+        return logChargementSearchRepository.search(fileName, status, from, to, afterCreatedAt, afterId, limit);
     }
 }
@@ -0,0 +1,191 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.service;
+// Service de retention : purge planifiee des logs de chargement expires.
+
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.LogRetentionService;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.LogChargementPurgeRepository;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.LogPurgeReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LogRetentionServiceImpl
+ *
+ * Purge des logs d'import expirés (log_chargement, log_chargement_detail, log_chargement_range) :
+ * - opt-in : rien n'est purgé tant qu'un opérateur ne l'a pas demandé ; la purge planifiée est désactivée
+ *   par défaut (ingestion.log.retention.enabled), et seules les configs avec settings.logRetentionDays
+ *   sont purgées (ingestion.log.retention.default-days = 0)
+ * - default-days > 0 étend la purge aux configs sans settings.logRetentionDays
+ * - logs sans config connue (config_id NULL, config supprimée) : jamais couverts par default-days,
+ *   seulement si ingestion.log.retention.orphan-days > 0, à activer délibérément
+ * - par paquets : batch-size logs à la fois, leurs détails supprimés par DELETE ... LIMIT delete-batch-size
+ * - pas de transaction englobante : chaque instruction est commitée seule, aucun verrou
+ *   n'est tenu sur des millions de lignes et l'ingestion continue pendant la purge
+ * - option archive : les résumés sont copiés dans log_chargement_archive avant suppression
+ *
+ * Un passage interrompu (erreur, arrêt) reprend au suivant : les logs non supprimés
+ * sont toujours expirés et l'archivage est rejouable.
+ *
+ * Le bilan du dernier passage est conservé en mémoire (GET /monitoring/log-retention).
+ */
+@Service
+@RequiredArgsConstructor
+public class LogRetentionServiceImpl implements LogRetentionService {
+
+    /**
+     * Clé du bilan par config pour les logs sans config connue.
+     */
+    private static final String NO_CONFIG = "";
+
+    private final LogChargementPurgeRepository purgeRepository;
+
+    /**
+     * Purge planifiée active (la purge manuelle reste possible).
+     */
+    @Value("${ingestion.log.retention.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Rétention des configs sans settings.logRetentionDays (0 = pas de purge).
+     */
+    @Value("${ingestion.log.retention.default-days:0}")
+    private int defaultDays;
+
+    /**
+     * Rétention des logs sans config connue : config_id NULL ou config supprimée (0 = pas de purge).
+     */
+    @Value("${ingestion.log.retention.orphan-days:0}")
+    private int orphanDays;
+
+    /**
+     * Logs traités par paquet.
+     */
+    @Value("${ingestion.log.retention.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * Lignes de détail (ou plages) supprimées par instruction DELETE.
+     */
+    @Value("${ingestion.log.retention.delete-batch-size:5000}")
+    private int deleteBatchSize;
+
+    /**
+     * Copier les résumés dans log_chargement_archive avant suppression.
+     */
+    @Value("${ingestion.log.retention.archive:false}")
+    private boolean archive;
+
+    /**
+     * Un seul passage à la fois (planifié ou manuel).
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile LogPurgeReport lastReport;
+
+    /**
+     * Passage planifié (par défaut chaque nuit à 02:30).
+     */
+    @Scheduled(cron = "${ingestion.log.retention.cron:0 30 2 * * *}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purgeExpiredLogs();
+        }
+    }
+
+    @Override
+    public LogPurgeReport purgeExpiredLogs() {
+        if (!running.compareAndSet(false, true)) {
+            return lastReport;
+        }
+        try {
+            Run run = new Run();
+            try {
+                LocalDateTime now = run.startedAt;
+                for (Map.Entry<String, Integer> e : purgeRepository.retentionDaysByConfig().entrySet()) {
+                    int days = (e.getValue() == null) ? defaultDays : e.getValue();
+                    if (days > 0) {
+                        purgeScope(e.getKey(), now.minusDays(days), run);
+                    }
+                }
+                if (orphanDays > 0) {
+                    purgeScope(null, now.minusDays(orphanDays), run);
+                }
+            } catch (RuntimeException ex) {
+                run.error = ex.getMessage();
+                org.slf4j.LoggerFactory.getLogger(LogRetentionServiceImpl.class)
+                        .error("Log retention purge interrupted: {}", ex.getMessage(), ex);
+            }
+
+            LogPurgeReport report = run.report();
+            lastReport = report;
+            org.slf4j.LoggerFactory.getLogger(LogRetentionServiceImpl.class)
+                    .info("Log retention purge: {} logs, {} details, {} ranges purged, {} archived in {} ms",
+                            report.logsPurged(), report.detailsPurged(), report.rangesPurged(),
+                            report.logsArchived(), report.durationMs());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public LogPurgeReport lastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Supprime, paquet par paquet, les logs d'une config créés avant cutoff.
+     *
+     * @param configId config, null = logs sans config connue
+     */
+    private void purgeScope(String configId, LocalDateTime cutoff, Run run) {
+        int limit = Math.max(1, batchSize);
+        int deleteLimit = Math.max(1, deleteBatchSize);
+
+        List<Long> ids;
+        do {
+            ids = purgeRepository.findExpiredIds(configId, cutoff, limit);
+            if (ids.isEmpty()) {
+                return;
+            }
+            if (archive) {
+                run.logsArchived += purgeRepository.archive(ids, run.startedAt);
+            }
+            run.detailsPurged += purgeRepository.deleteDetails(ids, deleteLimit);
+            run.rangesPurged += purgeRepository.deleteRanges(ids, deleteLimit);
+            int deleted = purgeRepository.deleteLogs(ids);
+            run.logsPurged += deleted;
+            run.byConfig.merge(configId == null ? NO_CONFIG : configId, (long) deleted, Long::sum);
+            run.batches++;
+        } while (ids.size() == limit);
+    }
+
+    /**
+     * Compteurs d'un passage.
+     */
+    private static final class Run {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> byConfig = new TreeMap<>();
+        private long logsPurged;
+        private long detailsPurged;
+        private long rangesPurged;
+        private long logsArchived;
+        private int batches;
+        private String error;
+
+        LogPurgeReport report() {
+            return new LogPurgeReport(startedAt, (System.nanoTime() - startNanos) / 1_000_000,
+                    logsPurged, detailsPurged, rangesPurged, logsArchived, batches,
+                    Collections.unmodifiableMap(new TreeMap<>(byConfig)), error);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.bank.uploadfileanddatapersistdb_v3.application.service;
+// Lecture des metriques internes du moteur d'ingestion.
+
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.DuplicateQueryCacheDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.JobBulkheadDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.JobStoreDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogPurgeReportDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.LogSinkDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.dto.PipelineStageDto;
+import com.bank.uploadfileanddatapersistdb_v3.api.mapper.LogChargementMapper;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.JobStoreRetentionService;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.LogRetentionService;
+import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.MonitoringService;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.executor.IngestionJobExecutor;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline.PipelineStageMonitor;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.AsyncLogSink;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.ExistsQueryCacheStats;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.GenericDuplicateRepository;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.JobStoreStats;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.LogSinkStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * MonitoringServiceImpl
+ *
+ * Agrège les métriques en mémoire exposées par l'infrastructure
+ * et les convertit en DTO pour l'API (/monitoring).
+ */
+@Service
+@RequiredArgsConstructor
+public class MonitoringServiceImpl implements MonitoringService {
+
+    /**
+     * Registre des fichiers traités en mode parallèle.
+     */
+    private final PipelineStageMonitor stageMonitor;
+
+    /**
+     * Porte le cache des requêtes d'existence (doublons DB).
+     */
+    private final GenericDuplicateRepository duplicateRepository;
+
+    /**
+     * Conserve le bilan du dernier passage de la purge des logs.
+     */
+    private final LogRetentionService logRetentionService;
+
+    private final LogChargementMapper logChargementMapper;
+
+    /**
+     * File de l'écrivain de logs asynchrone.
+     */
+    private final AsyncLogSink logSink;
+
+    /**
+     * Éviction des jobs terminés.
+     */
+    private final JobStoreRetentionService jobStoreRetentionService;
+
+    /**
+     * Pools de jobs par config (bulkheads).
+     */
+    private final IngestionJobExecutor jobExecutor;
+
+    @Override
+    public List<PipelineStageDto> pipelineStages() {
+        return stageMonitor.snapshot().stream()
+                .map(s -> PipelineStageDto.builder()
+                        .fileName(s.fileName())
+                        .workers(s.workers())
+                        .queueDepth(s.queueDepth())
+                        .inputQueued(s.inputQueued())
+                        .reorderBuffered(s.reorderBuffered())
+                        .inFlight(s.inFlight())
+                        .nextLine(s.nextLine())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public DuplicateQueryCacheDto duplicateQueryCache() {
+        ExistsQueryCacheStats stats = duplicateRepository.cacheStats();
+        long total = stats.hits() + stats.misses();
+        return DuplicateQueryCacheDto.builder()
+                .hits(stats.hits())
+                .misses(stats.misses())
+                .entries(stats.entries())
+                .hitRatio(total == 0 ? 0.0 : (double) stats.hits() / total)
+                .build();
+    }
+
+    @Override
+    public LogPurgeReportDto logRetention() {
+        return logChargementMapper.toPurgeReportDto(logRetentionService.lastReport());
+    }
+
+    @Override
+    public LogSinkDto logSink() {
+        LogSinkStats stats = logSink.stats();
+        return LogSinkDto.builder()
+                .async(stats.async())
+                .queued(stats.queued())
+                .capacity(stats.capacity())
+                .submitted(stats.submitted())
+                .processed(stats.processed())
+                .blockedSubmits(stats.blockedSubmits())
+                .writeErrors(stats.writeErrors())
+                .build();
+    }
+
+    @Override
+    public JobStoreDto jobStore() {
+        JobStoreStats stats = jobStoreRetentionService.stats();
+        return JobStoreDto.builder()
+                .runningInMemory(stats.runningInMemory())
+                .jobsStored(stats.jobsStored())
+                .finishedStored(stats.finishedStored())
+                .filesStored(stats.filesStored())
+                .ttlHours(stats.ttlHours())
+                .maxJobs(stats.maxJobs())
+                .evictedByTtl(stats.evictedByTtl())
+                .evictedBySize(stats.evictedBySize())
+                .filesEvicted(stats.filesEvicted())
+                .lastRunAt(stats.lastRunAt())
+                .lastError(stats.lastError())
+                .build();
+    }
+
+    @Override
+    public List<JobBulkheadDto> jobExecutors() {
+        return jobExecutor.stats().stream()
+                .map(s -> JobBulkheadDto.builder()
+                        .configId(s.configId())
+                        .maxConcurrentJobs(s.maxConcurrentJobs())
+                        .queueDepth(s.queueDepth())
+                        .active(s.active())
+                        .queued(s.queued())
+                        .completed(s.completed())
+                        .rejected(s.rejected())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,12 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.exception;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+/**
+ * Thrown when a query parameter (search filter, page cursor, limit) is invalid.
+ */
+public class InvalidQueryParameterException extends RuntimeException {
+
+    public InvalidQueryParameterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.exception;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+/**
+ * Job refused because the bulkhead of its config is full (running + queued jobs at their limit).
+ */
+public class JobRejectedException extends RuntimeException {
+    public JobRejectedException(String msg) { super(msg); }
+    public JobRejectedException(String msg, Throwable cause) { super(msg, cause); }
+}
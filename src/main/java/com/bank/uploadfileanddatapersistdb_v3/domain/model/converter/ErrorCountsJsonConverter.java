@@ -0,0 +1,43 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.converter;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stores an error histogram (key -> count) as a flat JSON object, e.g. {"TYPE_MISMATCH":12,"REQUIRED_FIELD_MISSING":3}.
+ * Keys are sorted; an empty or null histogram is stored as NULL.
+ * Written and read with the application's Jackson mapper (Hibernate creates the converter through Spring).
+ */
+@Converter
+public class ErrorCountsJsonConverter implements AttributeConverter<Map<String, Integer>, String> {
+
+    private final ObjectMapper objectMapper;
+    private final JavaType countsType;
+
+    public ErrorCountsJsonConverter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.countsType = objectMapper.getTypeFactory().constructMapType(TreeMap.class, String.class, Integer.class);
+    }
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, Integer> counts) {
+        if (counts == null || counts.isEmpty()) {
+            return null;
+        }
+        return objectMapper.writeValueAsString(new TreeMap<>(counts));
+    }
+
+    @Override
+    public Map<String, Integer> convertToEntityAttribute(String json) {
+        if (json == null || json.isBlank()) {
+            return new TreeMap<>();
+        }
+        return objectMapper.readValue(json, countsType);
+    }
+}
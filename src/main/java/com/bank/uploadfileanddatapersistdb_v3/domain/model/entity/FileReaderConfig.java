@@ -26,6 +26,8 @@ public class FileReaderConfig {
 
     private DataFoldersEmbeddable paths;
 
+    private IngestionSettingsEmbeddable settings;
+
     @OneToOne(mappedBy = "config", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private FileReaderMappingCSV fileMappingCSV;
 
@@ -0,0 +1,81 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.entity;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.JobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity representing an asynchronous processing job:
+ * - status and record counters (progress)
+ * - node running it and timestamps
+ *
+ * Stored in the database so that any node can answer progress and result queries.
+ * Per-file outcomes are IngestionJobFile rows.
+ */
+@Entity
+@Table(
+        name = "ingestion_job",
+        indexes = {
+                // Reprise au démarrage : jobs RUNNING du noeud
+                @Index(name = "idx_ingestion_job_node_status", columnList = "node, status"),
+                // Éviction des jobs terminés (TTL, taille max) : plus anciens d'abord
+                @Index(name = "idx_ingestion_job_status_finished_at", columnList = "status, finished_at")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestionJob {
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private JobStatus status;
+
+    @Column(name = "total_records", nullable = false)
+    private int totalRecords;
+
+    /** Written at most every ingestion.job.progress-flush-ms while the job runs. */
+    @Column(name = "processed_records", nullable = false)
+    private int processedRecords;
+
+    /** Bytes read from the job's files, written with processedRecords. */
+    @Column(name = "bytes_read", nullable = false)
+    private long bytesRead;
+
+    /** Sliding-window throughput at the last flush. */
+    @Column(name = "records_per_second")
+    private Double recordsPerSecond;
+
+    @Column(name = "bytes_per_second")
+    private Double bytesPerSecond;
+
+    /** ETA at the last flush, from the smoothed (EWMA) throughput; null if unknown. */
+    @Column(name = "time_left_seconds")
+    private Long timeLeftSeconds;
+
+    /** First total duration estimate (elapsed + time left), kept once computed. */
+    @Column(name = "estimated_total_seconds")
+    private Long estimatedTotalSeconds;
+
+    /** Host running the job. */
+    @Column(name = "node", length = 255)
+    private String node;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
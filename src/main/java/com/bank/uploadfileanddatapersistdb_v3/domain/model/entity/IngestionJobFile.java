@@ -0,0 +1,48 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.entity;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.JobFileStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity representing the outcome of one file of a processing job
+ * (treated, or failed with its problem).
+ */
+@Entity
+@Table(
+        name = "ingestion_job_file",
+        indexes = {
+                @Index(name = "idx_ingestion_job_file_job_id", columnList = "job_id, id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestionJobFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "job_id", nullable = false)
+    private IngestionJob job;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private JobFileStatus status;
+
+    @Column(name = "detail_problem", length = 2000)
+    private String detailProblem;
+
+    @Column(name = "finished_at", nullable = false)
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,66 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.entity;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.InFileDuplicateMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.WriteMode;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.*;
+
+/**
+ * Ingestion tuning options attached to a FileReaderConfig.
+ * Every value is optional: null means "use the application default".
+ */
+@Embeddable
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestionSettingsEmbeddable {
+
+    /** Number of validated records written and committed together (1 = one transaction per record). */
+    @Column(name = "batch_size")
+    private Integer batchSize;
+
+    /** Target table write strategy (JPA merge or plain JDBC batched INSERT). */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "write_mode", length = 20)
+    private WriteMode writeMode;
+
+    /** Log every field error of a rejected line instead of only the first one. */
+    @Column(name = "collect_all_errors")
+    private Boolean collectAllErrors;
+
+    /** How keys already seen in the file are remembered (exact Strings or 128-bit fingerprints). */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "in_file_duplicate_mode", length = 20)
+    private InFileDuplicateMode inFileDuplicateMode;
+
+    /** How line results are logged (one row per line, or failures + SUCCESS ranges). */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "log_mode", length = 20)
+    private LogMode logMode;
+
+    /** Write rejected records to a sidecar reject file instead of FAILED detail rows. */
+    @Column(name = "reject_file")
+    private Boolean rejectFile;
+
+    /** Import logs of this config older than this many days are purged by the retention job. */
+    @Column(name = "log_retention_days")
+    private Integer logRetentionDays;
+
+    /** Files of this config ingested in parallel by an async job (claimed one by one from DATA_IN). */
+    @Column(name = "file_concurrency")
+    private Integer fileConcurrency;
+
+    /** Async jobs of this config run at the same time (threads of its bulkhead). */
+    @Column(name = "max_concurrent_jobs")
+    private Integer maxConcurrentJobs;
+
+    /** Async jobs of this config admitted while waiting for a thread; beyond, new jobs are rejected. */
+    @Column(name = "job_queue_depth")
+    private Integer jobQueueDepth;
+}
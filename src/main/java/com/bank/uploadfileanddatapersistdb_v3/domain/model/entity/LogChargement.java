@@ -1,6 +1,8 @@
 package com.bank.uploadfileanddatapersistdb_v3.domain.model.entity;
 // Couche domain: concepts metier, exceptions, enums et entites.
 
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.converter.ErrorCountsJsonConverter;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogStatus;
 import jakarta.persistence.*;
 import lombok.*;
@@ -8,17 +10,29 @@ import lombok.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * JPA entity representing an import log:
  * - file name
  * - status
- * - counters
+ * - counters and error histograms (by error code and by field)
  * - creation time
- * - line-by-line details
+ * - line-by-line details (and SUCCESS line ranges in COMPACT mode)
  */
 @Entity
-@Table(name = "log_chargement")
+@Table(
+        name = "log_chargement",
+        indexes = {
+                // Liste des logs : tri et curseur (createdAt DESC, id DESC)
+                @Index(name = "idx_log_chargement_created_at_id", columnList = "created_at, id"),
+                // Liste filtrée par statut, même ordre
+                @Index(name = "idx_log_chargement_status_created_at_id", columnList = "status, created_at, id"),
+                // Purge de rétention : logs d'une config plus anciens qu'une date
+                @Index(name = "idx_log_chargement_config_created_at", columnList = "config_id, created_at")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -33,6 +47,10 @@ public class LogChargement {
     @Column(name = "file_name", nullable = false, length = 255)
     private String fileName;
 
+    /** Source config (e.g. EMPLOYEES), drives log retention; null for logs created before it was recorded. */
+    @Column(name = "config_id", length = 50)
+    private String configId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", length = 30, nullable = false)
     private LogStatus status;
@@ -49,10 +67,39 @@ public class LogChargement {
     @Column(name = "failed_lines")
     private Integer failedLines;
 
+    /** FULL = one detail row per line, COMPACT = detail rows for failures and ranges for successes. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "log_mode", length = 20)
+    private LogMode logMode;
+
+    /** Sidecar reject file (next to the source file in DATA_BACKUP / DATA_FAILED), null if none. */
+    @Column(name = "reject_file_name", length = 255)
+    private String rejectFileName;
+
+    /** Number of errors per error code (e.g. TYPE_MISMATCH -> 12), maintained during ingestion. */
+    @Convert(converter = ErrorCountsJsonConverter.class)
+    @Column(name = "error_counts_by_code", columnDefinition = "json")
+    @Builder.Default
+    private Map<String, Integer> errorCountsByCode = new TreeMap<>();
+
+    /** Number of field errors per field name (validation errors only). */
+    @Convert(converter = ErrorCountsJsonConverter.class)
+    @Column(name = "error_counts_by_field", columnDefinition = "json")
+    @Builder.Default
+    private Map<String, Integer> errorCountsByField = new TreeMap<>();
+
+    /** Some line details or ranges were lost by the log writer; not stored, sets the INCOMPLETE status. */
+    @Transient
+    private boolean detailsIncomplete;
+
     @OneToMany(mappedBy = "logChargement", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<LogChargementDetail> details = new ArrayList<>();
 
+    @OneToMany(mappedBy = "logChargement", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Builder.Default
+    private List<LogChargementRange> ranges = new ArrayList<>();
+
     public void addDetail(LogChargementDetail detail) {
         if (this.details == null) {
             this.details = new ArrayList<>();
@@ -75,4 +122,18 @@ public class LogChargement {
         if (this.failedLines == null) this.failedLines = 0;
         this.failedLines++;
     }
+
+    /**
+     * Counts one error in the histograms (code and/or field may be null).
+     */
+    public void countError(String code, String field) {
+        if (code != null) {
+            if (this.errorCountsByCode == null) this.errorCountsByCode = new TreeMap<>();
+            this.errorCountsByCode.merge(code, 1, Integer::sum);
+        }
+        if (field != null) {
+            if (this.errorCountsByField == null) this.errorCountsByField = new TreeMap<>();
+            this.errorCountsByField.merge(field, 1, Integer::sum);
+        }
+    }
 }
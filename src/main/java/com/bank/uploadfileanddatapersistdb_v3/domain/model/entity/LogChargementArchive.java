@@ -0,0 +1,75 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.entity;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.converter.ErrorCountsJsonConverter;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * JPA entity keeping the summary of an import log removed by the retention job
+ * (ingestion.log.retention.archive=true): same id, counters and error histograms,
+ * without the line-by-line details.
+ */
+@Entity
+@Table(
+        name = "log_chargement_archive",
+        indexes = {
+                @Index(name = "idx_log_chargement_archive_config_created_at", columnList = "config_id, created_at")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogChargementArchive {
+
+    /** Id of the original log_chargement row (not generated). */
+    @Id
+    private Long id;
+
+    @Column(name = "config_id", length = 50)
+    private String configId;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 30, nullable = false)
+    private LogStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "total_lines")
+    private Integer totalLines;
+
+    @Column(name = "success_lines")
+    private Integer successLines;
+
+    @Column(name = "failed_lines")
+    private Integer failedLines;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "log_mode", length = 20)
+    private LogMode logMode;
+
+    @Column(name = "reject_file_name", length = 255)
+    private String rejectFileName;
+
+    @Convert(converter = ErrorCountsJsonConverter.class)
+    @Column(name = "error_counts_by_code", columnDefinition = "json")
+    private Map<String, Integer> errorCountsByCode;
+
+    @Convert(converter = ErrorCountsJsonConverter.class)
+    @Column(name = "error_counts_by_field", columnDefinition = "json")
+    private Map<String, Integer> errorCountsByField;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
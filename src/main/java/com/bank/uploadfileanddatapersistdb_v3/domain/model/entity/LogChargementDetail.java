@@ -9,10 +9,18 @@ import lombok.*;
  * JPA entity representing the result of a single line/record:
  * - line number / record index
  * - status (SUCCESS/FAILED)
- * - optional problem detail
+ * - optional error code and problem detail
  */
 @Entity
-@Table(name = "log_chargement_detail")
+@Table(
+        name = "log_chargement_detail",
+        indexes = {
+                // Lignes d'un log par numéro (pagination par curseur sur lineNumber)
+                @Index(name = "idx_log_detail_log_line", columnList = "log_chargement_id, line_number"),
+                @Index(name = "idx_log_detail_log_status_line", columnList = "log_chargement_id, status, line_number"),
+                @Index(name = "idx_log_detail_log_code_line", columnList = "log_chargement_id, error_code, line_number")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,6 +40,10 @@ public class LogChargementDetail {
     @Column(name = "status", length = 20, nullable = false)
     private LineStatus status;
 
+    /** Normalized error code of the first error (e.g. TYPE_MISMATCH, TECHNICAL), null on SUCCESS. */
+    @Column(name = "error_code", length = 50)
+    private String errorCode;
+
     @Column(name = "detail_problem", length = 2000)
     private String detailProblem;
 
@@ -0,0 +1,44 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.entity;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LineStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * JPA entity representing consecutive lines with the same result (COMPACT log mode):
+ * - first and last line number (inclusive)
+ * - status shared by every line of the range (SUCCESS)
+ */
+@Entity
+@Table(
+        name = "log_chargement_range",
+        indexes = @Index(name = "idx_log_range_log_start", columnList = "log_chargement_id, start_line")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogChargementRange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** First line number of the range (inclusive). */
+    @Column(name = "start_line", nullable = false)
+    private Integer startLine;
+
+    /** Last line number of the range (inclusive). */
+    @Column(name = "end_line", nullable = false)
+    private Integer endLine;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private LineStatus status;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "log_chargement_id", nullable = false)
+    private LogChargement logChargement;
+}
@@ -0,0 +1,10 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.enums;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+/**
+ * Threads running async jobs and their files.
+ */
+public enum ExecutionMode {
+    PLATFORM, // One platform thread per running job / file worker
+    VIRTUAL   // Java 21 virtual threads, database work capped by the connection pool size
+}
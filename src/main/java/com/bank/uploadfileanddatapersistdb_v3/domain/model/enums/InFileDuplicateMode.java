@@ -0,0 +1,10 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.enums;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+/**
+ * How duplicate keys already seen in the current file are remembered.
+ */
+public enum InFileDuplicateMode {
+    EXACT,  // Every key String kept in a HashSet (exact, heap grows with key length)
+    HASHED  // 128-bit fingerprint per key in an off-heap table (16 bytes per key, collisions negligible)
+}
@@ -0,0 +1,10 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.enums;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+/**
+ * Outcome of one file within a processing job.
+ */
+public enum JobFileStatus {
+    TREATED,    // Ingested and moved to DATA_BACKUP
+    FAILED      // Moved to DATA_FAILED
+}
@@ -0,0 +1,11 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.enums;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+/**
+ * Status of an asynchronous processing job (POST /process/start-async).
+ */
+public enum JobStatus {
+    RUNNING,    // Files are being processed
+    FINISHED,   // DATA_IN is empty, every file went to DATA_BACKUP or DATA_FAILED
+    FAILED      // Stopped on a global error (or interrupted by a node restart)
+}
@@ -0,0 +1,10 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.enums;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+/**
+ * How line results of an import log are stored.
+ */
+public enum LogMode {
+    FULL,    // One log_chargement_detail row per line (SUCCESS and FAILED)
+    COMPACT  // Rows for FAILED lines only, consecutive SUCCESS lines stored as ranges (log_chargement_range)
+}
@@ -8,5 +8,6 @@ public enum LogStatus {
     SUCCESS,            // All records inserted successfully
     FAILED,             // No record inserted
     PARTIALLY_TRAITED,  // At least one success and one failure (kept as-is to preserve DB values)
+    INCOMPLETE,         // Records processed, but some line details could not be written
     IN_PROGRESS         // While processing
 }
@@ -0,0 +1,10 @@
+package com.bank.uploadfileanddatapersistdb_v3.domain.model.enums;
+// Couche domain: concepts metier, exceptions, enums et entites.
+
+/**
+ * How validated records are written to the target table.
+ */
+public enum WriteMode {
+    JPA_MERGE,   // EntityManager.merge (insert or update, one SELECT per record for assigned ids)
+    JDBC_BATCH   // Plain INSERT statements sent with JDBC batching (no SELECT, fails on existing ids)
+}
@@ -0,0 +1,50 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.filesystem;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * CountingInputStream
+ *
+ * Flux qui signale le nombre d'octets lus à chaque lecture (débit en octets/s d'un job).
+ * Les lecteurs CSV/XML lisent par blocs tamponnés : un appel au listener par bloc, pas par octet.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    private final LongConsumer bytesRead;
+
+    public CountingInputStream(InputStream in, LongConsumer bytesRead) {
+        super(in);
+        this.bytesRead = bytesRead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            bytesRead.accept(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        int n = super.read(buf, off, len);
+        if (n > 0) {
+            bytesRead.accept(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            bytesRead.accept(skipped);
+        }
+        return skipped;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.function.LongConsumer;
 
 /**
  * PathMultipartFile
@@ -39,15 +40,31 @@ public class PathMultipartFile implements MultipartFile {
      */
     private final String contentType;
 
+    /**
+     * Reçoit les octets lus par getInputStream() (null = pas de comptage).
+     */
+    private final LongConsumer bytesRead;
+
     /**
      * Construit un MultipartFile à partir d’un Path.
      *
      * @param path fichier existant sur disque
      */
     public PathMultipartFile(Path path) {
+        this(path, null);
+    }
+
+    /**
+     * Construit un MultipartFile à partir d’un Path, en signalant les octets lus (débit d'un job).
+     *
+     * @param path fichier existant sur disque
+     * @param bytesRead appelé avec le nombre d'octets de chaque lecture (null = pas de comptage)
+     */
+    public PathMultipartFile(Path path, LongConsumer bytesRead) {
         this.path = path;
         this.originalFilename = path.getFileName().toString();
         this.contentType = guessContentType(path);
+        this.bytesRead = bytesRead;
     }
 
     /**
@@ -129,7 +146,8 @@ public class PathMultipartFile implements MultipartFile {
      */
     @Override
     public InputStream getInputStream() throws IOException {
-        return Files.newInputStream(path);
+        InputStream in = Files.newInputStream(path);
+        return (bytesRead == null) ? in : new CountingInputStream(in, bytesRead);
     }
 
     /**
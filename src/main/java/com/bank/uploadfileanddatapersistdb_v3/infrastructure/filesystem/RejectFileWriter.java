@@ -0,0 +1,99 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.filesystem;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * RejectFileWriter
+ *
+ * Fichier de rejets "sidecar" : les records en échec sont écrits à côté du fichier source
+ * (ex: employees_2026-01-02_12-05-44.csv.rejects) au lieu d'une ligne LogChargementDetail chacun.
+ *
+ * Format : une ligne par record rejeté, en UTF-8
+ *   lineNumber;errorCode;raw
+ * - raw = forme brute du record (ligne CSV re-sérialisée avec le délimiteur du fichier,
+ *   ou élément XML du record sur une ligne), vide si le record n'a pas pu être lu ;
+ *   les retours à la ligne des valeurs sont échappés par le reader ("\n" / "\r" en CSV, &#10; / &#13; en XML)
+ * - tout ce qui suit le 2e ';' est le record brut : le partenaire peut le corriger et le renvoyer
+ *
+ * Le fichier n'est créé qu'au premier rejet (aucun fichier pour un import sans erreur).
+ * Écriture séquentielle tamponnée ; non thread-safe (utilisé par l'écrivain du pipeline).
+ */
+public class RejectFileWriter implements AutoCloseable {
+
+    /**
+     * Extension ajoutée au nom du fichier source.
+     */
+    public static final String SUFFIX = ".rejects";
+
+    private static final char SEPARATOR = ';';
+
+    private final Path target;
+    private BufferedWriter out;
+    private int rejected;
+
+    public RejectFileWriter(Path target) {
+        this.target = target;
+    }
+
+    /**
+     * Chemin du fichier de rejets d'un fichier source (même dossier).
+     */
+    public static Path sidecarOf(Path source) {
+        return source.resolveSibling(source.getFileName().toString() + SUFFIX);
+    }
+
+    /**
+     * Ajoute un record rejeté.
+     *
+     * @param lineNumber numéro de ligne/record dans le fichier source
+     * @param errorCode  code d'erreur normalisé (ex: TYPE_MISMATCH)
+     * @param raw        record brut (null si indisponible)
+     */
+    public void write(int lineNumber, String errorCode, String raw) {
+        try {
+            if (out == null) {
+                out = Files.newBufferedWriter(target, StandardCharsets.UTF_8);
+            }
+            out.write(Integer.toString(lineNumber));
+            out.write(SEPARATOR);
+            out.write(errorCode == null ? "" : errorCode);
+            out.write(SEPARATOR);
+            if (raw != null) {
+                out.write(raw);
+            }
+            out.newLine();
+            rejected++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write reject file " + target + ": " + e.getMessage(), e);
+        }
+    }
+
+    public int rejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Nom du fichier de rejets, ou null s'il n'a pas été créé (aucun rejet).
+     */
+    public String fileName() {
+        return out == null ? null : target.getFileName().toString();
+    }
+
+    @Override
+    public void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close reject file " + target + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,16 +1,12 @@
 package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.duplicate;
 // Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
 /**
  * DuplicateKeyBuilder
  *
  * Construit une clé de doublon à partir :
  * - d’une liste de champs configurés (duplicateCheck)
- * - d’un record validé (Map<String, ?>)
+ * - d’un record validé (String[] indexé par slot, cf. RecordPlan)
  *
  * Cette clé est utilisée pour :
  * - détecter les doublons dans le fichier
@@ -27,19 +23,25 @@ public class DuplicateKeyBuilder {
     /**
      * Construit une clé de doublon déterministe.
      *
-     * @param fields noms des champs utilisés pour la détection de doublons
-     * @param record record validé (clé = nom champ, valeur = valeur du champ)
+     * @param slots slots des champs utilisés pour la détection de doublons (-1 = champ hors mapping)
+     * @param record record validé (values[slot])
      * @return clé de doublon sous forme de String
      */
-    public String buildKey(List<String> fields, Map<String, ?> record) {
-
-        return fields.stream()
+    public String buildKey(int[] slots, String[] record) {
+        StringBuilder key = new StringBuilder(16 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
 
-                // Récupère la valeur du champ dans le record
-                // Si la valeur est null, on utilise "" pour éviter les NPE
-                .map(f -> java.util.Objects.toString(record.get(f), ""))
+            // Concatène les valeurs avec un séparateur stable
+            if (i > 0) {
+                key.append('|');
+            }
 
-                // Concatène les valeurs avec un séparateur stable
-                .collect(Collectors.joining("|"));
+            // Si la valeur est null, on utilise "" pour éviter les NPE
+            String v = slots[i] < 0 ? null : record[slots[i]];
+            if (v != null) {
+                key.append(v);
+            }
+        }
+        return key.toString();
     }
 }
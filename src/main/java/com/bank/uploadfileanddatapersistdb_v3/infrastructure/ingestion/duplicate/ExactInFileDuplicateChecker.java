@@ -0,0 +1,50 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.duplicate;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ExactInFileDuplicateChecker
+ *
+ * Mémorise chaque clé complète dans un HashSet (comportement historique) :
+ * comparaison exacte, mais la mémoire croît avec le nombre et la longueur des clés.
+ */
+public class ExactInFileDuplicateChecker implements InFileDuplicateChecker {
+
+    /**
+     * Pré-dimensionnement max : au-delà, le Set grandit normalement
+     * (évite d'allouer d'emblée une table énorme sur un comptage surestimé).
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1 << 22;
+
+    /**
+     * Ensemble des clés déjà rencontrées dans le fichier courant.
+     *
+     * HashSet :
+     * - accès très rapide (O(1))
+     * - pas de doublons
+     */
+    private final Set<String> seen;
+
+    public ExactInFileDuplicateChecker() {
+        this(0);
+    }
+
+    /**
+     * @param expectedRecords nombre de records attendus (0 = inconnu)
+     */
+    public ExactInFileDuplicateChecker(int expectedRecords) {
+        int expected = Math.min(Math.max(0, expectedRecords), MAX_INITIAL_CAPACITY);
+        this.seen = new HashSet<>(Math.max(16, (int) (expected / 0.75f) + 1));
+    }
+
+    @Override
+    public boolean isDuplicate(String key) {
+
+        // add(key) retourne :
+        // - true si la clé n'existait pas encore
+        // - false si la clé existe déjà
+        return !seen.add(key);
+    }
+}
@@ -0,0 +1,241 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.duplicate;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * HashedInFileDuplicateChecker
+ *
+ * Variante à mémoire bornée de la détection des doublons dans le fichier :
+ * - chaque clé est réduite à une empreinte de 128 bits (MurmurHash3 x64_128 sur les caractères UTF-16)
+ * - les empreintes sont rangées dans une table à adressage ouvert (sondage linéaire)
+ *   de longs, allouée hors heap (ByteBuffer direct) : 16 octets par clé, sans objet par clé
+ * - la table est pré-dimensionnée à partir du nombre de records attendus
+ *   (compté au démarrage du job), puis doublée si le comptage était sous-estimé
+ *
+ * La sonde se fait sur la première moitié de l'empreinte ; une égalité n'est retenue que si
+ * les 128 bits sont égaux.
+ *
+ * Limite assumée : aucune vérification contre la source. Les clés d'origine ne sont pas conservées
+ * et le fichier est lu en streaming (relire la première occurrence coûterait une relecture du fichier
+ * par doublon) : deux clés différentes de même empreinte 128 bits sont vues comme doublon et la
+ * seconde ligne est rejetée (probabilité de l'ordre de n² / 2^129). Le mode EXACT compare les clés.
+ *
+ * Non thread-safe : une instance par fichier, utilisée par l'écrivain du pipeline.
+ */
+public class HashedInFileDuplicateChecker implements InFileDuplicateChecker {
+
+    private static final double MAX_LOAD = 0.7;
+
+    /**
+     * Charge tolérée une fois la capacité maximale atteinte (plus de doublement possible).
+     */
+    private static final double MAX_LOAD_AT_MAX_CAPACITY = 0.9;
+
+    private static final int MIN_CAPACITY = 1 << 10;
+
+    /**
+     * 2^26 emplacements * 16 octets = 1 Gio (la taille d'un ByteBuffer est un int).
+     */
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    // Constantes de MurmurHash3 x64_128
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final long SEED = 0x2545f4914f6cdd1dL;
+
+    /**
+     * Emplacement i : [2i] = empreinte de sonde, [2i + 1] = empreinte de vérification.
+     * (0, 0) marque un emplacement vide.
+     */
+    private LongBuffer table;
+    private int capacity;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // Résultat du dernier hash128 (instance mono-thread : pas d'allocation par clé)
+    private long hashHigh;
+    private long hashLow;
+
+    /**
+     * @param expectedRecords nombre de records attendus (0 = inconnu : la table grandit au besoin)
+     */
+    public HashedInFileDuplicateChecker(int expectedRecords) {
+        allocate(capacityFor(expectedRecords));
+    }
+
+    @Override
+    public boolean isDuplicate(String key) {
+        hash128(key);
+        long probe = hashHigh;
+        long check = hashLow;
+        if (probe == 0 && check == 0) {
+            check = 1; // (0, 0) est réservé aux emplacements vides
+        }
+
+        if (size >= resizeAt) {
+            grow();
+        }
+        return !insert(probe, check);
+    }
+
+    /**
+     * Nombre de clés distinctes mémorisées.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Octets hors heap occupés par la table.
+     */
+    public long offHeapBytes() {
+        return (long) capacity * 16;
+    }
+
+    /**
+     * @return true si l'empreinte a été ajoutée, false si elle était déjà présente
+     */
+    private boolean insert(long probe, long check) {
+        int i = (int) probe & mask;
+        while (true) {
+            long p = table.get(2 * i);
+            long c = table.get(2 * i + 1);
+            if (p == 0 && c == 0) {
+                table.put(2 * i, probe);
+                table.put(2 * i + 1, check);
+                size++;
+                return true;
+            }
+            if (p == probe && c == check) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        if (capacity >= MAX_CAPACITY) {
+            if (size >= (int) (capacity * MAX_LOAD_AT_MAX_CAPACITY)) {
+                throw new IllegalStateException("In-file duplicate table is full (" + size + " keys)");
+            }
+            resizeAt = (int) (capacity * MAX_LOAD_AT_MAX_CAPACITY);
+            return;
+        }
+
+        LongBuffer old = table;
+        int oldCapacity = capacity;
+        allocate(capacity * 2);
+        for (int i = 0; i < oldCapacity; i++) {
+            long p = old.get(2 * i);
+            long c = old.get(2 * i + 1);
+            if (p != 0 || c != 0) {
+                insert(p, c);
+            }
+        }
+        // L'ancien buffer direct est libéré par le GC
+    }
+
+    private void allocate(int newCapacity) {
+        this.table = ByteBuffer.allocateDirect(newCapacity * 16).order(ByteOrder.nativeOrder()).asLongBuffer();
+        this.capacity = newCapacity;
+        this.mask = newCapacity - 1;
+        this.size = 0;
+        this.resizeAt = (int) (newCapacity * MAX_LOAD);
+    }
+
+    private static int capacityFor(int expectedRecords) {
+        if (expectedRecords <= 0) {
+            return MIN_CAPACITY;
+        }
+        long needed = (long) Math.ceil(expectedRecords / MAX_LOAD) + 1;
+        if (needed >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    /**
+     * MurmurHash3 x64_128 des caractères de la clé (2 octets par caractère, blocs de 8 caractères) ;
+     * résultat dans hashHigh / hashLow.
+     */
+    private void hash128(String s) {
+        int n = s.length();
+        long h1 = SEED;
+        long h2 = SEED;
+
+        int i = 0;
+        for (; i + 7 < n; i += 8) {
+            long k1 = chars(s, i, 4);
+            long k2 = chars(s, i + 4, 4);
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = n - i;
+        if (tail > 4) {
+            long k2 = chars(s, i + 4, tail - 4);
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (tail > 0) {
+            long k1 = chars(s, i, Math.min(4, tail));
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+
+        long len = 2L * n;
+        h1 ^= len;
+        h2 ^= len;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+
+        hashHigh = h1;
+        hashLow = h2;
+    }
+
+    /**
+     * count caractères (1 à 4) à partir de from, petit-boutiste, 16 bits chacun.
+     */
+    private static long chars(String s, int from, int count) {
+        long k = 0;
+        for (int j = 0; j < count; j++) {
+            k |= (long) s.charAt(from + j) << (16 * j);
+        }
+        return k;
+    }
+
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
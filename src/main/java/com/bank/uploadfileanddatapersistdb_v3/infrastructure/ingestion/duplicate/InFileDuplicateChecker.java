@@ -1,8 +1,7 @@
 package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.duplicate;
 // Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
 
-import java.util.HashSet;
-import java.util.Set;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.InFileDuplicateMode;
 
 /**
  * InFileDuplicateChecker
@@ -11,36 +10,39 @@ import java.util.Set;
  *
  * Fonctionnement :
  * - construit une clé de doublon (ex: "10|Alice|Martin")
- * - stocke chaque clé rencontrée dans un Set
+ * - mémorise chaque clé rencontrée
  * - si une clé existe déjà => doublon détecté
  *
+ * Deux implémentations (settings.inFileDuplicateMode) :
+ * - EXACT  : ExactInFileDuplicateChecker, les clés String dans un HashSet
+ * - HASHED : HashedInFileDuplicateChecker, une empreinte 128 bits par clé hors heap
+ *
  * Important :
  * - ce checker est utilisé uniquement pour le fichier en cours
  * - il ne remplace PAS la vérification des doublons en base de données
+ * - une instance par fichier, utilisée par un seul thread (l'écrivain du pipeline)
  */
-public class InFileDuplicateChecker {
-
-    /**
-     * Ensemble des clés déjà rencontrées dans le fichier courant.
-     *
-     * HashSet :
-     * - accès très rapide (O(1))
-     * - pas de doublons
-     */
-    private final Set<String> seen = new HashSet<>();
+public interface InFileDuplicateChecker {
 
     /**
-     * Vérifie si une clé a déjà été rencontrée.
+     * Vérifie si une clé a déjà été rencontrée (et la mémorise sinon).
      *
      * @param key clé de doublon construite à partir du record
      * @return true si la clé existe déjà (doublon),
      *         false si c’est la première occurrence
      */
-    public boolean isDuplicate(String key) {
+    boolean isDuplicate(String key);
 
-        // add(key) retourne :
-        // - true si la clé n'existait pas encore
-        // - false si la clé existe déjà
-        return !seen.add(key);
+    /**
+     * Crée le checker du fichier.
+     *
+     * @param mode            implémentation choisie par la config (null = EXACT)
+     * @param expectedRecords nombre de records attendus pour pré-dimensionner (0 = inconnu)
+     */
+    static InFileDuplicateChecker create(InFileDuplicateMode mode, int expectedRecords) {
+        if (mode == InFileDuplicateMode.HASHED) {
+            return new HashedInFileDuplicateChecker(expectedRecords);
+        }
+        return new ExactInFileDuplicateChecker(expectedRecords);
     }
 }
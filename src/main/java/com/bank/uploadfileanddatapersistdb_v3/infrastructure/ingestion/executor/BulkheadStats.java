@@ -0,0 +1,22 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.executor;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+/**
+ * Compteurs du bulkhead d'une config (IngestionJobExecutor).
+ *
+ * @param configId          config
+ * @param maxConcurrentJobs jobs exécutés en même temps au plus (threads du pool)
+ * @param queueDepth        jobs admis en attente d'un thread au plus
+ * @param active            jobs en cours d'exécution
+ * @param queued            jobs admis en attente
+ * @param completed         jobs terminés depuis le démarrage
+ * @param rejected          soumissions refusées (bulkhead plein) depuis le démarrage
+ */
+public record BulkheadStats(String configId,
+                            int maxConcurrentJobs,
+                            int queueDepth,
+                            int active,
+                            int queued,
+                            long completed,
+                            long rejected) {
+}
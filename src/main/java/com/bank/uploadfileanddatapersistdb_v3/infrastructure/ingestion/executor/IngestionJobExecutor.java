@@ -0,0 +1,188 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.executor;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.exception.JobRejectedException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * IngestionJobExecutor
+ *
+ * Exécution des jobs asynchrones, cloisonnée par config (bulkhead) :
+ * - un pool de threads nommé par config ("ingest-<configId>-N"), maxConcurrentJobs threads
+ *   (plateforme ou virtuels selon ingestion.execution.mode, cf. IngestionThreads)
+ * - admission bornée : au plus maxConcurrentJobs + queueDepth jobs admis (en cours + en attente) ;
+ *   au-delà, admit() lève JobRejectedException sans rien créer
+ * - le retard d'une config ne consomme ni les threads ni la file des autres
+ *
+ * Deux temps : admit() réserve une place (avant la création du job), Permit.execute() lance le job
+ * sur le pool de la config ; la place est rendue à la fin du job (ou par Permit.release()).
+ * Les limites sont relues à chaque admission : un changement de settings s'applique aux jobs suivants.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestionJobExecutor {
+
+    private final IngestionThreads threads;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Réserve une place dans le bulkhead de la config.
+     *
+     * @throws JobRejectedException si jobs en cours + en attente atteignent maxConcurrentJobs + queueDepth
+     */
+    public Permit admit(String configId, int maxConcurrentJobs, int queueDepth) {
+        Bulkhead b = bulkheads.computeIfAbsent(configId,
+                k -> new Bulkhead(k, threads.factory("ingest-" + k + "-")));
+        b.resize(Math.max(1, maxConcurrentJobs), Math.max(0, queueDepth));
+
+        int limit = b.maxConcurrentJobs + b.queueDepth;
+        int current;
+        do {
+            current = b.admitted.get();
+            if (current >= limit) {
+                b.rejected.increment();
+                throw new JobRejectedException("Too many jobs for config " + configId + ": "
+                        + b.maxConcurrentJobs + " running and " + b.queueDepth + " queued at most");
+            }
+        } while (!b.admitted.compareAndSet(current, current + 1));
+        return new Permit(b);
+    }
+
+    /**
+     * Compteurs de chaque bulkhead, par configId.
+     */
+    public List<BulkheadStats> stats() {
+        List<BulkheadStats> out = new ArrayList<>(bulkheads.size());
+        for (Bulkhead b : bulkheads.values()) {
+            out.add(new BulkheadStats(
+                    b.configId,
+                    b.maxConcurrentJobs,
+                    b.queueDepth,
+                    b.pool.getActiveCount(),
+                    b.pool.getQueue().size(),
+                    b.completed.sum(),
+                    b.rejected.sum()
+            ));
+        }
+        out.sort(Comparator.comparing(BulkheadStats::configId));
+        return out;
+    }
+
+    /**
+     * Les jobs en cours sont interrompus à l'arrêt (marqués FAILED au redémarrage du noeud).
+     */
+    @PreDestroy
+    void stop() {
+        bulkheads.values().forEach(b -> b.pool.shutdownNow());
+    }
+
+    /**
+     * Place réservée dans un bulkhead ; rendue une seule fois.
+     */
+    public static final class Permit {
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        /**
+         * Lance le job sur le pool de la config ; la place est rendue à sa fin.
+         *
+         * @throws JobRejectedException si le pool refuse le job (arrêt en cours) : la place est rendue
+         */
+        public void execute(Runnable job) {
+            try {
+                bulkhead.pool.execute(() -> {
+                    try {
+                        job.run();
+                    } finally {
+                        bulkhead.completed.increment();
+                        release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                release();
+                bulkhead.rejected.increment();
+                throw new JobRejectedException("Job pool of config " + bulkhead.configId + " refused the job: "
+                        + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Rend la place sans exécuter (création du job en échec).
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.admitted.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Pool et compteurs d'une config.
+     */
+    private static final class Bulkhead {
+        private final String configId;
+        private final ThreadPoolExecutor pool;
+        private final AtomicInteger admitted = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private volatile int maxConcurrentJobs = 1;
+        private volatile int queueDepth;
+
+        /**
+         * ReentrantLock plutôt que synchronized : pas d'épinglage si l'appelant est un thread virtuel.
+         */
+        private final ReentrantLock resizeLock = new ReentrantLock();
+
+        Bulkhead(String configId, ThreadFactory threadFactory) {
+            this.configId = configId;
+            // File non bornée : sa taille est bornée par l'admission (admitted <= max + queueDepth)
+            this.pool = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        }
+
+        void resize(int maxConcurrentJobs, int queueDepth) {
+            resizeLock.lock();
+            try {
+                resizeLocked(maxConcurrentJobs, queueDepth);
+            } finally {
+                resizeLock.unlock();
+            }
+        }
+
+        private void resizeLocked(int maxConcurrentJobs, int queueDepth) {
+            if (maxConcurrentJobs != this.maxConcurrentJobs) {
+                // Ordre imposé par ThreadPoolExecutor : max >= core à tout instant
+                if (maxConcurrentJobs > pool.getMaximumPoolSize()) {
+                    pool.setMaximumPoolSize(maxConcurrentJobs);
+                    pool.setCorePoolSize(maxConcurrentJobs);
+                } else {
+                    pool.setCorePoolSize(maxConcurrentJobs);
+                    pool.setMaximumPoolSize(maxConcurrentJobs);
+                }
+                this.maxConcurrentJobs = maxConcurrentJobs;
+            }
+            this.queueDepth = queueDepth;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.executor;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.exception.StreamProcessingException;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.ExecutionMode;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * IngestionThreads
+ *
+ * Threads des jobs asynchrones (pool du bulkhead de la config) et de leurs workers de fichiers,
+ * selon ingestion.execution.mode :
+ * - PLATFORM : threads plateforme (comportement historique)
+ * - VIRTUAL : threads virtuels Java 21 ; un thread bloqué sur JDBC (contrôle de doublons,
+ *   écriture des chunks) libère son thread porteur au lieu de l'occuper
+ *
+ * En mode VIRTUAL, le nombre de threads n'est plus la limite : le nombre de fichiers ingérés
+ * en même temps est borné par un sémaphore dimensionné sur le pool de connexions
+ * (spring.datasource.hikari.maximum-pool-size moins reserved-connections, laissées à l'écrivain
+ * de logs et aux requêtes HTTP). Sans cette borne, les threads virtuels attendraient tous une
+ * connexion Hikari et expireraient (connection-timeout).
+ *
+ * Les validateurs de StagedRecordEngine (calcul pur) restent sur des threads plateforme.
+ */
+@Component
+public class IngestionThreads {
+
+    @Value("${ingestion.execution.mode:PLATFORM}")
+    private ExecutionMode mode;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    /**
+     * Connexions laissées hors des fichiers (écrivain de logs, HTTP, tâches planifiées).
+     */
+    @Value("${ingestion.execution.virtual.reserved-connections:2}")
+    private int reservedConnections;
+
+    private Semaphore databasePermits;
+
+    @PostConstruct
+    void init() {
+        databasePermits = new Semaphore(Math.max(1, connectionPoolSize - Math.max(0, reservedConnections)), true);
+    }
+
+    public ExecutionMode mode() {
+        return mode;
+    }
+
+    /**
+     * Fabrique de threads nommés prefix + N (N à partir de 1), virtuels ou plateforme (daemon).
+     */
+    public ThreadFactory factory(String prefix) {
+        if (mode == ExecutionMode.VIRTUAL) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        return Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+
+    /**
+     * Exécute le travail d'un fichier ; en mode VIRTUAL, après avoir obtenu une place
+     * parmi les connexions de la base (attente sans bloquer de thread porteur).
+     */
+    public void runWithDatabasePermit(Runnable work) {
+        if (mode != ExecutionMode.VIRTUAL) {
+            work.run();
+            return;
+        }
+        try {
+            databasePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StreamProcessingException("Interrupted while waiting for a database connection slot", e);
+        }
+        try {
+            work.run();
+        } finally {
+            databasePermits.release();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.bank.uploadfileanddatapersistdb_v3.domain.exception.SchemaValidationE
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.ErrorCode;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.RecordValidationException;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.CsvSchema;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.CsvColumnRule;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -23,7 +24,7 @@ import java.util.*;
  *
  * Objectif :
  * - Exposer les données sous forme d'un flux de records (Iterator)
- * - Chaque record est transformé en Map<fieldName, rawValue>
+ * - Chaque record est transformé en String[] (un slot par colonne, cf. RecordPlan)
  *
  * IMPORTANT :
  * - Ici on ne fait PAS la validation métier complète (type/regex/required/nullable),
@@ -41,6 +42,12 @@ public class CsvRecordReader implements RecordReader {
     /** Schéma de lecture (delimiter, hasHeader, columns...) */
     private final CsvSchema schema;
 
+    /** Colonne absente du header du fichier : valeur null */
+    private static final int ABSENT = -1;
+
+    /** Index manquant dans le mapping (hasHeader=false) : erreur MISSING_COLUMN */
+    private static final int NO_INDEX = -2;
+
     /**
      * Constructeur :
      * - ouvre le flux du fichier
@@ -215,21 +222,27 @@ public class CsvRecordReader implements RecordReader {
     }
 
     /**
-     * Retourne un Iterator<Map<String,String>> (record streaming).
+     * Retourne un Iterator<String[]> (record streaming).
      *
-     * Chaque appel à next() :
+     * L'index de colonne de chaque slot est résolu une seule fois (header ou index du mapping) ;
+     * chaque appel à next() :
      * - lit la ligne courante du CSV
-     * - construit une Map où :
-     *      key   = nom logique du champ (c.getName())
-     *      value = valeur brute lue (String) depuis header ou index
+     * - remplit un String[] où values[slot] = valeur brute lue à l'index pré-calculé
+     * - si le schéma a un fichier de rejets : garde aussi la ligne complète (toutes les colonnes,
+     *   re-sérialisée avec le délimiteur du fichier) dans le slot raw (RecordPlan.newRecordWithRaw)
      */
     @Override
-    public Iterator<Map<String, String>> iterator() {
+    public Iterator<String[]> iterator() {
 
         // Iterator natif Apache CSV
         Iterator<CSVRecord> it = parser.iterator();
 
-        // On wrappe l'iterator pour produire Map<String,String>
+        RecordPlan plan = schema.getPlan();
+        int[] columnIndex = resolveColumnIndexes();
+        boolean keepRaw = schema.isRejectFile();
+        char delimiter = schema.getDelimiter().charAt(0);
+
+        // On wrappe l'iterator pour produire String[]
         return new Iterator<>() {
 
             // Numéro de ligne logique pour les records (hors header)
@@ -241,42 +254,32 @@ public class CsvRecordReader implements RecordReader {
             }
 
             @Override
-            public Map<String, String> next() {
+            public String[] next() {
                 CSVRecord record = it.next();
                 dataLineNumber++;
 
-                Map<String, String> out = new HashMap<>();
-
-                // Pour chaque champ défini dans le mapping
-                for (CsvColumnRule c : schema.getColumns()) {
-                    String raw;
-
-                    if (schema.isHasHeader()) {
-                        // Lecture par header
-                        // record.isMapped(header) => vérifie que la colonne existe dans le CSV
-                        raw = record.isMapped(c.getHeader()) ? record.get(c.getHeader()) : null;
-
-                    } else {
-                        // Lecture par index (si le fichier n'a pas de header)
-                        // Dans ce cas, le mapping DOIT définir index pour chaque champ.
-                        Integer idx = (c.getIndex() != null) ? c.getIndex() : null;
-
-                        // Si index manquant => impossible de lire correctement
-                        if (idx == null) {
-                            throw new RecordValidationException(
-                                    ErrorCode.MISSING_COLUMN,
-                                    c.getName(),
-                                    dataLineNumber,
-                                    "CSV mapping needs 'index' when hasHeader=false for field: " + c.getName()
-                            );
-                        }
-
-                        // Lecture sécurisée : si idx > taille du record => null
-                        raw = idx < record.size() ? record.get(idx) : null;
+                String[] out = keepRaw ? plan.newRecordWithRaw() : plan.newRecord();
+
+                for (int slot = 0; slot < plan.size(); slot++) {
+                    int idx = columnIndex[slot];
+
+                    // Sans header, le mapping DOIT définir index pour chaque champ
+                    if (idx == NO_INDEX) {
+                        String name = plan.rule(slot).getName();
+                        throw new RecordValidationException(
+                                ErrorCode.MISSING_COLUMN,
+                                name,
+                                dataLineNumber,
+                                "CSV mapping needs 'index' when hasHeader=false for field: " + name
+                        );
                     }
 
-                    // On stocke toujours par nom logique du champ (pas header)
-                    out.put(c.getName(), raw);
+                    // Colonne absente du fichier (header non mappé) ou ligne trop courte => null
+                    out[slot] = (idx >= 0 && idx < record.size()) ? record.get(idx) : null;
+                }
+
+                if (keepRaw) {
+                    out[plan.size()] = rawLine(record, delimiter);
                 }
 
                 return out;
@@ -284,6 +287,65 @@ public class CsvRecordReader implements RecordReader {
         };
     }
 
+    /**
+     * Ligne CSV du record (toutes les colonnes), guillemets ajoutés seulement si nécessaire.
+     * Toujours sur une seule ligne (une ligne par record dans le fichier de rejets) :
+     * dans une valeur multi-lignes, \n et \r deviennent "\\n" et "\\r" (et \ devient "\\\\").
+     */
+    private static String rawLine(CSVRecord record, char delimiter) {
+        StringBuilder sb = new StringBuilder(64);
+        for (int i = 0; i < record.size(); i++) {
+            if (i > 0) {
+                sb.append(delimiter);
+            }
+            String v = record.get(i);
+            boolean multiline = v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0;
+            if (multiline || v.indexOf(delimiter) >= 0 || v.indexOf('"') >= 0) {
+                sb.append('"');
+                appendEscaped(sb, v, multiline);
+                sb.append('"');
+            } else {
+                sb.append(v);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendEscaped(StringBuilder sb, String value, boolean multiline) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\"\"");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\\' -> sb.append(multiline ? "\\\\" : "\\");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Index de colonne CSV par slot :
+     * - avec header : position du header dans le fichier (ABSENT si le header n'existe pas)
+     * - sans header : index du mapping (NO_INDEX s'il manque)
+     */
+    private int[] resolveColumnIndexes() {
+        List<CsvColumnRule> columns = schema.getColumns();
+        Map<String, Integer> headerMap = schema.isHasHeader() ? parser.getHeaderMap() : Map.of();
+
+        int[] indexes = new int[columns.size()];
+        for (int slot = 0; slot < indexes.length; slot++) {
+            CsvColumnRule c = columns.get(slot);
+            if (schema.isHasHeader()) {
+                Integer pos = (c.getHeader() == null) ? null : headerMap.get(c.getHeader());
+                indexes[slot] = (pos == null) ? ABSENT : pos;
+            } else {
+                indexes[slot] = (c.getIndex() == null) ? NO_INDEX : c.getIndex();
+            }
+        }
+        return indexes;
+    }
+
     /**
      * Libère les ressources.
      * Utilisé automatiquement via try-with-resources.
@@ -2,7 +2,6 @@ package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.parser;
 // Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
 
 import java.util.Iterator;
-import java.util.Map;
 
 /**
  * RecordReader
@@ -16,10 +15,8 @@ import java.util.Map;
  * Chaque implémentation doit :
  * - lire le fichier en streaming
  * - produire un Iterator de records
- * - chaque record est représenté par une Map<String, String>
- *
- * Clé   : nom du champ (défini dans la configuration)
- * Valeur: valeur brute lue dans le fichier (toujours String)
+ * - chaque record est représenté par un String[] indexé par le slot du champ
+ *   (RecordPlan du schéma : values[slot] = valeur brute, toujours String, null si absente)
  */
 public interface RecordReader extends AutoCloseable {
 
@@ -30,7 +27,7 @@ public interface RecordReader extends AutoCloseable {
      * - une ligne CSV
      * - ou un élément XML (recordElement)
      *
-     * @return Iterator de records (Map fieldName -> raw String value)
+     * @return Iterator de records (values[slot] = raw String value)
      */
-    Iterator<Map<String, String>> iterator();
+    Iterator<String[]> iterator();
 }
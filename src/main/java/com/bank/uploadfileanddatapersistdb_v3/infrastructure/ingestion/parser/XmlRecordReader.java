@@ -4,6 +4,7 @@ package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.parser;
 import com.bank.uploadfileanddatapersistdb_v3.domain.exception.SchemaValidationException;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.ErrorCode;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.RecordValidationException;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.XmlSchema;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.XmlFieldRule;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,7 +16,7 @@ import java.util.*;
 /**
  * XmlRecordReader
  *
- * Lecteur XML en streaming (StAX) qui transforme un XML en records logiques (Map<String,String>).
+ * Lecteur XML en streaming (StAX) qui transforme un XML en records logiques (String[], un slot par champ).
  *
  * - rootElement : ex <employees>
  * - recordElement : ex <employee> (chaque <employee> = 1 record)
@@ -30,6 +31,12 @@ public class XmlRecordReader implements RecordReader {
     /** Schéma XML (rootElement, recordElement, fields) issu de la config DB */
     private final XmlSchema schema;
 
+    /**
+     * Tag XML -> slot du champ (RecordPlan), calculé une fois.
+     * Si plusieurs champs partagent un tag, le premier du mapping gagne.
+     */
+    private final Map<String, Integer> slotByTag = new HashMap<>();
+
     /**
      * Constructeur :
      * - ouvre le stream du fichier
@@ -39,6 +46,11 @@ public class XmlRecordReader implements RecordReader {
     public XmlRecordReader(MultipartFile file, XmlSchema schema) throws Exception {
         this.schema = schema;
 
+        List<XmlFieldRule> fields = schema.getFields();
+        for (int slot = 0; slot < fields.size(); slot++) {
+            slotByTag.putIfAbsent(fields.get(slot).getTag(), slot);
+        }
+
         // InputStream du fichier uploadé / PathMultipartFile
         InputStream is = file.getInputStream();
 
@@ -79,18 +91,23 @@ public class XmlRecordReader implements RecordReader {
     }
 
     /**
-     * Retourne un Iterator<Map<String,String>>.
-     * Chaque Map représente un record <recordElement> (ex: <employee>).
+     * Retourne un Iterator<String[]>.
+     * Chaque tableau représente un record <recordElement> (ex: <employee>).
+     * Si le schéma a un fichier de rejets, l'élément du record est aussi re-sérialisé
+     * sur une ligne (balises, attributs, textes non vides) dans le slot raw (RecordPlan.newRecordWithRaw).
      */
     @Override
-    public Iterator<Map<String, String>> iterator() {
+    public Iterator<String[]> iterator() {
+        RecordPlan plan = schema.getPlan();
+        boolean keepRaw = schema.isRejectFile();
+
         return new Iterator<>() {
 
             /** Index logique du record (sert surtout pour erreurs/logs) */
             int recordIndex = 0;
 
             /** Buffer du prochain record déjà lu (look-ahead) */
-            Map<String, String> next;
+            String[] next;
 
             /** Indique si "next" est déjà préparé */
             boolean prepared = false;
@@ -114,20 +131,20 @@ public class XmlRecordReader implements RecordReader {
              * Si aucun record disponible, NoSuchElementException.
              */
             @Override
-            public Map<String, String> next() {
+            public String[] next() {
                 if (!hasNext()) throw new NoSuchElementException();
                 prepared = false; // on consomme next => on devra relire au prochain hasNext()
                 return next;
             }
 
             /**
-             * Lit le prochain <recordElement> dans le flux XML et construit la Map.
+             * Lit le prochain <recordElement> dans le flux XML et remplit les slots.
              *
              * Retourne :
-             * - Map si un record est trouvé
+             * - String[] si un record est trouvé
              * - null si fin du flux
              */
-            private Map<String, String> readNextRecord() {
+            private String[] readNextRecord() {
                 try {
                     // On parcourt le flux d'événements XML jusqu'à trouver <recordElement>
                     while (reader.hasNext()) {
@@ -139,14 +156,9 @@ public class XmlRecordReader implements RecordReader {
 
                             recordIndex++;
 
-                            // Map résultat pour ce record
-                            Map<String, String> out = new HashMap<>();
-
-                            // Liste des tags attendus selon le mapping (ex: id, firstName, lastName)
-                            Set<String> expectedTags = new HashSet<>();
-                            for (XmlFieldRule r : schema.getFields()) {
-                                expectedTags.add(r.getTag());
-                            }
+                            // Slots du record (null = champ non trouvé)
+                            String[] out = keepRaw ? plan.newRecordWithRaw() : plan.newRecord();
+                            StringBuilder raw = keepRaw ? appendStartTag(new StringBuilder(128)) : null;
 
                             /**
                              * depth sert à sortir proprement du recordElement.
@@ -159,13 +171,14 @@ public class XmlRecordReader implements RecordReader {
                             int depth = 1;
 
                             /**
-                             * currentTag mémorise le "tag courant" qu'on veut capturer.
+                             * currentTag mémorise le "tag courant" qu'on veut capturer, currentSlot son slot.
                              * Exemple :
                              * - on lit <firstName> => currentTag="firstName"
-                             * - on lit CHARACTERS => on stocke le texte dans out
+                             * - on lit CHARACTERS => on stocke le texte dans out[currentSlot]
                              * - on lit </firstName> => currentTag=null
                              */
                             String currentTag = null;
+                            int currentSlot = -1;
 
                             // Boucle interne : lire jusqu'à la fin du recordElement
                             while (reader.hasNext() && depth > 0) {
@@ -176,14 +189,23 @@ public class XmlRecordReader implements RecordReader {
 
                                     // Nom du tag entrant
                                     String tag = reader.getLocalName();
+                                    if (raw != null) {
+                                        appendStartTag(raw);
+                                    }
 
                                     // On capture seulement les tags qui sont dans le mapping
-                                    if (expectedTags.contains(tag)) {
+                                    Integer slot = slotByTag.get(tag);
+                                    if (slot != null) {
                                         currentTag = tag;
+                                        currentSlot = slot;
                                     }
 
                                 } else if (e == XMLStreamConstants.CHARACTERS) {
 
+                                    if (raw != null && !reader.isWhiteSpace()) {
+                                        appendEscaped(raw, reader.getText());
+                                    }
+
                                     // On ne stocke du texte que si on est dans un tag attendu
                                     if (currentTag != null) {
                                         String text = reader.getText();
@@ -191,10 +213,9 @@ public class XmlRecordReader implements RecordReader {
                                             text = text.trim();
 
                                             // Ignore texte vide (espaces/retours)
-                                            if (!text.isEmpty()) {
-                                                // tagToFieldName convertit "firstName" -> "firstName" (ou autre mapping)
-                                                // putIfAbsent : garde la 1ère valeur si jamais plusieurs segments CHARACTERS
-                                                out.putIfAbsent(tagToFieldName(currentTag), text);
+                                            // garde la 1ère valeur si jamais plusieurs segments CHARACTERS
+                                            if (!text.isEmpty() && out[currentSlot] == null) {
+                                                out[currentSlot] = text;
                                             }
                                         }
                                     }
@@ -203,6 +224,9 @@ public class XmlRecordReader implements RecordReader {
 
                                     // On sort d'un tag
                                     String tag = reader.getLocalName();
+                                    if (raw != null) {
+                                        raw.append("</").append(tag).append('>');
+                                    }
 
                                     // Si on ferme le tag qu'on lisait, on reset currentTag
                                     if (tag.equals(currentTag)) {
@@ -213,11 +237,9 @@ public class XmlRecordReader implements RecordReader {
                                 }
                             }
 
-                            // Assure que tous les champs existent dans la Map (valeur null si non trouvé)
-                            for (XmlFieldRule r : schema.getFields()) {
-                                out.putIfAbsent(r.getName(), null);
+                            if (raw != null) {
+                                out[plan.size()] = raw.toString();
                             }
-
                             return out; // record complet
                         }
                     }
@@ -236,20 +258,38 @@ public class XmlRecordReader implements RecordReader {
                     );
                 }
             }
+        };
+    }
 
-            /**
-             * Convertit un tag XML en "nom logique" de champ (fieldName).
-             *
-             * Exemple : si mapping dit tag="firstName" => name="firstName"
-             * Mais on pourrait imaginer un mapping tag="first_name" => name="firstName".
-             */
-            private String tagToFieldName(String tag) {
-                for (XmlFieldRule r : schema.getFields()) {
-                    if (tag.equals(r.getTag())) return r.getName();
-                }
-                return tag; // fallback
+    /**
+     * Balise ouvrante de l'élément courant (avec ses attributs), pour la forme brute du record.
+     */
+    private StringBuilder appendStartTag(StringBuilder sb) {
+        sb.append('<').append(reader.getLocalName());
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            sb.append(' ').append(reader.getAttributeLocalName(i)).append("=\"");
+            appendEscaped(sb, reader.getAttributeValue(i));
+            sb.append('"');
+        }
+        return sb.append('>');
+    }
+
+    /**
+     * Échappement XML ; les retours à la ligne sont encodés pour garder un record par ligne.
+     */
+    private static void appendEscaped(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '&' -> sb.append("&amp;");
+                case '"' -> sb.append("&quot;");
+                case '\n' -> sb.append("&#10;");
+                case '\r' -> sb.append("&#13;");
+                default -> sb.append(c);
             }
-        };
+        }
     }
 
     /**
@@ -1,16 +1,20 @@
 package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.persistence;
 
-import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.TypeConverter;
-import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.FieldRule;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom.GenericDuplicateRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * GenericDuplicateDbChecker
@@ -19,9 +23,12 @@ import java.util.stream.Collectors;
  * pour n’importe quelle entité JPA.
  *
  * Fonctionne uniquement à partir :
- * - du record lu (Map<String,String>)
- * - de la configuration duplicateCheck
- * - des règles de mapping (FieldRule)
+ * - du record validé (valeurs typées par slot)
+ * - du plan compilé du mapping (champs duplicateCheck + FieldRule par slot)
+ *
+ * Deux modes :
+ * - exists()    : une requête par record (historique)
+ * - existsAll() : une requête par lot de MAX_KEYS_PER_QUERY clés distinctes
  */
 @Component
 @RequiredArgsConstructor
@@ -33,65 +40,171 @@ public class GenericDuplicateDbChecker {
      */
     private final GenericDuplicateRepository duplicateRepository;
 
-    /**
-     * Convertit les valeurs String en types Java
-     * compatibles avec les colonnes JPA.
-     */
-    private final TypeConverter typeConverter = new TypeConverter();
-
     /**
      * Vérifie si un record équivalent existe déjà en base.
      *
-     * @param record          ligne lue depuis le fichier (valeurs String)
-     * @param duplicateFields champs utilisés pour la détection de doublons
-     * @param rules           règles de mapping (type, nullable, etc.)
-     * @param entityClass     classe de l’entité JPA ciblée
+     * @param record      ligne lue depuis le fichier (valeurs typées par slot, null si vide)
+     * @param plan        plan compilé : champs duplicateCheck par slot
+     * @param entityClass classe de l’entité JPA ciblée
      * @return true si un doublon existe en base
      */
     public boolean exists(
-            Map<String, String> record,
-            List<String> duplicateFields,
-            List<? extends FieldRule> rules,
+            Object[] record,
+            RecordPlan plan,
             Class<?> entityClass
     ) {
 
-        // Indexation des règles par nom de champ
-        Map<String, FieldRule> ruleByName = rules.stream()
-                .collect(Collectors.toMap(
-                        FieldRule::getName,
-                        Function.identity(),
-                        (a, b) -> a
-                ));
+        List<String> duplicateFields = plan.duplicateFields();
+        int[] slots = plan.duplicateSlots();
 
-        // Critères typés pour la requête DB
-        Map<String, Object> criteria = new HashMap<>();
+        // Critères typés pour la requête DB (valeurs déjà converties par la validation)
+        Map<String, Object> criteria = new HashMap<>(slots.length * 2);
 
-        for (String field : duplicateFields) {
+        for (int i = 0; i < slots.length; i++) {
+            // Champ hors mapping : aucune valeur lue => null
+            criteria.put(duplicateFields.get(i), slots[i] < 0 ? null : record[slots[i]]);
+        }
 
-            // Valeur brute issue du fichier
-            String raw = record.get(field);
+        // Exécution de la requête dynamique
+        return duplicateRepository.existsByFields(entityClass, criteria);
+    }
 
-            // Règle associée (type, nullable…)
-            FieldRule rule = ruleByName.get(field);
+    /**
+     * Nombre max de clés par requête (OR de conditions) : borne la taille du SQL et des paramètres.
+     */
+    static final int MAX_KEYS_PER_QUERY = 500;
 
-            // Fallback si règle absente
-            if (rule == null) {
-                criteria.put(field, raw);
-                continue;
+    /**
+     * Vérifie en lot quels records existent déjà en base.
+     *
+     * Les clés sont dédoublonnées puis résolues par findExistingKeys (une requête par lot),
+     * et les lignes trouvées sont rapprochées des records après normalisation
+     * (nombres comparés par valeur : 10 = 10.00 = 10L).
+     *
+     * Si la base renvoie une clé qui ne se rapproche d'aucun record (collation insensible
+     * à la casse ou aux accents, type Java différent...), les clés non rapprochées du lot
+     * sont revérifiées une par une (exists) : le résultat reste celui du mode record par record.
+     *
+     * Un record dont la clé normalisée apparaît déjà plus tôt dans le lot est aussi signalé :
+     * en mode record par record, il aurait trouvé en base la ligne insérée pour le premier.
+     *
+     * @param records     records validés (valeurs typées par slot)
+     * @param plan        plan compilé : champs duplicateCheck par slot
+     * @param entityClass classe de l’entité JPA ciblée
+     * @return existing[i] = true si records.get(i) est un doublon en base
+     */
+    public boolean[] existsAll(List<Object[]> records, RecordPlan plan, Class<?> entityClass) {
+        List<String> duplicateFields = plan.duplicateFields();
+        int[] slots = plan.duplicateSlots();
+
+        boolean[] existing = new boolean[records.size()];
+
+        // Clés distinctes (normalisées) -> valeurs typées, dans l'ordre du lot
+        Map<List<Object>, Object[]> distinct = new LinkedHashMap<>();
+        List<List<Object>> normalized = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            Object[] key = keyOf(records.get(i), slots);
+            List<Object> norm = normalize(key);
+            normalized.add(norm);
+            if (distinct.putIfAbsent(norm, key) != null) {
+                existing[i] = true; // même clé qu'un record précédent du lot
             }
+        }
 
-            // Valeur vide => null
-            if (raw == null || raw.trim().isEmpty()) {
-                criteria.put(field, null);
-                continue;
+        // Résolution en base, par lots de MAX_KEYS_PER_QUERY clés
+        Set<List<Object>> found = new HashSet<>();
+        List<Map.Entry<List<Object>, Object[]>> entries = new ArrayList<>(distinct.entrySet());
+        for (int from = 0; from < entries.size(); from += MAX_KEYS_PER_QUERY) {
+            List<Map.Entry<List<Object>, Object[]>> slice =
+                    entries.subList(from, Math.min(entries.size(), from + MAX_KEYS_PER_QUERY));
+            resolveSlice(slice, duplicateFields, entityClass, found);
+        }
+
+        for (int i = 0; i < existing.length; i++) {
+            if (found.contains(normalized.get(i))) {
+                existing[i] = true;
             }
+        }
+        return existing;
+    }
 
-            // Conversion générique String -> type Java
-            Object typedValue = typeConverter.convert(rule.getType(), raw.trim());
-            criteria.put(field, typedValue);
+    private void resolveSlice(List<Map.Entry<List<Object>, Object[]>> slice,
+                              List<String> duplicateFields,
+                              Class<?> entityClass,
+                              Set<List<Object>> found) {
+        Set<List<Object>> requested = new HashSet<>(slice.size() * 2);
+        List<Object[]> keys = new ArrayList<>(slice.size());
+        for (Map.Entry<List<Object>, Object[]> e : slice) {
+            requested.add(e.getKey());
+            keys.add(e.getValue());
         }
 
-        // Exécution de la requête dynamique
-        return duplicateRepository.existsByFields(entityClass, criteria);
+        boolean unmatchedRow = false;
+        for (Object[] row : duplicateRepository.findExistingKeys(entityClass, duplicateFields, keys)) {
+            List<Object> norm = normalize(row);
+            if (requested.contains(norm)) {
+                found.add(norm);
+            } else {
+                unmatchedRow = true;
+            }
+        }
+
+        if (unmatchedRow) {
+            // La base compare autrement que Java : on laisse la base trancher clé par clé
+            for (Map.Entry<List<Object>, Object[]> e : slice) {
+                if (!found.contains(e.getKey())
+                        && duplicateRepository.existsByFields(entityClass, criteriaOf(duplicateFields, e.getValue()))) {
+                    found.add(e.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Valeurs de la clé de doublon (champ hors mapping => null).
+     */
+    private static Object[] keyOf(Object[] record, int[] slots) {
+        Object[] key = new Object[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            key[i] = slots[i] < 0 ? null : record[slots[i]];
+        }
+        return key;
+    }
+
+    private static Map<String, Object> criteriaOf(List<String> fields, Object[] key) {
+        Map<String, Object> criteria = new HashMap<>(key.length * 2);
+        for (int i = 0; i < key.length; i++) {
+            criteria.put(fields.get(i), key[i]);
+        }
+        return criteria;
+    }
+
+    /**
+     * Clé comparable entre valeurs du fichier et valeurs lues en base :
+     * les nombres sont ramenés à un BigDecimal sans zéros de fin.
+     */
+    private static List<Object> normalize(Object[] key) {
+        Object[] norm = new Object[key.length];
+        for (int i = 0; i < key.length; i++) {
+            norm[i] = normalizeValue(key[i]);
+        }
+        return Arrays.asList(norm);
+    }
+
+    private static Object normalizeValue(Object v) {
+        if (v instanceof BigDecimal d) {
+            return d.signum() == 0 ? BigDecimal.ZERO : d.stripTrailingZeros();
+        }
+        if (v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte) {
+            return normalizeValue(BigDecimal.valueOf(((Number) v).longValue()));
+        }
+        if (v instanceof BigInteger i) {
+            return normalizeValue(new BigDecimal(i));
+        }
+        if (v instanceof Double || v instanceof Float) {
+            double d = ((Number) v).doubleValue();
+            return Double.isFinite(d) ? normalizeValue(BigDecimal.valueOf(d)) : v;
+        }
+        return v;
     }
 }
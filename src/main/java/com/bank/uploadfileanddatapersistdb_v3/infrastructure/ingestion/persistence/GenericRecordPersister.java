@@ -1,6 +1,6 @@
 package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.persistence;
 
-import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.FieldRule;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -8,7 +8,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * GenericRecordPersister
@@ -27,7 +26,7 @@ import java.util.Map;
 public class GenericRecordPersister {
 
     /**
-     * Mapper générique qui transforme un record (Map<String,String>)
+     * Mapper générique qui transforme un record (valeurs typées par slot)
      * en entité JPA en utilisant les règles de mapping.
      */
     private final RecordToEntityMapper recordToEntityMapper;
@@ -42,21 +41,44 @@ public class GenericRecordPersister {
     /**
      * Persiste un record sous forme d’entité JPA.
      *
-     * @param record      ligne du fichier (valeurs brutes String)
-     * @param rules       règles de mapping (type, nullable, etc.)
+     * @param record      ligne du fichier (valeurs typées par slot)
+     * @param plan        plan compilé du mapping (règle par slot)
      * @param entityClass classe de l’entité cible (ex: Employee.class)
      * @param <T>         type générique de l’entité
      */
     @Transactional
     public <T> void persist(
-            Map<String, String> record,
-            List<? extends FieldRule> rules,
+            Object[] record,
+            RecordPlan plan,
             Class<T> entityClass
     ) {
         // Conversion dynamique record -> entité JPA
-        T entity = recordToEntityMapper.toEntity(record, rules, entityClass);
+        T entity = recordToEntityMapper.toEntity(record, plan, entityClass);
 
         // merge = insert ou update selon la présence de l’ID
         em.merge(entity);
     }
+
+    /**
+     * Persiste un chunk de records dans une seule transaction.
+     *
+     * Le flush explicite fait remonter les erreurs SQL ici (et non au commit),
+     * ce qui permet à l'appelant de découper le chunk pour isoler la ligne fautive.
+     *
+     * @param records     records validés du chunk
+     * @param plan        plan compilé du mapping (règle par slot)
+     * @param entityClass classe de l’entité cible (ex: Employee.class)
+     * @param <T>         type générique de l’entité
+     */
+    @Transactional
+    public <T> void persistAll(
+            List<Object[]> records,
+            RecordPlan plan,
+            Class<T> entityClass
+    ) {
+        for (Object[] record : records) {
+            em.merge(recordToEntityMapper.toEntity(record, plan, entityClass));
+        }
+        em.flush();
+    }
 }
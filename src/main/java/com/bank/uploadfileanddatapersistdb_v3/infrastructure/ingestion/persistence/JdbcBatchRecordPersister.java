@@ -0,0 +1,206 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.persistence;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JdbcBatchRecordPersister
+ *
+ * Alternative à GenericRecordPersister pour les imports volumineux :
+ * - pas de merge JPA (donc pas de SELECT avant chaque INSERT quand l'@Id est assigné)
+ * - un INSERT paramétré par entité, construit une seule fois depuis les métadonnées JPA
+ *   (@Table / @Column, sinon nommage snake_case de Spring Boot)
+ * - écriture via JDBC batch (addBatch / executeBatch) ; avec rewriteBatchedStatements=true,
+ *   le driver MySQL envoie des INSERT multi-lignes
+ *
+ * Limite : c'est un INSERT pur. Un record dont l'ID existe déjà échoue
+ * (là où merge aurait fait un UPDATE) ; duplicateCheck doit couvrir ce cas.
+ *
+ * Chaque champ du mapping doit correspondre à une colonne insérable de l'entité :
+ * sinon l'INSERT n'est pas construit et le fichier échoue avant la première ligne (prepare).
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcBatchRecordPersister {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Requêtes INSERT compilées, par (entité, champs du mapping).
+     */
+    private final Map<InsertKey, InsertStatement> statements = new ConcurrentHashMap<>();
+
+    /**
+     * Construit (et met en cache) l'INSERT du mapping, avant l'ingestion du fichier.
+     *
+     * @throws IllegalStateException si un champ du mapping n'a pas de colonne insérable dans l'entité
+     */
+    public void prepare(RecordPlan plan, Class<?> entityClass) {
+        statementFor(entityClass, plan);
+    }
+
+    /**
+     * Insère un record.
+     */
+    @Transactional
+    public void persist(Object[] record, RecordPlan plan, Class<?> entityClass) {
+        persistAll(List.<Object[]>of(record), plan, entityClass);
+    }
+
+    /**
+     * Insère un chunk de records en un seul batch JDBC (dans la transaction courante).
+     * Les valeurs sont déjà typées par la validation : on ne fait que les projeter sur les colonnes.
+     */
+    @Transactional
+    public void persistAll(List<Object[]> records, RecordPlan plan, Class<?> entityClass) {
+        InsertStatement insert = statementFor(entityClass, plan);
+        int[] slots = insert.slots();
+
+        List<Object[]> batchArgs = new ArrayList<>(records.size());
+        for (Object[] record : records) {
+            Object[] args = new Object[slots.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = record[slots[i]];
+            }
+            batchArgs.add(args);
+        }
+
+        jdbcTemplate.batchUpdate(insert.sql(), batchArgs);
+    }
+
+    private InsertStatement statementFor(Class<?> entityClass, RecordPlan plan) {
+        // Les slots ne dépendent que de l'ordre des champs : la clé (entité, noms) suffit
+        return statements.computeIfAbsent(new InsertKey(entityClass, plan.names()), k -> compile(entityClass, plan));
+    }
+
+    /**
+     * Construit "INSERT INTO table (col1, col2, ...) VALUES (?, ?, ...)", une colonne par champ du mapping.
+     * Un champ sans colonne simple insérable (absent, @Transient, @GeneratedValue, relation,
+     * insertable = false) ferait perdre sa valeur sans erreur : refusé.
+     */
+    private InsertStatement compile(Class<?> entityClass, RecordPlan plan) {
+        if (!entityClass.isAnnotationPresent(Entity.class)) {
+            throw new IllegalStateException("Not a JPA entity: " + entityClass.getName());
+        }
+
+        List<Integer> boundSlots = new ArrayList<>();
+        List<String> columns = new ArrayList<>();
+        List<String> unmapped = new ArrayList<>();
+
+        for (int slot = 0; slot < plan.size(); slot++) {
+            String name = plan.rule(slot).getName();
+            Field field = findField(entityClass, name);
+            if (field == null || !isInsertable(field)) {
+                unmapped.add(name);
+                continue;
+            }
+            boundSlots.add(slot);
+            columns.add(columnName(field));
+        }
+
+        if (!unmapped.isEmpty()) {
+            throw new IllegalStateException("JDBC_BATCH: no insertable column of entity " + entityClass.getSimpleName()
+                    + " for mapped fields " + unmapped);
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalStateException("No mapped column for entity " + entityClass.getSimpleName());
+        }
+
+        String sql = "INSERT INTO " + tableName(entityClass)
+                + " (" + String.join(", ", columns) + ")"
+                + " VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+
+        return new InsertStatement(sql, boundSlots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private Field findField(Class<?> type, String name) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // on remonte la hiérarchie (@MappedSuperclass)
+            }
+        }
+        return null;
+    }
+
+    private boolean isInsertable(Field field) {
+        if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+            return false;
+        }
+        if (field.isAnnotationPresent(Transient.class)
+                || field.isAnnotationPresent(GeneratedValue.class)
+                || field.isAnnotationPresent(OneToMany.class)
+                || field.isAnnotationPresent(ManyToOne.class)
+                || field.isAnnotationPresent(OneToOne.class)
+                || field.isAnnotationPresent(ManyToMany.class)) {
+            return false;
+        }
+        Column column = field.getAnnotation(Column.class);
+        return column == null || column.insertable();
+    }
+
+    private String tableName(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        if (table != null && !table.name().isBlank()) {
+            return table.name();
+        }
+        Entity entity = entityClass.getAnnotation(Entity.class);
+        String name = entity.name().isBlank() ? entityClass.getSimpleName() : entity.name();
+        return toSnakeCase(name);
+    }
+
+    private String columnName(Field field) {
+        Column column = field.getAnnotation(Column.class);
+        if (column != null && !column.name().isBlank()) {
+            return column.name();
+        }
+        return toSnakeCase(field.getName());
+    }
+
+    /**
+     * Même convention que la stratégie de nommage physique par défaut de Spring Boot
+     * (CamelCaseToUnderscoresNamingStrategy) : hireDate -> hire_date.
+     */
+    private String toSnakeCase(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i > 0 && i < name.length() - 1
+                    && Character.isLowerCase(name.charAt(i - 1))
+                    && Character.isUpperCase(c)
+                    && Character.isLowerCase(name.charAt(i + 1))) {
+                sb.append('_');
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    private record InsertKey(Class<?> entityClass, List<String> fields) {
+    }
+
+    private record InsertStatement(String sql, int[] slots) {
+    }
+}
@@ -1,36 +1,31 @@
 package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.persistence;
 // Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
 
-import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.TypeConverter;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.FieldRule;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Map;
-
 /**
  * RecordToEntityMapper
  *
  * Mapper générique :
- * - Map<String,String> (record) + List<FieldRule> (mapping) -> Entité JPA (T)
+ * - Object[] (record typé, un slot par champ) + RecordPlan (mapping) -> Entité JPA (T)
  * - Affecte dynamiquement les propriétés via BeanWrapper (pas de setters codés en dur)
- * - Convertit les types via TypeConverter en se basant sur rule.getType()
+ * - Les valeurs sont déjà converties selon rule.getType() par la validation (FieldParser)
  */
 @Component
 public class RecordToEntityMapper {
 
-    private final TypeConverter typeConverter = new TypeConverter();
-
     /**
      * Construit et remplit une entité de type T à partir d'un record et d'un mapping.
      *
      * Hypothèse :
      * - rule.name correspond au nom de propriété Java (ex: "firstName" -> setFirstName)
      */
-    public <T> T toEntity(Map<String, String> record,
-                          List<? extends FieldRule> rules,
+    public <T> T toEntity(Object[] record,
+                          RecordPlan plan,
                           Class<T> entityClass) {
 
         try {
@@ -40,25 +35,17 @@ public class RecordToEntityMapper {
             // 2) BeanWrapper permet d'écrire sur les propriétés par leur nom (reflection-safe)
             BeanWrapper bw = new BeanWrapperImpl(entity);
 
-            // 3) Pour chaque champ défini dans le mapping, on copie record[fieldName] -> entity.fieldName
-            for (FieldRule rule : rules) {
+            // 3) Pour chaque champ défini dans le mapping, on copie record[slot] -> entity.fieldName
+            for (int slot = 0; slot < plan.size(); slot++) {
+                FieldRule rule = plan.rule(slot);
                 String fieldName = rule.getName();   // ex: "hireDate"
-                String raw = record.get(fieldName);  // valeur brute String
+                Object typed = record[slot];         // valeur typée (null si vide)
 
                 // Si la propriété n'existe pas dans l'entité, on ignore (mapping peut être plus large)
                 if (!bw.isWritableProperty(fieldName)) {
                     continue;
                 }
 
-                // Normalisation des valeurs vides -> null
-                if (raw == null || raw.trim().isEmpty()) {
-                    bw.setPropertyValue(fieldName, null);
-                    continue;
-                }
-
-                // Conversion selon rule.type (LONG/DECIMAL/LOCAL_DATE/STRING)
-                Object typed = typeConverter.convert(rule.getType(), raw.trim());
-
                 // Affectation dynamique dans l'entité
                 bw.setPropertyValue(fieldName, typed);
             }
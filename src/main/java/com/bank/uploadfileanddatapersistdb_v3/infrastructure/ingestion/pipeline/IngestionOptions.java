@@ -0,0 +1,70 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.InFileDuplicateMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * IngestionOptions
+ *
+ * Réglages d'exécution du pipeline pour un fichier, issus de la configuration
+ * (FileReaderConfig.settings) via le schéma.
+ *
+ * - batchSize : nombre de records validés écrits et commités ensemble
+ *               (1 = une transaction par record, comportement historique)
+ * - workers    : validateurs parallèles (1 = tout sur le thread appelant)
+ * - queueDepth : lignes lues mais pas encore écrites, au maximum (mode parallèle)
+ * - collectAllErrors : logguer toutes les erreurs de champ d'une ligne (false = la première seulement)
+ * - duplicateLookupWindow : records vérifiés en base en une requête quand batchSize = 1
+ *               (en mode chunk, la fenêtre est le chunk)
+ * - inFileDuplicateMode : mémoire des clés déjà vues dans le fichier (EXACT ou HASHED)
+ * - expectedRecords : nombre de records attendus, pour pré-dimensionner cette mémoire (0 = inconnu)
+ * - logMode : FULL (un détail par ligne) ou COMPACT (détails des échecs + plages de SUCCESS)
+ * - rejectFile : fichier de rejets sidecar (null = records en échec loggés en base)
+ * - configId : config d'origine, enregistrée sur le log (rétention par config)
+ */
+@Getter
+@Builder
+public class IngestionOptions {
+
+    @Builder.Default
+    private final int batchSize = 1;
+
+    @Builder.Default
+    private final int workers = 1;
+
+    @Builder.Default
+    private final int queueDepth = 1000;
+
+    @Builder.Default
+    private final boolean collectAllErrors = false;
+
+    @Builder.Default
+    private final int duplicateLookupWindow = 500;
+
+    @Builder.Default
+    private final InFileDuplicateMode inFileDuplicateMode = InFileDuplicateMode.EXACT;
+
+    @Builder.Default
+    private final int expectedRecords = 0;
+
+    @Builder.Default
+    private final LogMode logMode = LogMode.FULL;
+
+    @Builder.Default
+    private final Path rejectFile = null;
+
+    @Builder.Default
+    private final String configId = null;
+
+    /**
+     * Options par défaut (record par record).
+     */
+    public static IngestionOptions defaults() {
+        return IngestionOptions.builder().build();
+    }
+}
@@ -4,16 +4,20 @@ package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.LogChargementService;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargement;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LineStatus;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.filesystem.RejectFileWriter;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.duplicate.DuplicateKeyBuilder;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.duplicate.InFileDuplicateChecker;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.ErrorCode;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.FieldErrors;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.FieldParser;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.FieldValidator;
-import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.RecordValidationException;
-import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.FieldRule;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.ValidationResult;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.ProgressReporter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.io.UncheckedIOException;
 import java.util.*;
 
 /**
@@ -22,18 +26,34 @@ import java.util.*;
  * Pipeline générique d'ingestion (réutilisable pour CSV, XML, etc.)
  *
  * Il attend :
- * - un Iterator de records (Map<fieldName, rawValue>)
- * - une liste de règles de mapping (FieldRule) pour valider chaque champ
+ * - un Iterator de records (String[] : une valeur brute par slot)
+ * - le plan compilé du schéma (RecordPlan) : FieldRule et champs duplicateCheck par slot
  * - une stratégie de détection de doublons en base (DuplicateDbChecker)
  * - une stratégie de persistance (RecordPersister)
  * - optionnel : progressReporter pour notifier un job async
  *
  * Flow par record :
- * 1) validation (FieldRule)
- * 2) doublon dans fichier (InFileDuplicateChecker) + doublon en base (DuplicateDbChecker)
- * 3) persist (RecordPersister)
- * 4) log success/fail
+ * 1) validation (FieldRule) + conversion typée unique (réutilisée par les étapes 2 et 3) ;
+ *    les rejets sont reportés dans un ValidationResult réutilisé (pas d'exception par ligne),
+ *    avec la première erreur seulement ou toutes les erreurs du record (collectAllErrors)
+ * 2) doublon dans fichier (InFileDuplicateChecker) + doublon en base (DuplicateDbChecker),
+ *    ce dernier vérifié en lot pour une fenêtre de records (une requête par fenêtre)
+ * 3) persist (RecordPersister), par record ou par chunk de batchSize records
+ * 4) log success/fail ; avec un fichier de rejets (options.rejectFile), les lignes en échec
+ *    y sont écrites (ligne, code, record brut) et seuls les compteurs du log sont mis à jour
  * 5) notifier progress
+ *
+ * Mode parallèle (workers > 1) :
+ * - un thread lit le fichier, un pool de validateurs exécute l'étape 1,
+ *   le thread appelant reste l'unique écrivain et reçoit les lignes dans l'ordre (StagedRecordEngine)
+ * - les étapes 2 à 5 sont donc identiques au mode séquentiel (numéros de ligne et logs déterministes)
+ *
+ * Mode chunk (batchSize > 1) :
+ * - les records validés sont accumulés, vérifiés en base en lot, puis écrits et commités ensemble (persistAll)
+ * - si un chunk échoue, il est coupé en deux récursivement pour isoler les lignes fautives,
+ *   ce qui garde un log SUCCESS/FAILED exact ligne par ligne
+ * - les lignes de la fenêtre (succès et échecs) sont loggées et comptées dans la progression
+ *   au commit, dans l'ordre du fichier : une ligne n'est jamais annoncée avant d'être écrite
  */
 
 @Component
@@ -61,141 +81,503 @@ public class IngestionPipeline {
      */
     private final DuplicateKeyBuilder keyBuilder = new DuplicateKeyBuilder();
 
+    /**
+     * Expose l'état des files du mode parallèle (/monitoring).
+     */
+    private final PipelineStageMonitor stageMonitor;
 
 
     /**
      * Traite tous les records d’un fichier.
      *
      * @param fileName nom du fichier (utilisé dans les logs)
-     * @param duplicateCheck liste des champs qui définissent un doublon (ex: ["id","firstName","lastName"])
-     * @param rawRecords iterator des records bruts (valeurs String)
-     * @param rules règles de mapping/validation (CSV columns ou XML fields)
+     * @param plan plan compilé du schéma : règles de validation et champs de doublon par slot
+     * @param rawRecords iterator des records bruts (values[slot], valeurs String)
      * @param persister stratégie de persistance (ex: save entity)
      * @param dbChecker stratégie doublon DB (ex: existsByFields)
      * @param progressReporter callback optionnel, appelé après chaque record
+     * @param options réglages d'exécution (taille de chunk, parallélisme, ...)
      *
      * @return nombre de records persistés avec succès
      */
     public int process(
             String fileName,
-            List<String> duplicateCheck,
-            Iterator<Map<String, String>> rawRecords,
-            List<? extends FieldRule> rules,
+            RecordPlan plan,
+            Iterator<String[]> rawRecords,
             RecordPersister persister,
             DuplicateDbChecker dbChecker,
-            ProgressReporter progressReporter
+            ProgressReporter progressReporter,
+            IngestionOptions options
     ) {
         // 0) Démarre un log d'import pour ce fichier
-        LogChargement log = logService.startLog(fileName);
+        LogChargement log = logService.startLog(fileName, options.getConfigId(), options.getLogMode());
+
+        // Fichier de rejets sidecar (créé au premier rejet seulement)
+        RejectFileWriter rejects = (options.getRejectFile() == null) ? null : new RejectFileWriter(options.getRejectFile());
+
+        // Étage d'écriture (doublons, persistance, logs, progression) : toujours sur ce thread, dans l'ordre
+        RecordWriter writer = new RecordWriter(log, plan, persister, dbChecker, progressReporter,
+                Math.max(1, options.getBatchSize()), options.getDuplicateLookupWindow(),
+                InFileDuplicateChecker.create(options.getInFileDuplicateMode(), options.getExpectedRecords()),
+                rejects);
+
+        try {
+            if (options.getWorkers() <= 1) {
+                // Mode historique : lecture + validation + écriture sur le thread courant
+                runSequential(rawRecords, plan, writer, options);
+            } else {
+                // Mode parallèle : lecteur -> validateurs -> écrivain ordonné
+                runStaged(fileName, rawRecords, plan, writer, options);
+            }
+        } finally {
+            try {
+                // Dernier chunk partiel (ou records déjà validés si la lecture a échoué)
+                writer.flush();
+            } finally {
+                try {
+                    if (rejects != null) {
+                        rejects.close();
+                        log.setRejectFileName(rejects.fileName());
+                    }
+                } finally {
+                    // Détails de lignes encore en tampon (écrits même si le fichier échoue)
+                    logService.flushLines(log);
+                }
+            }
+        }
 
-        // Détecteur de doublons internes au fichier (mémoire)
-        InFileDuplicateChecker inFile = new InFileDuplicateChecker();
+        // Finalisation : met à jour le status global du log (SUCCESS / FAILED / PARTIAL)
+        // NB: les compteurs total/success/failed sont déjà maintenus dans addLine()
+        logService.finalizeLog(log, 0, 0, 0);
 
-        int success = 0; // compteur des records persistés
-        int line = 0;    // compteur logique de lignes/records
+        // Retourne le nombre de records persistés
+        return writer.success;
+    }
 
-        // Boucle principale : record par record
+    /**
+     * Boucle principale record par record sur le thread appelant.
+     */
+    private void runSequential(Iterator<String[]> rawRecords,
+                               RecordPlan plan,
+                               RecordWriter writer,
+                               IngestionOptions options) {
+        // Résultat de validation réutilisé pour tous les records du fichier
+        ValidationResult result = new ValidationResult(options.isCollectAllErrors());
+        int line = 0; // compteur logique de lignes/records
         while (rawRecords.hasNext()) {
             line++;
+            PreparedRecord prepared;
             try {
                 // Record brut lu depuis le parser (CSV/XML)
-                Map<String, String> raw = rawRecords.next();
-
-                // 1) VALIDATION
-                // On reconstruit un record "validé" (mêmes clés) avec valeurs normalisées
-                Map<String, String> validated = new HashMap<>();
-
-                for (FieldRule r : rules) {
-                    // validate() peut :
-                    // - vérifier required/nullable
-                    // - appliquer pattern regex
-                    // - vérifier type (ou préparer la conversion)
-                    // - lever RecordValidationException si invalide
-                    String v = fieldValidator.validate(r, raw.get(r.getName()), line);
-                    validated.put(r.getName(), v);
+                prepared = prepare(line, rawRecords.next(), plan, result);
+            } catch (Exception e) {
+                prepared = PreparedRecord.failed(line, "TECHNICAL - " + e.getMessage());
+            }
+            writer.write(prepared);
+        }
+    }
+
+    /**
+     * Lecture et validation en parallèle (StagedRecordEngine), écriture ordonnée sur le thread appelant.
+     */
+    private void runStaged(String fileName,
+                           Iterator<String[]> rawRecords,
+                           RecordPlan plan,
+                           RecordWriter writer,
+                           IngestionOptions options) {
+        StagedRecordEngine engine = new StagedRecordEngine(options.getWorkers(), options.getQueueDepth());
+        long monitorId = stageMonitor.register(fileName, engine);
+        try {
+            // Un ValidationResult par validateur (réutilisé pour toutes ses lignes)
+            engine.run(rawRecords, () -> {
+                ValidationResult result = new ValidationResult(options.isCollectAllErrors());
+                return (line, raw) -> prepare(line, raw, plan, result);
+            }, writer::write);
+        } finally {
+            stageMonitor.unregister(monitorId);
+        }
+    }
+
+    /**
+     * Étape sans état partagé (exécutable en parallèle, un ValidationResult par thread) :
+     * 1) validation de chaque champ (FieldRule), arrêtée à la première erreur sauf en mode collectAll
+     * 2) calcul de la clé de doublon (si duplicateCheck configuré)
+     *
+     * Le tableau du reader est normalisé sur place (valeur trimée ou null) ; les valeurs typées
+     * produites par la validation sont gardées à côté pour le doublon DB et la persistance.
+     */
+    private PreparedRecord prepare(int line, String[] values, RecordPlan plan, ValidationResult result) {
+        try {
+            // 1) VALIDATION + CONVERSION
+            result.reset();
+            Object[] typed = plan.newTypedRecord();
+            for (int slot = 0; slot < plan.size() && result.shouldContinue(); slot++) {
+                // validate() peut :
+                // - vérifier required/nullable
+                // - appliquer pattern regex
+                // - vérifier et convertir le type en une passe
+                // - reporter l'erreur dans result (et retourner FieldParser.INVALID)
+                Object value = fieldValidator.validate(plan, slot, values[slot], result);
+                if (!FieldParser.isValid(value)) {
+                    continue;
                 }
+                typed[slot] = value;
+                values[slot] = (value == null) ? null : values[slot].trim();
+            }
 
-                // 2) DOUBLONS (si configuré)
-                if (duplicateCheck != null && !duplicateCheck.isEmpty()) {
-
-                    // Construit une clé à partir des champs duplicateCheck
-                    // ex: "12|John|Doe"
-                    String key = keyBuilder.buildKey(duplicateCheck, new HashMap<>(validated));
-
-                    // 2.a) Doublon dans le même fichier
-                    if (inFile.isDuplicate(key)) {
-                        throw new RecordValidationException(
-                                ErrorCode.DUPLICATE_IN_FILE,
-                                String.join(",", duplicateCheck),
-                                line,
-                                "Duplicate key in file for fields: " + duplicateCheck
-                        );
-                    }
+            if (!result.isValid()) {
+                // Erreur(s) métier/validation : code(s) précis
+                return PreparedRecord.invalid(line, values, result.describe(), result.snapshot());
+            }
+
+            // Construit une clé à partir des champs duplicateCheck
+            // ex: "12|John|Doe"
+            String key = null;
+            if (plan.hasDuplicateCheck()) {
+                key = keyBuilder.buildKey(plan.duplicateSlots(), values);
+            }
+
+            return new PreparedRecord(line, values, typed, key);
+
+        } catch (Exception e) {
+            // Erreur technique inattendue (NPE, etc.)
+            return PreparedRecord.failed(line, values, "TECHNICAL - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Étage d'écriture d'un fichier : reçoit les lignes préparées dans l'ordre du fichier.
+     *
+     * Flow par record :
+     * 2) doublon dans fichier (InFileDuplicateChecker) à la réception,
+     *    doublon en base (DuplicateDbChecker.existsAll) au flush de la fenêtre
+     * 3) persist, par record ou par chunk
+     * 4) log success/fail (ou fichier de rejets pour les échecs)
+     * 5) notifier progress
+     *
+     * Les étapes 4 et 5 ont lieu au flush, pour toutes les lignes de la fenêtre dans l'ordre du fichier,
+     * une fois leur écriture commitée. Une ligne en échec sans ligne en attente devant elle
+     * est loggée dès sa réception.
+     */
+    private final class RecordWriter {
 
-                    // 2.b) Doublon en base (délégué à dbChecker)
-                    if (dbChecker.exists(validated, duplicateCheck)) {
-                        throw new RecordValidationException(
-                                ErrorCode.DUPLICATE_IN_DB,
-                                String.join(",", duplicateCheck),
-                                line,
-                                "Duplicate key in DB for fields: " + duplicateCheck
-                        );
+        private final LogChargement log;
+        private final RecordPlan plan;
+        private final List<String> duplicateCheck;
+        private final RecordPersister persister;
+        private final DuplicateDbChecker dbChecker;
+        private final ProgressReporter progressReporter;
+        private final int batchSize;
+
+        /**
+         * Records accumulés avant le contrôle doublon DB en lot et l'écriture :
+         * batchSize en mode chunk, la fenêtre de lookup en mode record par record avec duplicateCheck.
+         */
+        private final int window;
+
+        // Détecteur de doublons internes au fichier (HashSet exact ou empreintes hors heap)
+        private final InFileDuplicateChecker inFile;
+
+        // Lignes reçues depuis le dernier flush, dans l'ordre du fichier (échecs compris)
+        private final List<PendingLine> pending;
+
+        // Lignes de pending à écrire (sans échec connu), en attente du contrôle DB
+        private int candidates;
+
+        // Fichier de rejets (null = lignes en échec loggées en base)
+        private final RejectFileWriter rejects;
+
+        private int success; // compteur des records persistés
+
+        RecordWriter(LogChargement log,
+                     RecordPlan plan,
+                     RecordPersister persister,
+                     DuplicateDbChecker dbChecker,
+                     ProgressReporter progressReporter,
+                     int batchSize,
+                     int duplicateLookupWindow,
+                     InFileDuplicateChecker inFile,
+                     RejectFileWriter rejects) {
+            this.log = log;
+            this.plan = plan;
+            this.duplicateCheck = plan.duplicateFields();
+            this.rejects = rejects;
+            this.persister = persister;
+            this.dbChecker = dbChecker;
+            this.progressReporter = progressReporter;
+            this.batchSize = batchSize;
+            this.inFile = inFile;
+            if (batchSize > 1) {
+                this.window = batchSize;
+            } else {
+                this.window = duplicateCheck.isEmpty() ? 1 : Math.max(1, duplicateLookupWindow);
+            }
+            this.pending = new ArrayList<>(window);
+        }
+
+        void write(PreparedRecord r) {
+            // Ligne déjà en échec (lecture ou validation)
+            String failure = r.failure();
+            if (failure == null) {
+                try {
+                    // 2.a) DOUBLON DANS LE MÊME FICHIER (si configuré)
+                    if (r.duplicateKey() != null && inFile.isDuplicate(r.duplicateKey())) {
+                        // Rejet métier : log FAILED avec code précis (sans exception)
+                        failure = failure(ErrorCode.DUPLICATE_IN_FILE, "Duplicate key in file for fields: " + duplicateCheck);
                     }
+                } catch (Exception e) {
+                    // Erreur technique inattendue (table pleine, etc.)
+                    failure = "TECHNICAL - " + e.getMessage();
                 }
+            }
+
+            // Aucune ligne en attente devant elle : l'échec est loggé tout de suite
+            if (failure != null && candidates == 0) {
+                fail(r.line(), r.values(), failure, r.fieldErrors());
+                reportProgress();
+                return;
+            }
+
+            // 2.b-5) Doublon DB, écriture, log et progression au flush de la fenêtre
+            pending.add(new PendingLine(r, failure));
+            if (failure == null) {
+                candidates++;
+            }
+            // Les échecs attendent derrière les lignes à écrire : au plus une fenêtre de plus
+            if (candidates >= window || pending.size() >= 2 * window) {
+                flush();
+            }
+        }
+
+        private void reportProgress() {
+            // 5) Progress reporter : on notifie pour chaque record (succès ou échec)
+            if (progressReporter != null) {
+                progressReporter.onRecordProcessed();
+            }
+        }
+
+        private String failure(ErrorCode code, String message) {
+            return code + " - " + message;
+        }
+
+        /**
+         * Histogramme d'erreurs du log (par code et par champ), tenu au fil de l'eau :
+         * chaque erreur de champ d'une ligne rejetée compte (toutes en mode collectAll).
+         */
+        private void countErrors(FieldErrors errors, String failure) {
+            if (errors == null || errors.size() == 0) {
+                // Doublon, échec de lecture ou technique : seulement le code du message
+                log.countError(ValidationResult.codeOf(failure), null);
+                return;
+            }
+            for (int i = 0; i < errors.size(); i++) {
+                log.countError(errors.codes()[i].name(), errors.fields()[i]);
+            }
+        }
+
+        /**
+         * Ligne en échec : détail FAILED en base, ou ligne du fichier de rejets
+         * (le log ne garde alors que les compteurs).
+         *
+         * @param fieldErrors erreurs de validation de la ligne (null : seul le code du message est compté)
+         */
+        private void fail(int line, String[] values, String failure, FieldErrors fieldErrors) {
+            countErrors(fieldErrors, failure);
+            if (rejects != null) {
+                try {
+                    rejects.write(line, ValidationResult.codeOf(failure), plan.raw(values));
+                    logService.addRejectedLine(log, line);
+                    return;
+                } catch (UncheckedIOException e) {
+                    // Fichier de rejets inutilisable (disque plein, etc.) : repli sur le log en base
+                }
+            }
+            logService.addLine(log, line, LineStatus.FAILED, failure);
+        }
+
+        /**
+         * Traite les records en attente puis vide la fenêtre :
+         * 2.b) doublons en base, en une requête pour toute la fenêtre
+         * 3) écriture record par record ou par chunks de batchSize
+         * 4-5) log et progression de chaque ligne de la fenêtre, dans l'ordre du fichier
+         */
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                List<PendingLine> accepted = rejectDbDuplicates();
 
                 // 3) PERSISTENCE
                 // Le pipeline ne connaît pas l'entité ; il délègue au persister
-                persister.persist(validated);
-                success++;
+                if (batchSize == 1) {
+                    for (PendingLine p : accepted) {
+                        writeOne(p);
+                    }
+                } else {
+                    for (int from = 0; from < accepted.size(); from += batchSize) {
+                        writeChunk(accepted.subList(from, Math.min(accepted.size(), from + batchSize)));
+                    }
+                }
+
+                // 4-5) LOG + PROGRESS : les écritures de la fenêtre sont commitées
+                for (PendingLine p : pending) {
+                    PreparedRecord r = p.record;
+                    if (p.failure == null) {
+                        success++;
+                        logService.addLine(log, r.line(), LineStatus.SUCCESS, null);
+                    } else {
+                        fail(r.line(), r.values(), p.failure, r.fieldErrors());
+                    }
+                    reportProgress();
+                }
+            } finally {
+                pending.clear();
+                candidates = 0;
+            }
+        }
+
+        /**
+         * 2.b) Doublons en base pour les lignes à écrire de la fenêtre (DuplicateDbChecker.existsAll).
+         * Les doublons (ou toutes les lignes si le contrôle échoue) reçoivent leur échec.
+         *
+         * @return lignes à écrire, dans l'ordre du fichier
+         */
+        private List<PendingLine> rejectDbDuplicates() {
+            List<PendingLine> accepted = new ArrayList<>(candidates);
+            for (PendingLine p : pending) {
+                if (p.failure == null) {
+                    accepted.add(p);
+                }
+            }
+            if (duplicateCheck.isEmpty() || accepted.isEmpty()) {
+                return accepted;
+            }
 
-                // 4) LOG : ligne OK
-                logService.addLine(log, line, LineStatus.SUCCESS, null);
+            List<Object[]> typed = new ArrayList<>(accepted.size());
+            for (PendingLine p : accepted) {
+                typed.add(p.record.typed());
+            }
+
+            boolean[] existing;
+            try {
+                existing = dbChecker.existsAll(typed);
+            } catch (Exception e) {
+                // Contrôle impossible (DB down, etc.) : aucune ligne de la fenêtre n'est écrite
+                for (PendingLine p : accepted) {
+                    p.failure = "TECHNICAL - " + e.getMessage();
+                }
+                return List.of();
+            }
 
-            } catch (RecordValidationException e) {
-                // Erreur métier/validation : on log en FAILED avec code précis
-                logService.addLine(log, line, LineStatus.FAILED, e.getCode() + " - " + e.getMessage());
+            List<PendingLine> notDuplicates = new ArrayList<>(accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                if (existing[i]) {
+                    accepted.get(i).failure = failure(ErrorCode.DUPLICATE_IN_DB,
+                            "Duplicate key in DB for fields: " + duplicateCheck);
+                } else {
+                    notDuplicates.add(accepted.get(i));
+                }
+            }
+            return notDuplicates;
+        }
 
+        /**
+         * Écrit un record dans sa propre transaction (batchSize = 1).
+         */
+        private void writeOne(PendingLine p) {
+            try {
+                persister.persist(p.record.typed());
             } catch (Exception e) {
-                // Erreur technique inattendue (NPE, DB down, etc.)
-                logService.addLine(log, line, LineStatus.FAILED, "TECHNICAL - " + e.getMessage());
+                // Erreur technique inattendue (DB down, contrainte, etc.)
+                p.failure = "TECHNICAL - " + e.getMessage();
+            }
+        }
 
-            } finally {
-                // 5) Progress reporter : on notifie après chaque record (succès ou échec)
-                if (progressReporter != null) {
-                    progressReporter.onRecordProcessed();
+        /**
+         * Écrit un chunk dans une seule transaction (persistAll).
+         *
+         * En cas d'échec, la transaction est annulée et le chunk est coupé en deux
+         * jusqu'à isoler les records fautifs : seuls ceux-ci reçoivent un échec,
+         * les autres sont réécrits.
+         */
+        private void writeChunk(List<PendingLine> chunk) {
+            try {
+                List<Object[]> records = new ArrayList<>(chunk.size());
+                for (PendingLine p : chunk) {
+                    records.add(p.record.typed());
                 }
+                persister.persistAll(records);
+
+            } catch (Exception e) {
+                if (chunk.size() == 1) {
+                    chunk.get(0).failure = "TECHNICAL - " + e.getMessage();
+                    return;
+                }
+                int mid = chunk.size() / 2;
+                writeChunk(chunk.subList(0, mid));
+                writeChunk(chunk.subList(mid, chunk.size()));
             }
         }
+    }
 
-        // Finalisation : met à jour le status global du log (SUCCESS / FAILED / PARTIAL)
-        // NB: les compteurs total/success/failed sont déjà maintenus dans addLine()
-        logService.finalizeLog(log, 0, 0, 0);
+    /**
+     * Ligne de la fenêtre en attente : échec connu (null tant qu'elle est à écrire).
+     */
+    private static final class PendingLine {
+        private final PreparedRecord record;
+        private String failure;
 
-        // Retourne le nombre de records persistés
-        return success;
+        PendingLine(PreparedRecord record, String failure) {
+            this.record = record;
+            this.failure = failure;
+        }
     }
 
     /**
-     * Contrat "persister" : le pipeline fournit un record validé,
+     * Contrat "persister" : le pipeline fournit un record validé (valeurs typées par slot),
      * et une implémentation concrète décide comment le sauvegarder.
      *
      * Exemple :
      * - persister.persist(record) -> mapper vers entite -> repository.save(employee)
+     * - persister.persistAll(records) -> un chunk complet dans une transaction
      */
     public interface RecordPersister {
-        void persist(Map<String, String> record);
+        void persist(Object[] record);
+
+        /**
+         * Persiste plusieurs records ensemble.
+         * Les implémentations transactionnelles doivent tout écrire ou rien (un commit par appel).
+         */
+        default void persistAll(List<Object[]> records) {
+            for (Object[] record : records) {
+                persist(record);
+            }
+        }
     }
 
     /**
      * Contrat "dbChecker" : détection de doublon en DB.
-     * Le pipeline fournit :
-     * - record validé
-     * - champs utilisés pour la clé de doublon
+     * Le pipeline fournit le record validé (valeurs typées par slot) ;
+     * les champs de la clé de doublon sont ceux du plan (RecordPlan.duplicateSlots()).
      *
      * Exemple :
      * - construire criteria typé puis existsByFields(criteria)
      */
     public interface DuplicateDbChecker {
-        boolean exists(Map<String, String> record, List<String> duplicateFields);
+        boolean exists(Object[] record);
+
+        /**
+         * Version "lot" : les implémentations résolvent toutes les clés en une (ou quelques) requête(s).
+         *
+         * @return existing[i] = true si records.get(i) est un doublon en base
+         */
+        default boolean[] existsAll(List<Object[]> records) {
+            boolean[] existing = new boolean[records.size()];
+            for (int i = 0; i < existing.length; i++) {
+                existing[i] = exists(records.get(i));
+            }
+            return existing;
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PipelineStageMonitor
+ *
+ * Registre en mémoire des fichiers en cours de traitement en mode parallèle
+ * (StagedRecordEngine), pour exposer l'état des files entre étages :
+ * - lignes en attente d'un validateur
+ * - lignes validées en attente dans le tampon de réordonnancement
+ * - lignes "en vol" par rapport à la profondeur configurée
+ *
+ * Une file d'entrée pleine = validateurs trop lents ; un tampon qui grossit = l'écrivain (DB) limite.
+ */
+@Component
+public class PipelineStageMonitor {
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Map<Long, Active> active = new ConcurrentHashMap<>();
+
+    long register(String fileName, StagedRecordEngine engine) {
+        long id = ids.incrementAndGet();
+        active.put(id, new Active(fileName, engine));
+        return id;
+    }
+
+    void unregister(long id) {
+        active.remove(id);
+    }
+
+    /**
+     * Photo instantanée des moteurs actifs.
+     */
+    public List<PipelineStageSnapshot> snapshot() {
+        List<PipelineStageSnapshot> out = new ArrayList<>(active.size());
+        for (Active a : active.values()) {
+            StagedRecordEngine e = a.engine();
+            out.add(new PipelineStageSnapshot(
+                    a.fileName(),
+                    e.getWorkers(),
+                    e.getQueueDepth(),
+                    e.inputQueued(),
+                    e.reorderBuffered(),
+                    e.inFlight(),
+                    e.nextLine()
+            ));
+        }
+        return out;
+    }
+
+    private record Active(String fileName, StagedRecordEngine engine) {
+    }
+}
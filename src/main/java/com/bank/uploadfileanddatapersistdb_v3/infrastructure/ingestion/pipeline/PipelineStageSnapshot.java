@@ -0,0 +1,26 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+/**
+ * PipelineStageSnapshot
+ *
+ * État des files d'un fichier traité en mode parallèle, à un instant donné.
+ *
+ * @param fileName fichier en cours
+ * @param workers nombre de validateurs
+ * @param queueDepth nombre maximum de lignes en vol
+ * @param inputQueued lignes lues en attente de validation
+ * @param reorderBuffered lignes validées en attente de leur tour d'écriture
+ * @param inFlight lignes lues non encore écrites
+ * @param nextLine prochaine ligne attendue par l'écrivain
+ */
+public record PipelineStageSnapshot(
+        String fileName,
+        int workers,
+        int queueDepth,
+        int inputQueued,
+        int reorderBuffered,
+        int inFlight,
+        int nextLine
+) {
+}
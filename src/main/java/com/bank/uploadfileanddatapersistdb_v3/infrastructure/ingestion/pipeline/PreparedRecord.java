@@ -0,0 +1,36 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.FieldErrors;
+
+/**
+ * PreparedRecord
+ *
+ * Résultat de l'étage "validation" pour une ligne, transmis à l'étage d'écriture :
+ * - line         : numéro logique de la ligne/record (ordre du fichier)
+ * - values       : record validé et normalisé (String trimée), par slot ; pour une ligne en échec,
+ *                  le record lu s'il existe (forme brute pour le fichier de rejets), sinon null
+ * - typed        : valeurs converties une seule fois à la validation (Long, BigDecimal, LocalDate, String)
+ * - duplicateKey : clé de doublon pré-calculée (null si duplicateCheck non configuré)
+ * - failure      : message "CODE - détail" si la ligne est déjà en échec (validation/lecture)
+ * - fieldErrors  : codes et champs des erreurs de validation (null sinon), pour l'histogramme du log
+ */
+record PreparedRecord(int line, String[] values, Object[] typed, String duplicateKey, String failure,
+                      FieldErrors fieldErrors) {
+
+    PreparedRecord(int line, String[] values, Object[] typed, String duplicateKey) {
+        this(line, values, typed, duplicateKey, null, null);
+    }
+
+    static PreparedRecord failed(int line, String failure) {
+        return failed(line, null, failure);
+    }
+
+    static PreparedRecord failed(int line, String[] values, String failure) {
+        return new PreparedRecord(line, values, null, null, failure, null);
+    }
+
+    static PreparedRecord invalid(int line, String[] values, String failure, FieldErrors fieldErrors) {
+        return new PreparedRecord(line, values, null, null, failure, fieldErrors);
+    }
+}
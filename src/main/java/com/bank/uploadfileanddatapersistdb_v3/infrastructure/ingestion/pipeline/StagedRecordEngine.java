@@ -0,0 +1,293 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.exception.StreamProcessingException;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * StagedRecordEngine
+ *
+ * Exécution en étages d'un fichier :
+ *
+ *   lecteur (1 thread) -> file bornée -> validateurs (N threads) -> tampon de réordonnancement -> écrivain
+ *
+ * - le lecteur numérote les lignes et parse le fichier (CSV/XML) ;
+ * - les validateurs appliquent les FieldRule et calculent la clé de doublon (travail sans état, parallélisable) ;
+ * - l'écrivain s'exécute sur le thread appelant et reçoit les lignes strictement dans l'ordre du fichier :
+ *   doublons fichier/DB, chunks, logs LogChargementDetail et progression restent donc déterministes.
+ *
+ * Mémoire bornée : un sémaphore limite le nombre de lignes "en vol" (file + validateurs + tampon)
+ * à queueDepth. La ligne attendue par l'écrivain a toujours été émise avant les suivantes,
+ * le tampon ne peut donc pas se bloquer.
+ *
+ * Une instance = un fichier ; les threads sont libérés à la fin de run().
+ */
+final class StagedRecordEngine {
+
+    /**
+     * Marqueur de fin pour les validateurs.
+     */
+    private static final RawItem END = new RawItem(-1, null, null);
+
+    private static final AtomicInteger ENGINE_SEQ = new AtomicInteger();
+
+    /**
+     * Transforme un record brut en PreparedRecord (validation + clé de doublon).
+     * Une instance par validateur : elle peut garder un état réutilisable d'un record à l'autre
+     * (ValidationResult), mais rien de partagé entre validateurs.
+     */
+    interface RecordPreparer {
+        PreparedRecord prepare(int line, String[] raw);
+    }
+
+    private final int workers;
+    private final int queueDepth;
+
+    private final BlockingQueue<RawItem> input;
+    private final Semaphore inFlight;
+
+    /**
+     * Lignes validées en attente de leur tour (clé = numéro de ligne).
+     */
+    private final Map<Integer, PreparedRecord> reorder = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    // Protégés par lock
+    private int lastLine = -1;           // nombre total de lignes lues (-1 tant que la lecture n'est pas finie)
+    private RuntimeException readFailure;  // erreur de lecture (levée après écriture des lignes déjà lues)
+    private RuntimeException stageFailure; // erreur inattendue d'un validateur (levée immédiatement)
+
+    private volatile int nextLine = 1;
+
+    StagedRecordEngine(int workers, int queueDepth) {
+        this.workers = Math.max(1, workers);
+        this.queueDepth = Math.max(1, queueDepth);
+        this.input = new ArrayBlockingQueue<>(this.queueDepth + this.workers);
+        this.inFlight = new Semaphore(this.queueDepth);
+    }
+
+    /**
+     * Lit, valide en parallèle, puis écrit dans l'ordre sur le thread appelant.
+     *
+     * @param source records bruts (lus uniquement par le thread lecteur)
+     * @param preparers fabrique de l'étage de validation (appelée une fois par thread validateur)
+     * @param writer étage d'écriture (appelé dans l'ordre des lignes, sur le thread appelant)
+     */
+    void run(Iterator<String[]> source, Supplier<RecordPreparer> preparers, Consumer<PreparedRecord> writer) {
+        ExecutorService executor = Executors.newFixedThreadPool(workers + 1, threadFactory());
+        try {
+            executor.execute(() -> read(source));
+            for (int i = 0; i < workers; i++) {
+                executor.execute(() -> validate(preparers.get()));
+            }
+
+            PreparedRecord next;
+            while ((next = takeNext()) != null) {
+                inFlight.release();
+                writer.accept(next);
+                nextLine++;
+            }
+        } finally {
+            executor.shutdownNow();
+            awaitStop(executor);
+        }
+    }
+
+    int getWorkers() {
+        return workers;
+    }
+
+    int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Lignes lues en attente d'un validateur.
+     */
+    int inputQueued() {
+        return input.size();
+    }
+
+    /**
+     * Lignes validées en attente dans le tampon de réordonnancement.
+     */
+    int reorderBuffered() {
+        lock.lock();
+        try {
+            return reorder.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lignes lues mais pas encore remises à l'écrivain.
+     */
+    int inFlight() {
+        return queueDepth - inFlight.availablePermits();
+    }
+
+    /**
+     * Prochaine ligne attendue par l'écrivain.
+     */
+    int nextLine() {
+        return nextLine;
+    }
+
+    // ---------------------------------------------------------------------
+    // Étages
+    // ---------------------------------------------------------------------
+
+    private void read(Iterator<String[]> source) {
+        int line = 0;
+        try {
+            while (source.hasNext()) {
+                line++;
+                inFlight.acquire();
+
+                RawItem item;
+                try {
+                    item = new RawItem(line, source.next(), null);
+                } catch (Exception e) {
+                    // Même comportement que le mode séquentiel : la ligne est en échec, on continue
+                    item = new RawItem(line, null, "TECHNICAL - " + e.getMessage());
+                }
+                input.put(item);
+            }
+            endOfInput(line, null);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // écrivain arrêté : plus personne n'attend
+
+        } catch (RuntimeException e) {
+            // hasNext() en échec : les lignes déjà lues sont écrites, puis l'erreur remonte
+            endOfInput(line, e);
+        }
+    }
+
+    private void endOfInput(int lines, RuntimeException failure) {
+        lock.lock();
+        try {
+            lastLine = lines;
+            readFailure = failure;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < workers; i++) {
+            input.offer(END); // capacité queueDepth + workers : toujours de la place
+        }
+    }
+
+    private void validate(RecordPreparer preparer) {
+        try {
+            while (true) {
+                RawItem item = input.take();
+                if (item == END) {
+                    return;
+                }
+                PreparedRecord prepared = (item.failure() != null)
+                        ? PreparedRecord.failed(item.line(), item.failure())
+                        : preparer.prepare(item.line(), item.raw());
+                publish(prepared);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                stageFailure = e;
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void publish(PreparedRecord prepared) {
+        lock.lock();
+        try {
+            reorder.put(prepared.line(), prepared);
+            if (prepared.line() == nextLine) {
+                published.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Attend la prochaine ligne dans l'ordre du fichier.
+     *
+     * @return la ligne, ou null quand toutes les lignes ont été écrites
+     */
+    private PreparedRecord takeNext() {
+        lock.lock();
+        try {
+            while (true) {
+                if (stageFailure != null) {
+                    throw stageFailure;
+                }
+                PreparedRecord r = reorder.remove(nextLine);
+                if (r != null) {
+                    return r;
+                }
+                if (lastLine >= 0 && nextLine > lastLine) {
+                    if (readFailure != null) {
+                        throw readFailure;
+                    }
+                    return null;
+                }
+                published.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StreamProcessingException("Ingestion interrupted at line " + nextLine, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void awaitStop(ExecutorService executor) {
+        try {
+            // Le lecteur peut être dans une lecture I/O non interruptible : on lui laisse le temps de sortir
+            // avant que l'appelant ne ferme le RecordReader.
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        int engine = ENGINE_SEQ.incrementAndGet();
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "ingest-" + engine + "-stage-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Record brut numéroté (ou ligne déjà en échec de lecture).
+     */
+    private record RawItem(int line, String[] raw, String failure) {
+    }
+}
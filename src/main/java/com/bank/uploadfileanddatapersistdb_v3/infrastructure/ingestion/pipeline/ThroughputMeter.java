@@ -0,0 +1,119 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ThroughputMeter
+ *
+ * Débit d'un job calculé à partir d'échantillons de ses compteurs cumulés (records, octets) :
+ * - les threads d'ingestion n'incrémentent que des compteurs (LongAdder) ; le meter ne les lit
+ *   qu'à l'échantillonnage (sample), appelé périodiquement par un seul thread
+ * - débit "fenêtre glissante" : (dernier - plus ancien échantillon de la fenêtre) / durée
+ * - débit lissé (EWMA) pour l'ETA : chaque débit instantané entre deux échantillons est
+ *   intégré avec un poids 1 - exp(-dt / smoothing) ; un changement de vitesse de la base
+ *   en cours de job se reflète dans l'ETA en quelques "smoothing", sans à-coups
+ *
+ * Avant le premier intervalle mesuré, les débits valent 0 (ETA inconnue).
+ * Accès protégés par un ReentrantLock (pas d'épinglage des lecteurs sur threads virtuels).
+ */
+public class ThroughputMeter {
+
+    private final long windowNanos;
+    private final double smoothingSeconds;
+
+    /**
+     * Échantillons {nanos, records, bytes}, du plus ancien au plus récent.
+     */
+    private final Deque<long[]> samples = new ArrayDeque<>();
+
+    private double smoothedRecordsPerSecond = Double.NaN;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param windowSeconds    durée de la fenêtre glissante
+     * @param smoothingSeconds constante de temps du lissage EWMA
+     */
+    public ThroughputMeter(double windowSeconds, double smoothingSeconds) {
+        this.windowNanos = (long) (Math.max(0.001, windowSeconds) * 1_000_000_000L);
+        this.smoothingSeconds = Math.max(0.001, smoothingSeconds);
+    }
+
+    /**
+     * Enregistre la valeur des compteurs cumulés à l'instant nanoTime.
+     */
+    public void sample(long records, long bytes, long nanoTime) {
+        lock.lock();
+        try {
+            sampleLocked(records, bytes, nanoTime);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Débits courants (fenêtre glissante et lissé).
+     */
+    public Rates rates() {
+        lock.lock();
+        try {
+            return ratesLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sampleLocked(long records, long bytes, long nanoTime) {
+        long[] last = samples.peekLast();
+        if (last != null) {
+            double dt = (nanoTime - last[0]) / 1e9;
+            if (dt <= 0) {
+                return;
+            }
+            double instant = (records - last[1]) / dt;
+            if (Double.isNaN(smoothedRecordsPerSecond)) {
+                smoothedRecordsPerSecond = instant;
+            } else {
+                double alpha = 1 - Math.exp(-dt / smoothingSeconds);
+                smoothedRecordsPerSecond += alpha * (instant - smoothedRecordsPerSecond);
+            }
+        }
+        samples.addLast(new long[]{nanoTime, records, bytes});
+
+        // Garde un échantillon au bord de la fenêtre : la mesure couvre toute la fenêtre
+        while (samples.size() > 2 && nanoTime - secondOldest()[0] >= windowNanos) {
+            samples.pollFirst();
+        }
+    }
+
+    private Rates ratesLocked() {
+        if (samples.size() < 2) {
+            return new Rates(0, 0, 0);
+        }
+        long[] first = samples.peekFirst();
+        long[] last = samples.peekLast();
+        double span = (last[0] - first[0]) / 1e9;
+        return new Rates(
+                (last[1] - first[1]) / span,
+                (last[2] - first[2]) / span,
+                Math.max(0, smoothedRecordsPerSecond)
+        );
+    }
+
+    private long[] secondOldest() {
+        var it = samples.iterator();
+        it.next();
+        return it.next();
+    }
+
+    /**
+     * @param recordsPerSecond         records/s sur la fenêtre glissante
+     * @param bytesPerSecond           octets/s sur la fenêtre glissante
+     * @param smoothedRecordsPerSecond records/s lissés (EWMA), base de l'ETA
+     */
+    public record Rates(double recordsPerSecond, double bytesPerSecond, double smoothedRecordsPerSecond) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+/**
+ * FieldErrors
+ *
+ * Copie immuable des erreurs d'un record rejeté (codes et champs, dans l'ordre des champs),
+ * prise sur le ValidationResult réutilisé avant sa remise à zéro.
+ * Transmise à l'écrivain du pipeline pour l'histogramme d'erreurs du log.
+ */
+public record FieldErrors(ErrorCode[] codes, String[] fields) {
+
+    public int size() {
+        return codes.length;
+    }
+}
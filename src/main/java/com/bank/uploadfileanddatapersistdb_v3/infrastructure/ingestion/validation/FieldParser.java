@@ -0,0 +1,229 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * FieldParser
+ *
+ * Étape unique "vérification + conversion" d'une valeur brute selon son FieldType.
+ *
+ * - retourne la valeur typée (Long, BigDecimal, LocalDate, String) en un seul parsing
+ * - retourne le marqueur INVALID si la valeur ne respecte pas le type,
+ *   sans lever d'exception pour les cas courants (lettres dans un nombre, date mal formée...)
+ *
+ * La valeur typée produite ici est ensuite réutilisée telle quelle par le pipeline
+ * (doublon DB, mapping vers l'entité, INSERT JDBC) : plus de re-parsing en aval.
+ *
+ * Sans état : une instance peut être partagée entre threads.
+ */
+public class FieldParser {
+
+    /**
+     * Marqueur "valeur incompatible avec le type".
+     */
+    public static final Object INVALID = new Object() {
+        @Override
+        public String toString() {
+            return "INVALID";
+        }
+    };
+
+    /**
+     * @param type type du champ (null = pas de conversion, comme STRING)
+     * @param raw  valeur non nulle, déjà trimée
+     * @return valeur typée, ou INVALID
+     */
+    public Object parse(FieldType type, String raw) {
+        if (type == null) {
+            return raw;
+        }
+        return switch (type) {
+            case LONG -> parseLong(raw);
+            case DECIMAL -> parseDecimal(raw);
+            case LOCAL_DATE -> parseLocalDate(raw);
+            case STRING -> raw;
+        };
+    }
+
+    /**
+     * @return true si le résultat de parse() est une valeur utilisable
+     */
+    public static boolean isValid(Object parsed) {
+        return parsed != INVALID;
+    }
+
+    /**
+     * Type logique du mapping (nom d'enum) -> FieldType ; null si inconnu
+     * (un type inconnu ne bloque pas et reste une String, comme historiquement).
+     */
+    public static FieldType typeOf(String type) {
+        if (type == null) {
+            return null;
+        }
+        for (FieldType t : FieldType.values()) {
+            if (t.name().equals(type)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    // ---------------------------------------------------------------------
+    // LONG : mêmes règles que Long.parseLong (signe optionnel, chiffres, bornes)
+    // ---------------------------------------------------------------------
+
+    private Object parseLong(String s) {
+        int len = s.length();
+        if (len == 0) {
+            return INVALID;
+        }
+
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i = 1;
+            if (len == 1) {
+                return INVALID;
+            }
+        }
+
+        // Accumulation en négatif pour couvrir Long.MIN_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multMin = limit / 10;
+        long result = 0;
+        for (; i < len; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0 || result < multMin) {
+                return INVALID;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return INVALID; // dépassement
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    // ---------------------------------------------------------------------
+    // DECIMAL : grammaire de new BigDecimal(String) -> [signe] chiffres [. chiffres] [e|E [signe] chiffres]
+    // ---------------------------------------------------------------------
+
+    private Object parseDecimal(String s) {
+        if (!isDecimalShape(s)) {
+            return INVALID;
+        }
+        try {
+            return new BigDecimal(s);
+        } catch (NumberFormatException e) {
+            return INVALID; // exposant hors bornes (cas extrême)
+        }
+    }
+
+    private boolean isDecimalShape(String s) {
+        int len = s.length();
+        int i = 0;
+        if (i < len && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            i++;
+        }
+
+        int digits = 0;
+        boolean dot = false;
+        for (; i < len; i++) {
+            char c = s.charAt(i);
+            if (Character.isDigit(c)) {
+                digits++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i == len) {
+            return true;
+        }
+
+        // Exposant
+        char e = s.charAt(i);
+        if (e != 'e' && e != 'E') {
+            return false;
+        }
+        i++;
+        if (i < len && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == len) {
+            return false;
+        }
+        for (; i < len; i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------------
+    // LOCAL_DATE : ISO-8601 yyyy-MM-dd
+    // ---------------------------------------------------------------------
+
+    private Object parseLocalDate(String s) {
+        if (s.length() != 10) {
+            // Années signées / > 9999 (ISO étendu) : cas rare, on laisse java.time trancher
+            return parseLocalDateSlow(s);
+        }
+        if (s.charAt(4) != '-' || s.charAt(7) != '-') {
+            return INVALID;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 7);
+        int day = digits(s, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1) {
+            return INVALID;
+        }
+        if (day > 28 && day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    private Object parseLocalDateSlow(String s) {
+        try {
+            return LocalDate.parse(s);
+        } catch (RuntimeException e) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Entier formé des chiffres ASCII s[from, to) ; -1 si un caractère n'est pas un chiffre.
+     */
+    private static int digits(String s, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> java.time.Year.isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation;
 // Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
 
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.FieldRule;
 
 /**
@@ -9,30 +10,35 @@ import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules
  * Valide un champ individuel (String) en appliquant les règles du mapping :
  * - required / nullable
  * - type attendu
- * - regex (pattern)
+ * - regex (pattern, compilée une fois par schéma : RecordPlan / ValuePattern)
  *
  * Cette classe est utilisée par IngestionPipeline pour chaque champ
- * de chaque record.
+ * de chaque record. Les erreurs sont reportées dans un ValidationResult réutilisable
+ * (pas d'exception par ligne rejetée). La vérification du type produit directement la valeur
+ * typée (FieldParser) : elle est retournée pour être réutilisée en aval.
  */
 public class FieldValidator {
 
     /**
-     * Vérifie la compatibilité d'une valeur String avec un type logique
-     * (LONG, STRING, LOCAL_DATE, DECIMAL, etc.).
+     * Vérifie et convertit en une passe une valeur String selon son type logique
+     * (LONG, STRING, LOCAL_DATE, DECIMAL).
      */
-    private final TypeChecker typeChecker = new TypeChecker();
+    private final FieldParser fieldParser = new FieldParser();
 
     /**
-     * Valide une valeur brute provenant du fichier.
+     * Valide une valeur brute provenant du fichier, sans exception.
      *
-     * @param rule règle de mapping du champ (nom, type, required, nullable, pattern)
-     * @param raw  valeur brute lue depuis le fichier (String ou null)
-     * @param line numéro de ligne/record (pour logs et erreurs)
-     * @return valeur normalisée (trim) ou null
-     *
-     * @throws RecordValidationException si une règle n'est pas respectée
+     * @param plan   plan compilé du schéma (règle, type résolu et pattern compilé par slot)
+     * @param slot   slot du champ dans le record
+     * @param raw    valeur brute lue depuis le fichier (String ou null)
+     * @param result résultat du record en cours : reçoit l'erreur éventuelle (code, champ, message)
+     * @return valeur typée (Long, BigDecimal, LocalDate ou String trimée), null,
+     *         ou FieldParser.INVALID si une règle n'est pas respectée (erreur ajoutée à result)
      */
-    public String validate(FieldRule rule, String raw, int line) {
+    public Object validate(RecordPlan plan, int slot, String raw, ValidationResult result) {
+
+        // Règle de mapping du champ (nom, required, nullable)
+        FieldRule rule = plan.rule(slot);
 
         // Détection valeur absente ou vide
         boolean blank = (raw == null || raw.trim().isEmpty());
@@ -42,22 +48,22 @@ public class FieldValidator {
 
             // Champ obligatoire mais valeur absente
             if (rule.isRequired()) {
-                throw new RecordValidationException(
+                result.reject(
                         ErrorCode.REQUIRED_FIELD_MISSING,
                         rule.getName(),
-                        line,
                         "Required field '" + rule.getName() + "' is missing/empty"
                 );
+                return FieldParser.INVALID;
             }
 
             // Champ non nullable mais valeur absente
             if (!rule.isNullable()) {
-                throw new RecordValidationException(
+                result.reject(
                         ErrorCode.NULL_NOT_ALLOWED,
                         rule.getName(),
-                        line,
                         "Field '" + rule.getName() + "' cannot be null/empty"
                 );
+                return FieldParser.INVALID;
             }
 
             // Champ optionnel et nullable → OK
@@ -67,30 +73,49 @@ public class FieldValidator {
         // Normalisation (suppression des espaces)
         String value = raw.trim();
 
-        // 2) TYPE CHECK
+        // 2) TYPE CHECK + CONVERSION
         // Vérifie que la valeur correspond au type déclaré dans le mapping
-        if (!typeChecker.matches(rule.getType(), value)) {
-            throw new RecordValidationException(
+        Object typed = fieldParser.parse(plan.type(slot), value);
+        if (!FieldParser.isValid(typed)) {
+            result.reject(
                     ErrorCode.TYPE_MISMATCH,
                     rule.getName(),
-                    line,
                     "Type mismatch for '" + rule.getName() + "': expected " + rule.getType()
             );
+            return FieldParser.INVALID;
         }
 
         // 3) PATTERN CHECK (si une regex est définie)
-        if (rule.getPattern() != null && !rule.getPattern().isBlank()) {
-            if (!java.util.regex.Pattern.matches(rule.getPattern(), value)) {
-                throw new RecordValidationException(
+        ValuePattern pattern = plan.pattern(slot);
+        if (pattern != null) {
+            if (!pattern.matches(value)) {
+                result.reject(
                         ErrorCode.PATTERN_MISMATCH,
                         rule.getName(),
-                        line,
                         "Field '" + rule.getName() + "' does not match pattern"
                 );
+                return FieldParser.INVALID;
             }
         }
 
-        // Valeur valide et normalisée
-        return value;
+        // Valeur valide, typée
+        return typed;
+    }
+
+    /**
+     * Variante levant une exception (usage ponctuel, hors pipeline).
+     *
+     * @param line numéro de ligne/record (pour logs et erreurs)
+     * @return valeur typée ou null
+     *
+     * @throws RecordValidationException si une règle n'est pas respectée
+     */
+    public Object validate(RecordPlan plan, int slot, String raw, int line) {
+        ValidationResult result = new ValidationResult(false);
+        Object typed = validate(plan, slot, raw, result);
+        if (!result.isValid()) {
+            throw result.toException(line);
+        }
+        return typed;
     }
 }
@@ -0,0 +1,172 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.util.Arrays;
+
+/**
+ * ValidationResult
+ *
+ * Résultat de validation d'un record, sans exception :
+ * chaque erreur est enregistrée (code normalisé, champ, message) au lieu d'être levée.
+ * Sur un fichier très sale, on évite ainsi la capture d'une stack trace par ligne rejetée.
+ *
+ * - collectAll = false : seule la première erreur du record est gardée (comportement historique)
+ * - collectAll = true  : toutes les erreurs de champ du record sont gardées
+ *
+ * Réutilisable : une instance par thread de validation, remise à zéro (reset) avant chaque record.
+ * Non thread-safe.
+ */
+public final class ValidationResult {
+
+    /**
+     * Taille max du message agrégé (colonne LogChargementDetail.detail_problem).
+     */
+    public static final int MAX_DESCRIPTION_LENGTH = 2000;
+
+    private final boolean collectAll;
+
+    private ErrorCode[] codes = new ErrorCode[4];
+    private String[] fields = new String[4];
+    private String[] messages = new String[4];
+    private int count;
+
+    public ValidationResult(boolean collectAll) {
+        this.collectAll = collectAll;
+    }
+
+    /**
+     * Prépare l'instance pour un nouveau record.
+     */
+    public void reset() {
+        if (count > 0) {
+            // Libère les messages du record précédent
+            Arrays.fill(fields, 0, count, null);
+            Arrays.fill(messages, 0, count, null);
+            count = 0;
+        }
+    }
+
+    /**
+     * Enregistre une erreur.
+     *
+     * @return true si la validation du record doit continuer (mode collectAll)
+     */
+    public boolean reject(ErrorCode code, String field, String message) {
+        if (count == codes.length) {
+            int size = count * 2;
+            codes = Arrays.copyOf(codes, size);
+            fields = Arrays.copyOf(fields, size);
+            messages = Arrays.copyOf(messages, size);
+        }
+        codes[count] = code;
+        fields[count] = field;
+        messages[count] = message;
+        count++;
+        return collectAll;
+    }
+
+    public boolean isValid() {
+        return count == 0;
+    }
+
+    public boolean isCollectAll() {
+        return collectAll;
+    }
+
+    /**
+     * Le record doit-il encore être validé (aucune erreur, ou mode collectAll) ?
+     */
+    public boolean shouldContinue() {
+        return count == 0 || collectAll;
+    }
+
+    public int errorCount() {
+        return count;
+    }
+
+    public ErrorCode code(int i) {
+        checkIndex(i);
+        return codes[i];
+    }
+
+    public String field(int i) {
+        checkIndex(i);
+        return fields[i];
+    }
+
+    public String message(int i) {
+        checkIndex(i);
+        return messages[i];
+    }
+
+    /**
+     * Copie des erreurs du record (l'instance est réutilisée pour le record suivant).
+     */
+    public FieldErrors snapshot() {
+        return new FieldErrors(Arrays.copyOf(codes, count), Arrays.copyOf(fields, count));
+    }
+
+    /**
+     * Détail pour le log d'import, même format que les erreurs levées : "CODE - message".
+     * Plusieurs erreurs (collectAll) sont séparées par " | ", dans l'ordre des champs.
+     */
+    public String describe() {
+        if (count == 0) {
+            return null;
+        }
+        if (count == 1) {
+            return truncate(codes[0] + " - " + messages[0]);
+        }
+        StringBuilder sb = new StringBuilder(128);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(" | ");
+            }
+            sb.append(codes[i]).append(" - ").append(messages[i]);
+            if (sb.length() >= MAX_DESCRIPTION_LENGTH) {
+                break;
+            }
+        }
+        return truncate(sb.toString());
+    }
+
+    /**
+     * Code de la (première) erreur d'un détail au format "CODE - message" (describe(), TECHNICAL - ...).
+     *
+     * @return le code, ou null si le détail ne commence pas par un code
+     */
+    public static String codeOf(String description) {
+        if (description == null) {
+            return null;
+        }
+        int sep = description.indexOf(" - ");
+        if (sep <= 0) {
+            return null;
+        }
+        for (int i = 0; i < sep; i++) {
+            char c = description.charAt(i);
+            if (!(c == '_' || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return null;
+            }
+        }
+        return description.substring(0, sep);
+    }
+
+    /**
+     * Première erreur sous forme d'exception (API historique levant RecordValidationException).
+     */
+    public RecordValidationException toException(int line) {
+        checkIndex(0);
+        return new RecordValidationException(codes[0], fields[0], line, messages[0]);
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= MAX_DESCRIPTION_LENGTH ? s : s.substring(0, MAX_DESCRIPTION_LENGTH);
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("No validation error at index " + i + " (count=" + count + ")");
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * ValuePattern
+ *
+ * Regex d'un champ (FieldRule.pattern), compilée une seule fois au chargement du schéma.
+ * Même sémantique que Pattern.matches(regex, value) (correspondance sur toute la valeur).
+ *
+ * Les formes simples sont compilées en un vérificateur sans allocation ni backtracking :
+ * une suite de classes de caractères avec leur nombre de répétitions, ex.
+ *   ^[0-9]+$                      -> [0-9]{1,}
+ *   ^[A-Za-zÀ-ÿ' -]{2,100}$       -> [A-Za-zÀ-ÿ' -]{2,100}
+ *   ^\d{4}-\d{2}-\d{2}$           -> \d{4} '-' \d{2} '-' \d{2}
+ *
+ * Forme reconnue : ^? (atome quantificateur?)* $?
+ * - atome : [classe] (sans négation ni classe imbriquée), \d, \w, \s, \\uXXXX, caractère littéral ou échappé
+ * - quantificateur : ?, *, +, {n}, {n,}, {n,m} (gourmand)
+ * - une répétition variable doit être disjointe des atomes qui la suivent :
+ *   la lecture gourmande est alors exacte (aucun retour arrière possible)
+ *
+ * Tout le reste (groupes, alternatives, '.', drapeaux, ...) utilise le Pattern compilé.
+ */
+public abstract class ValuePattern {
+
+    /**
+     * Compile une regex.
+     *
+     * @throws PatternSyntaxException si la regex est invalide
+     */
+    public static ValuePattern compile(String regex) {
+        Pattern compiled = Pattern.compile(regex); // valide la syntaxe dans tous les cas
+        List<Atom> atoms = new ShapeParser(regex).parse();
+        if (atoms != null && isGreedySafe(atoms)) {
+            return new ShapeMatcher(regex, atoms.toArray(new Atom[0]));
+        }
+        return new RegexMatcher(regex, compiled);
+    }
+
+    private final String regex;
+
+    protected ValuePattern(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * @param value valeur non nulle (déjà trimée)
+     * @return true si toute la valeur respecte le pattern
+     */
+    public abstract boolean matches(CharSequence value);
+
+    /**
+     * true si le pattern est vérifié sans moteur regex.
+     */
+    public abstract boolean isSpecialized();
+
+    public String regex() {
+        return regex;
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+
+    private static boolean isGreedySafe(List<Atom> atoms) {
+        for (int i = 0; i < atoms.size(); i++) {
+            Atom a = atoms.get(i);
+            if (a.min == a.max) {
+                continue;
+            }
+            for (int j = i + 1; j < atoms.size(); j++) {
+                if (!a.set.isDisjoint(atoms.get(j).set)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------------
+    // Implémentations
+    // ---------------------------------------------------------------------
+
+    private static final class RegexMatcher extends ValuePattern {
+        private final Pattern pattern;
+
+        RegexMatcher(String regex, Pattern pattern) {
+            super(regex);
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean matches(CharSequence value) {
+            return pattern.matcher(value).matches();
+        }
+
+        @Override
+        public boolean isSpecialized() {
+            return false;
+        }
+    }
+
+    private static final class ShapeMatcher extends ValuePattern {
+        private final Atom[] atoms;
+        private final int minLength;
+        private final long maxLength;
+
+        ShapeMatcher(String regex, Atom[] atoms) {
+            super(regex);
+            this.atoms = atoms;
+            int min = 0;
+            long max = 0;
+            for (Atom a : atoms) {
+                min += a.min;
+                max = Math.min(Integer.MAX_VALUE, max + a.max);
+            }
+            this.minLength = min;
+            this.maxLength = max;
+        }
+
+        @Override
+        public boolean matches(CharSequence value) {
+            int len = value.length();
+            if (len < minLength || len > maxLength) {
+                return false;
+            }
+            int pos = 0;
+            for (Atom a : atoms) {
+                int count = 0;
+                while (count < a.max && pos < len && a.set.contains(value.charAt(pos))) {
+                    pos++;
+                    count++;
+                }
+                if (count < a.min) {
+                    return false;
+                }
+            }
+            return pos == len;
+        }
+
+        @Override
+        public boolean isSpecialized() {
+            return true;
+        }
+    }
+
+    /**
+     * Classe de caractères répétée min..max fois.
+     */
+    private record Atom(CharSet set, int min, int max) {
+    }
+
+    /**
+     * Ensemble de caractères BMP : bitmap pour l'ASCII, intervalles pour le reste.
+     */
+    private static final class CharSet {
+        private long low;  // 0..63
+        private long high; // 64..127
+        private final List<char[]> ranges = new ArrayList<>(); // {from, to} >= 128
+
+        void add(char from, char to) {
+            for (int c = from; c <= Math.min(to, 127); c++) {
+                if (c < 64) {
+                    low |= 1L << c;
+                } else {
+                    high |= 1L << (c - 64);
+                }
+            }
+            if (to >= 128) {
+                ranges.add(new char[]{(char) Math.max(from, 128), to});
+            }
+        }
+
+        void addAll(CharSet other) {
+            low |= other.low;
+            high |= other.high;
+            ranges.addAll(other.ranges);
+        }
+
+        boolean contains(char c) {
+            if (c < 64) {
+                return (low & (1L << c)) != 0;
+            }
+            if (c < 128) {
+                return (high & (1L << (c - 64))) != 0;
+            }
+            for (char[] r : ranges) {
+                if (c >= r[0] && c <= r[1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isDisjoint(CharSet other) {
+            if ((low & other.low) != 0 || (high & other.high) != 0) {
+                return false;
+            }
+            for (char[] a : ranges) {
+                for (char[] b : other.ranges) {
+                    if (a[0] <= b[1] && b[0] <= a[1]) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Les surrogates sont comptés par code point par le moteur regex : forme non supportée.
+         */
+        boolean touchesSurrogates() {
+            for (char[] r : ranges) {
+                if (r[0] <= Character.MAX_SURROGATE && r[1] >= Character.MIN_SURROGATE) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        static CharSet of(char from, char to) {
+            CharSet s = new CharSet();
+            s.add(from, to);
+            return s;
+        }
+
+        static CharSet digits() {
+            return of('0', '9');
+        }
+
+        static CharSet word() {
+            CharSet s = of('a', 'z');
+            s.add('A', 'Z');
+            s.add('0', '9');
+            s.add('_', '_');
+            return s;
+        }
+
+        static CharSet space() {
+            CharSet s = of(' ', ' ');
+            s.add('\t', '\r'); // \t \n \x0B \f \r
+            return s;
+        }
+    }
+
+    /**
+     * Analyse la regex ; retourne null dès qu'une construction sort de la forme reconnue.
+     */
+    private static final class ShapeParser {
+        private final String p;
+        private int i;
+        private int end;
+
+        ShapeParser(String regex) {
+            this.p = regex;
+        }
+
+        List<Atom> parse() {
+            end = p.length();
+            if (i < end && p.charAt(i) == '^') {
+                i++;
+            }
+            if (end > i && p.charAt(end - 1) == '$' && !isEscaped(end - 1)) {
+                end--;
+            }
+
+            List<Atom> atoms = new ArrayList<>();
+            while (i < end) {
+                CharSet set = atom();
+                if (set == null || set.touchesSurrogates()) {
+                    return null;
+                }
+                int[] q = quantifier();
+                if (q == null) {
+                    return null;
+                }
+                atoms.add(new Atom(set, q[0], q[1]));
+            }
+            return atoms;
+        }
+
+        private boolean isEscaped(int pos) {
+            int backslashes = 0;
+            for (int k = pos - 1; k >= 0 && p.charAt(k) == '\\'; k--) {
+                backslashes++;
+            }
+            return backslashes % 2 == 1;
+        }
+
+        private CharSet atom() {
+            char c = p.charAt(i);
+            switch (c) {
+                case '[':
+                    return charClass();
+                case '\\':
+                    i++;
+                    return escape(false);
+                case '.': case '(': case ')': case '|': case '*': case '+': case '?':
+                case '{': case '}': case '^': case '$': case ']':
+                    return null;
+                default:
+                    i++;
+                    return CharSet.of(c, c);
+            }
+        }
+
+        /**
+         * Séquence d'échappement (après le '\'). Dans une classe, seules les formes
+         * produisant un caractère ou une classe prédéfinie sont acceptées.
+         */
+        private CharSet escape(boolean inClass) {
+            if (i >= end) {
+                return null;
+            }
+            char c = p.charAt(i++);
+            switch (c) {
+                case 'd':
+                    return CharSet.digits();
+                case 'w':
+                    return CharSet.word();
+                case 's':
+                    return CharSet.space();
+                case 'u': {
+                    if (i + 4 > end) {
+                        return null;
+                    }
+                    int v = 0;
+                    for (int k = 0; k < 4; k++) {
+                        int d = Character.digit(p.charAt(i + k), 16);
+                        if (d < 0) {
+                            return null;
+                        }
+                        v = v * 16 + d;
+                    }
+                    i += 4;
+                    return CharSet.of((char) v, (char) v);
+                }
+                default:
+                    // Lettres/chiffres échappés = constructions spéciales (\b, \p, \1, ...) : non gérées
+                    if (c < 128 && !Character.isLetterOrDigit(c)) {
+                        return CharSet.of(c, c);
+                    }
+                    return null;
+            }
+        }
+
+        private CharSet charClass() {
+            i++; // '['
+            if (i >= end || p.charAt(i) == '^' || p.charAt(i) == ']') {
+                return null;
+            }
+            CharSet set = new CharSet();
+            while (i < end && p.charAt(i) != ']') {
+                char c = p.charAt(i);
+                if (c == '[' || (c == '&' && i + 1 < end && p.charAt(i + 1) == '&')) {
+                    return null; // union/intersection de classes
+                }
+
+                // Début de l'élément : caractère simple, échappé, ou classe prédéfinie
+                Integer from;
+                if (c == '\\') {
+                    i++;
+                    int save = i;
+                    CharSet esc = escape(true);
+                    if (esc == null) {
+                        return null;
+                    }
+                    from = singleChar(save, esc);
+                    if (from == null) {
+                        set.addAll(esc); // \d, \w, \s : pas utilisable comme borne d'intervalle
+                        continue;
+                    }
+                } else {
+                    i++;
+                    from = (int) c;
+                }
+
+                // Intervalle a-b ('-' littéral en début/fin de classe)
+                if (i + 1 < end && p.charAt(i) == '-' && p.charAt(i + 1) != ']') {
+                    if (p.charAt(i + 1) == '[') {
+                        return null;
+                    }
+                    i++; // '-'
+                    Integer to;
+                    char t = p.charAt(i);
+                    if (t == '\\') {
+                        i++;
+                        int save = i;
+                        CharSet esc = escape(true);
+                        to = (esc == null) ? null : singleChar(save, esc);
+                        if (to == null) {
+                            return null;
+                        }
+                    } else {
+                        i++;
+                        to = (int) t;
+                    }
+                    if (to < from) {
+                        return null;
+                    }
+                    set.add((char) (int) from, (char) (int) to);
+                } else {
+                    set.add((char) (int) from, (char) (int) from);
+                }
+            }
+            if (i >= end) {
+                return null;
+            }
+            i++; // ']'
+            return set;
+        }
+
+        /**
+         * Caractère unique produit par l'échappement lu depuis start, ou null pour \d \w \s.
+         */
+        private Integer singleChar(int start, CharSet esc) {
+            char kind = p.charAt(start);
+            if (kind == 'd' || kind == 'w' || kind == 's') {
+                return null;
+            }
+            if (kind == 'u') {
+                return Integer.parseInt(p.substring(start + 1, start + 5), 16);
+            }
+            return (int) kind;
+        }
+
+        /**
+         * @return {min, max}, ou null pour un quantificateur non géré (paresseux, possessif, ...)
+         */
+        private int[] quantifier() {
+            int min = 1;
+            int max = 1;
+            if (i < end) {
+                char c = p.charAt(i);
+                if (c == '?' || c == '*' || c == '+') {
+                    i++;
+                    min = (c == '+') ? 1 : 0;
+                    max = (c == '?') ? 1 : Integer.MAX_VALUE;
+                } else if (c == '{') {
+                    int close = p.indexOf('}', i);
+                    if (close < 0 || close >= end) {
+                        return null;
+                    }
+                    String body = p.substring(i + 1, close);
+                    int comma = body.indexOf(',');
+                    try {
+                        if (comma < 0) {
+                            min = max = Integer.parseInt(body);
+                        } else {
+                            min = Integer.parseInt(body.substring(0, comma));
+                            String upper = body.substring(comma + 1);
+                            max = upper.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(upper);
+                        }
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    if (min < 0 || max < min) {
+                        return null;
+                    }
+                    i = close + 1;
+                } else {
+                    return new int[]{min, max};
+                }
+                // Quantificateur paresseux (??, +?) ou possessif (?+, ++)
+                if (i < end && (p.charAt(i) == '?' || p.charAt(i) == '+')) {
+                    return null;
+                }
+            }
+            return new int[]{min, max};
+        }
+    }
+}
@@ -4,6 +4,8 @@ package com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping;
 import com.bank.uploadfileanddatapersistdb_v3.application.interfaces.FileReaderConfigService;
 import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.FileReaderConfig;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.CsvSchema;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.FileSchema;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.RecordPlan;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.XmlSchema;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.CsvColumnRule;
 import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.XmlFieldRule;
@@ -54,6 +56,7 @@ public class MappingRegistry {
         schema.setDelimiter(m.getDelimiter());
         schema.setHasHeader(m.isHasHeader());
         schema.setEntityClassName(cfg.getEntityClassName());
+        applySettings(cfg, schema);
 
         /**
          * duplicateCheck est stocké côté DB sous forme de Set/List.
@@ -82,6 +85,9 @@ public class MappingRegistry {
                 }).toList()
         );
 
+        // Plan compilé : un slot par colonne (records en String[])
+        schema.setPlan(RecordPlan.compile(schema.getColumns(), schema.getDuplicateCheck()));
+
         return schema;
     }
 
@@ -104,6 +110,7 @@ public class MappingRegistry {
         schema.setRootElement(m.getRootElement());
         schema.setRecordElement(m.getRecordElement());
         schema.setEntityClassName(cfg.getEntityClassName());
+        applySettings(cfg, schema);
 
         schema.setDuplicateCheck(
                 m.getDuplicateCheck() == null
@@ -128,6 +135,39 @@ public class MappingRegistry {
                 }).toList()
         );
 
+        // Plan compilé : un slot par champ (records en String[])
+        schema.setPlan(RecordPlan.compile(schema.getFields(), schema.getDuplicateCheck()));
+
         return schema;
     }
+
+    /**
+     * Recopie les réglages d'ingestion (optionnels) de la config vers le schéma.
+     * Une valeur absente conserve le défaut du schéma.
+     */
+    private void applySettings(FileReaderConfig cfg, FileSchema schema) {
+        var settings = cfg.getSettings();
+        if (settings == null) {
+            return;
+        }
+        if (settings.getBatchSize() != null) {
+            // Validé à l'écriture (>= 1) ; le plancher ne couvre que les configs enregistrées avant
+            schema.setBatchSize(Math.max(1, settings.getBatchSize()));
+        }
+        if (settings.getWriteMode() != null) {
+            schema.setWriteMode(settings.getWriteMode());
+        }
+        if (settings.getCollectAllErrors() != null) {
+            schema.setCollectAllErrors(settings.getCollectAllErrors());
+        }
+        if (settings.getInFileDuplicateMode() != null) {
+            schema.setInFileDuplicateMode(settings.getInFileDuplicateMode());
+        }
+        if (settings.getLogMode() != null) {
+            schema.setLogMode(settings.getLogMode());
+        }
+        if (settings.getRejectFile() != null) {
+            schema.setRejectFile(settings.getRejectFile());
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model;
 // Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
 
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.InFileDuplicateMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogMode;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.WriteMode;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,7 +12,7 @@ import lombok.Setter;
 import java.util.List;
 
 /**
- * Common base for file schemas (mainly carries duplicateCheck configuration).
+ * Common base for file schemas (duplicateCheck configuration, ingestion settings and compiled record plan).
  */
 @Getter
 @Setter
@@ -18,4 +21,15 @@ import java.util.List;
 public class FileSchema {
     private List<String> duplicateCheck;
     private String entityClassName;
+    private int batchSize = 1;
+    private WriteMode writeMode = WriteMode.JPA_MERGE;
+    private boolean collectAllErrors = false;
+    private InFileDuplicateMode inFileDuplicateMode = InFileDuplicateMode.EXACT;
+    private LogMode logMode = LogMode.FULL;
+    private boolean rejectFile = false;
+
+    /**
+     * Plan compilé (slot par champ) utilisé par les readers et le pipeline.
+     */
+    private RecordPlan plan;
 }
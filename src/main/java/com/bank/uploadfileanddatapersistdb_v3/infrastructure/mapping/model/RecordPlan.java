@@ -0,0 +1,186 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.exception.SchemaValidationException;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.FieldType;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.FieldParser;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.ValuePattern;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.mapping.model.rules.FieldRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * RecordPlan
+ *
+ * Plan compilé d'un schéma : chaque FieldRule reçoit un numéro de "slot".
+ * Un record circule alors dans tout le pipeline sous forme de String[] (values[slot])
+ * au lieu d'une Map<fieldName, value> :
+ * - les readers écrivent directement dans le slot du champ (index de colonne / tag pré-calculés)
+ * - FieldValidator, la clé de doublon, le checker DB et les persisters lisent par slot
+ * - le FieldType de chaque slot est résolu une fois (plus de switch sur le nom du type par valeur)
+ * - le pattern de chaque slot est compilé une fois (ValuePattern)
+ *
+ * Compilé une fois par chargement de schéma (MappingRegistry), immuable ensuite
+ * (partagé sans risque entre les threads du pipeline).
+ */
+public final class RecordPlan {
+
+    private final List<FieldRule> rules;
+    private final FieldType[] types;
+    private final ValuePattern[] patterns;
+    private final List<String> names;
+    private final Map<String, Integer> slotByName;
+
+    private final List<String> duplicateFields;
+    private final int[] duplicateSlots;
+
+    private RecordPlan(List<? extends FieldRule> rules, List<String> duplicateFields) {
+        this.rules = List.copyOf(rules);
+
+        this.types = new FieldType[rules.size()];
+        this.patterns = new ValuePattern[rules.size()];
+        List<String> n = new ArrayList<>(rules.size());
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            types[i] = FieldParser.typeOf(rules.get(i).getType());
+            patterns[i] = compilePattern(rules.get(i));
+            String name = rules.get(i).getName();
+            n.add(name);
+            byName.putIfAbsent(name, i); // même règle que Map.get() sur le premier champ du nom
+        }
+        this.names = Collections.unmodifiableList(n);
+        this.slotByName = byName;
+
+        this.duplicateFields = duplicateFields == null ? List.of() : List.copyOf(duplicateFields);
+        this.duplicateSlots = new int[this.duplicateFields.size()];
+        for (int i = 0; i < duplicateSlots.length; i++) {
+            duplicateSlots[i] = slotOf(this.duplicateFields.get(i));
+        }
+    }
+
+    /**
+     * Compile le plan d'un schéma.
+     *
+     * @param rules règles de mapping, dans l'ordre de la configuration (slot = position)
+     * @param duplicateFields champs duplicateCheck (peuvent référencer un champ absent du mapping)
+     */
+    public static RecordPlan compile(List<? extends FieldRule> rules, List<String> duplicateFields) {
+        return new RecordPlan(rules == null ? List.of() : rules, duplicateFields);
+    }
+
+    /**
+     * Nombre de slots d'un record.
+     */
+    public int size() {
+        return rules.size();
+    }
+
+    public FieldRule rule(int slot) {
+        return rules.get(slot);
+    }
+
+    /**
+     * Type du slot (null pour un type inconnu : valeur gardée en String).
+     */
+    public FieldType type(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * Pattern compilé du slot (null si aucun pattern).
+     */
+    public ValuePattern pattern(int slot) {
+        return patterns[slot];
+    }
+
+    public List<FieldRule> rules() {
+        return rules;
+    }
+
+    /**
+     * Noms des champs, dans l'ordre des slots.
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * @return slot du champ, ou -1 si le champ n'est pas dans le mapping
+     */
+    public int slotOf(String name) {
+        Integer slot = slotByName.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    public List<String> duplicateFields() {
+        return duplicateFields;
+    }
+
+    /**
+     * Slots des champs duplicateCheck (-1 pour un champ absent du mapping : valeur toujours null).
+     * Tableau partagé : ne pas modifier.
+     */
+    public int[] duplicateSlots() {
+        return duplicateSlots;
+    }
+
+    public boolean hasDuplicateCheck() {
+        return duplicateSlots.length > 0;
+    }
+
+    /**
+     * Nouveau record vide (un tableau par record : il est conservé par les chunks
+     * et les étages du mode parallèle, il ne peut donc pas être recyclé par le reader).
+     */
+    public String[] newRecord() {
+        return new String[rules.size()];
+    }
+
+    /**
+     * Nouveau record avec un slot supplémentaire, après les champs, pour la forme brute
+     * du record (fichier de rejets) : values[size()] = raw.
+     */
+    public String[] newRecordWithRaw() {
+        return new String[rules.size() + 1];
+    }
+
+    /**
+     * Forme brute du record, si le reader l'a conservée (newRecordWithRaw), sinon null.
+     */
+    public String raw(String[] values) {
+        return (values != null && values.length > rules.size()) ? values[rules.size()] : null;
+    }
+
+    /**
+     * Nouveau tableau de valeurs typées (même cycle de vie que newRecord()).
+     */
+    public Object[] newTypedRecord() {
+        return new Object[rules.size()];
+    }
+
+    private static ValuePattern compilePattern(FieldRule rule) {
+        String regex = rule.getPattern();
+        if (regex == null || regex.isBlank()) {
+            return null;
+        }
+        try {
+            return ValuePattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            // Config enregistrée avant la validation des patterns : le fichier est rejeté d'emblée
+            throw new SchemaValidationException(
+                    "Invalid pattern for field '" + rule.getName() + "': " + e.getDescription(), e);
+        }
+    }
+
+    /**
+     * Valeur d'un slot, null pour un slot absent (-1).
+     */
+    public static String value(String[] values, int slot) {
+        return slot < 0 ? null : values[slot];
+    }
+}
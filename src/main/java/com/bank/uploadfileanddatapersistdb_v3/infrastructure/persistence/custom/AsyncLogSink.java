@@ -0,0 +1,281 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LineStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AsyncLogSink
+ *
+ * Écriture asynchrone des lignes de log d'import (détails et plages du mode COMPACT) :
+ * - le thread d'ingestion dépose un événement dans une file bornée (ArrayBlockingQueue) et continue
+ * - un thread écrivain dédié vide la file et alimente LogChargementDetailJdbcWriter
+ *   (tampons par log, INSERT par batch JDBC)
+ * - l'écrivain n'a aucune transaction ouverte : ses INSERT passent par sa propre connexion,
+ *   en auto-commit, indépendamment des transactions de données ; l'annulation d'un chunk
+ *   ne fait donc pas perdre les lignes de log déjà déposées
+ * - l'ingestion ne bloque que si la file est pleine (contre-pression, compteur blockedSubmits)
+ *
+ * flush(logId) est une barrière : il attend que tous les événements du log déposés avant lui
+ * soient écrits (fin de fichier, avant finalizeLog). Un batch en échec sur l'écrivain est perdu,
+ * mais le log est noté : flush(logId) renvoie false, et le log n'est pas finalisé comme complet.
+ *
+ * ingestion.log.async.enabled=false : écriture synchrone sur le thread appelant (comportement historique).
+ *
+ * Un seul écrivain : en mode asynchrone, les tampons ne sont jamais touchés par un autre thread.
+ * À l'arrêt de l'application, les nouveaux dépôts sont refusés (IllegalStateException) ; l'écrivain
+ * vide la file jusqu'à ce qu'elle soit vide et qu'aucun dépôt ne soit en cours, puis écrit les tampons.
+ */
+@Component
+@RequiredArgsConstructor
+public class AsyncLogSink {
+
+    /**
+     * Événements traités par l'écrivain à chaque passage.
+     */
+    private static final int DRAIN_MAX = 1024;
+
+    private static final long POLL_MS = 200;
+
+    private final LogChargementDetailJdbcWriter detailWriter;
+
+    @Value("${ingestion.log.async.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Capacité de la file entre l'ingestion et l'écrivain.
+     */
+    @Value("${ingestion.log.async.buffer-size:8192}")
+    private int bufferSize;
+
+    private BlockingQueue<LogEvent> queue;
+    private Thread writerThread;
+    private volatile boolean stopping;
+
+    /**
+     * Dépôts en cours (entre le contrôle de stopping et la mise en file) : l'écrivain les attend.
+     */
+    private final AtomicInteger producers = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder blockedSubmits = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    /**
+     * Logs dont au moins une écriture a échoué sur l'écrivain, jusqu'à leur prochain flush(logId).
+     */
+    private final Set<Long> incompleteLogs = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        writerThread = Thread.ofPlatform()
+                .name("log-sink-writer")
+                .daemon(true)
+                .start(this::runWriter);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        stopping = true;
+        if (writerThread != null) {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Ligne de détail (mode FULL, ou ligne FAILED).
+     */
+    public void append(Long logId, int lineNumber, LineStatus status, String detailProblem) {
+        submit(new LogEvent(logId, lineNumber, status, detailProblem, false, null));
+    }
+
+    /**
+     * Ligne SUCCESS du mode COMPACT (fusionnée dans la plage en cours).
+     */
+    public void appendRange(Long logId, int lineNumber, LineStatus status) {
+        submit(new LogEvent(logId, lineNumber, status, null, true, null));
+    }
+
+    /**
+     * Attend l'écriture de tous les événements du log déposés jusqu'ici, puis écrit ses tampons.
+     * En mode synchrone, une erreur d'écriture est propagée à l'appelant (ici ou au dépôt).
+     *
+     * @return false si des lignes du log ont été perdues par l'écrivain depuis le dernier flush
+     */
+    public boolean flush(Long logId) {
+        if (!isAsync()) {
+            detailWriter.flush(logId);
+            return true;
+        }
+        CountDownLatch barrier = new CountDownLatch(1);
+        submit(new LogEvent(logId, 0, null, null, false, barrier));
+        try {
+            while (!barrier.await(1, TimeUnit.SECONDS)) {
+                if (!writerThread.isAlive() && barrier.getCount() > 0) {
+                    // Écrivain mort sur une erreur inattendue : la barrière ne sera jamais levée
+                    throw new IllegalStateException("Log writer stopped before flushing log " + logId);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while flushing log " + logId, e);
+        }
+        // Échec noté par l'écrivain avant de lever la barrière (countDown : visible ici)
+        return !incompleteLogs.remove(logId);
+    }
+
+    /**
+     * Compteurs de la file et de l'écrivain.
+     */
+    public LogSinkStats stats() {
+        return new LogSinkStats(
+                isAsync() && writerThread.isAlive(),
+                queue == null ? 0 : queue.size(),
+                queue == null ? 0 : Math.max(1, bufferSize),
+                submitted.sum(),
+                processed.sum(),
+                blockedSubmits.sum(),
+                writeErrors.sum()
+        );
+    }
+
+    /**
+     * Mode asynchrone configuré : vrai aussi pendant l'arrêt (jamais de repli synchrone).
+     */
+    private boolean isAsync() {
+        return writerThread != null;
+    }
+
+    private void submit(LogEvent event) {
+        if (!isAsync()) {
+            submitted.increment();
+            write(event);
+            return;
+        }
+        // Compté avant le contrôle de stopping : l'écrivain ne s'arrête pas tant qu'un dépôt est en cours
+        producers.incrementAndGet();
+        try {
+            if (stopping) {
+                throw new IllegalStateException("Log sink is shutting down, log " + event.logId() + " rejected");
+            }
+            submitted.increment();
+            if (queue.offer(event)) {
+                return;
+            }
+            // File pleine : l'ingestion attend l'écrivain
+            blockedSubmits.increment();
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the log writer", e);
+            }
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Boucle de l'écrivain : jusqu'à l'arrêt, puis jusqu'à ce que la file soit vide
+     * et qu'aucun dépôt ne soit en cours.
+     */
+    private void runWriter() {
+        List<LogEvent> batch = new ArrayList<>(DRAIN_MAX);
+        while (true) {
+            LogEvent first;
+            try {
+                first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // Interruption = arrêt : on continue de vider la file
+                stopping = true;
+                continue;
+            }
+            if (first == null) {
+                // Ordre des lectures : stopping, puis producteurs, puis file (un dépôt accepté est en file
+                // avant que son producteur ne se retire)
+                if (stopping && producers.get() == 0 && queue.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, DRAIN_MAX - 1);
+            for (LogEvent event : batch) {
+                apply(event);
+            }
+            batch.clear();
+        }
+        // Logs encore ouverts à l'arrêt : tampons écrits tels quels
+        try {
+            detailWriter.flushAll();
+        } catch (RuntimeException e) {
+            writeErrors.increment();
+            org.slf4j.LoggerFactory.getLogger(AsyncLogSink.class)
+                    .error("Log sink shutdown flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Événement traité par le thread écrivain : une erreur est comptée et notée pour son log,
+     * jamais propagée (le flush du log la signale).
+     */
+    private void apply(LogEvent event) {
+        try {
+            write(event);
+        } catch (RuntimeException e) {
+            // L'écrivain ne doit pas s'arrêter : le batch en échec est perdu, les suivants continuent
+            writeErrors.increment();
+            incompleteLogs.add(event.logId());
+            org.slf4j.LoggerFactory.getLogger(AsyncLogSink.class)
+                    .error("Log write failed for log {}: {}", event.logId(), e.getMessage(), e);
+        } finally {
+            if (event.barrier() != null) {
+                event.barrier().countDown();
+            }
+        }
+    }
+
+    private void write(LogEvent event) {
+        if (event.barrier() != null) {
+            detailWriter.flush(event.logId());
+            return;
+        }
+        if (event.range()) {
+            detailWriter.appendRange(event.logId(), event.lineNumber(), event.status());
+        } else {
+            detailWriter.append(event.logId(), event.lineNumber(), event.status(), event.detailProblem());
+        }
+        processed.increment();
+    }
+
+    /**
+     * Événement de log ; barrier non null = barrière de flush du log.
+     */
+    private record LogEvent(Long logId,
+                            int lineNumber,
+                            LineStatus status,
+                            String detailProblem,
+                            boolean range,
+                            CountDownLatch barrier) {
+    }
+}
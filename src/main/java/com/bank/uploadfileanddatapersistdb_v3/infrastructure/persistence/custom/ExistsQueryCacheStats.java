@@ -0,0 +1,12 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+/**
+ * Compteurs du cache des requêtes d'existence de GenericDuplicateRepository.
+ *
+ * @param hits    requêtes reprises du cache
+ * @param misses  requêtes construites (première utilisation d'une forme de clé)
+ * @param entries formes de clé en cache (entité, champs, champs à null)
+ */
+public record ExistsQueryCacheStats(long hits, long misses, int entries) {
+}
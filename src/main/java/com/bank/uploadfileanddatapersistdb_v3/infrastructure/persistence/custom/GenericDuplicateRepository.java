@@ -3,13 +3,24 @@ package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * GenericDuplicateRepository
@@ -23,68 +34,183 @@ public class GenericDuplicateRepository {
     @PersistenceContext
     private EntityManager em;
 
+    /**
+     * Requêtes d'existence JPQL déjà construites, par (entité, champs triés, champs à null).
+     * Le texte JPQL étant identique d'un appel à l'autre, Hibernate réutilise aussi son plan de requête.
+     */
+    private final Map<ExistsQueryKey, String> existsQueries = new ConcurrentHashMap<>();
+
+    /**
+     * Aucun champ à null (cas courant) : partagé, jamais modifié.
+     */
+    private static final BitSet NO_NULLS = new BitSet();
+
+    private final LongAdder cacheLookups = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
     /**
      * Vérifie l'existence d'au moins une entité en base
      * correspondant à un ensemble dynamique de champs (clé de doublon).
      *
      * Cette méthode est générique :
      * - elle fonctionne pour n'importe quelle entité JPA
-     * - elle construit la requête dynamiquement à partir des champs fournis
+     * - la requête est construite une fois par forme de clé, puis reprise du cache
      *
      * Exemple conceptuel :
-     * fields = { "id"=12, "firstName"="John", "lastName"="Doe" }
+     * fields = { "id"=12, "firstName"="John", "lastName"=null }
      *
-     * => SELECT COUNT(e)
+     * => SELECT 1
      *    FROM Entity e
-     *    WHERE e.id = 12
-     *      AND e.firstName = 'John'
-     *      AND e.lastName = 'Doe'
+     *    WHERE e.firstName = 'John'
+     *      AND e.id = 12
+     *      AND e.lastName IS NULL
+     *    LIMIT 1
+     *
+     * La base s'arrête à la première ligne trouvée (pas de COUNT complet).
      *
      * @param entityClass classe JPA cible (ex: Employee.class)
      * @param fields Map <nomDuChamp, valeurTypée>
-     *               Les clés doivent correspondre aux attributs JPA de l'entité
+     *               Les clés doivent correspondre aux attributs JPA de l'entité ;
+     *               une valeur null est comparée avec IS NULL
      * @return true s'il existe au moins un enregistrement correspondant en base
      */
-
     public boolean existsByFields(Class<?> entityClass, Map<String, Object> fields) {
 
-        // 1) Récupère le CriteriaBuilder depuis l'EntityManager
-        //    Il sert à construire dynamiquement des requêtes typées JPA
-        CriteriaBuilder cb = em.getCriteriaBuilder();
+        // 1) Champs triés : même requête quel que soit l'ordre de la Map
+        List<String> names = new ArrayList<>(fields.keySet());
+        Collections.sort(names);
 
-        // 2) Création d'une requête Criteria qui retourne un Long
-        //    (ici : le nombre d'enregistrements correspondants)
-        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        // 2) Champs à null : ils changent le texte de la requête (IS NULL au lieu d'un paramètre)
+        BitSet nulls = NO_NULLS;
+        for (int i = 0; i < names.size(); i++) {
+            if (fields.get(names.get(i)) == null) {
+                if (nulls == NO_NULLS) {
+                    nulls = new BitSet(names.size());
+                }
+                nulls.set(i);
+            }
+        }
 
-        // 3) Définition de la racine de la requête (FROM EntityClass e)
+        // 3) Requête compilée (cache) puis liaison des valeurs non nulles
+        Query query = em.createQuery(existsQuery(entityClass, names, nulls));
+        for (int i = 0; i < names.size(); i++) {
+            if (!nulls.get(i)) {
+                query.setParameter("p" + i, fields.get(names.get(i)));
+            }
+        }
+
+        // 4) Une ligne suffit pour conclure au doublon
+        query.setMaxResults(1);
+        return !query.getResultList().isEmpty();
+    }
+
+    /**
+     * Statistiques du cache des requêtes d'existence (/monitoring).
+     */
+    public ExistsQueryCacheStats cacheStats() {
+        long misses = cacheMisses.sum();
+        return new ExistsQueryCacheStats(cacheLookups.sum() - misses, misses, existsQueries.size());
+    }
+
+    /**
+     * Requête du cache pour cette forme de clé.
+     * La recherche se fait sur les objets de l'appelant (aucune copie) ; la clé n'est copiée
+     * que pour être stockée, quand la requête est construite. Un miss = une requête construite.
+     */
+    private String existsQuery(Class<?> entityClass, List<String> names, BitSet nulls) {
+        cacheLookups.increment();
+        String jpql = existsQueries.get(new ExistsQueryKey(entityClass, names, nulls));
+        if (jpql != null) {
+            return jpql;
+        }
+        BitSet storedNulls = (nulls == NO_NULLS) ? NO_NULLS : (BitSet) nulls.clone();
+        return existsQueries.computeIfAbsent(new ExistsQueryKey(entityClass, List.copyOf(names), storedNulls), k -> {
+            cacheMisses.increment();
+            return buildExistsQuery(entityClass, names, nulls);
+        });
+    }
+
+    /**
+     * "select 1 from Entity e where e.a = :p0 and e.b is null ..."
+     * Les noms de champs viennent de la configuration : ils sont vérifiés sur le métamodèle JPA
+     * avant d'entrer dans le texte de la requête.
+     */
+    private String buildExistsQuery(Class<?> entityClass, List<String> names, BitSet nulls) {
+        EntityType<?> entity = em.getMetamodel().entity(entityClass);
+
+        StringBuilder jpql = new StringBuilder(64 + 32 * names.size())
+                .append("select 1 from ").append(entity.getName()).append(" e");
+        for (int i = 0; i < names.size(); i++) {
+            String attribute = entity.getAttribute(names.get(i)).getName(); // IllegalArgumentException si inconnu
+            jpql.append(i == 0 ? " where " : " and ").append("e.").append(attribute);
+            if (nulls.get(i)) {
+                jpql.append(" is null");
+            } else {
+                jpql.append(" = :p").append(i);
+            }
+        }
+        return jpql.toString();
+    }
+
+    /**
+     * Version "lot" de existsByFields : une seule requête pour plusieurs clés de doublon.
+     *
+     * Exemple conceptuel :
+     * fields = [id, firstName], keys = [[12, "John"], [13, "Jane"]]
+     *
+     * => SELECT DISTINCT e.id, e.firstName
+     *    FROM Entity e
+     *    WHERE (e.id = 12 AND e.firstName = 'John')
+     *       OR (e.id = 13 AND e.firstName = 'Jane')
+     *
+     * Chaque condition est construite comme dans existsByFields (égalité, IS NULL pour une valeur nulle) :
+     * une clé "existe" ici si et seulement si existsByFields la trouverait.
+     *
+     * @param entityClass classe JPA cible
+     * @param fields      attributs JPA composant la clé (ordre des valeurs de chaque clé)
+     * @param keys        valeurs typées des clés, une entrée par clé (keys.get(i)[j] = valeur de fields.get(j))
+     * @return valeurs (dans l'ordre de fields) des clés trouvées en base ; peut contenir
+     *         la même clé "à la collation près" que plusieurs clés demandées
+     */
+    public List<Object[]> findExistingKeys(Class<?> entityClass, List<String> fields, List<Object[]> keys) {
+        if (keys.isEmpty() || fields.isEmpty()) {
+            return List.of();
+        }
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
         Root<?> root = cq.from(entityClass);
 
-        // 4) Création d'un prédicat initial "TRUE"
-        //    cb.conjunction() = 1=1
-        //    Utile pour enchaîner dynamiquement des AND
-        Predicate predicate = cb.conjunction();
-
-        // 5) Pour chaque champ fourni :
-        //    on ajoute une condition e.<field> = <value>
-        for (var entry : fields.entrySet()) {
-
-            // root.get(fieldName) fait référence à l'attribut JPA de l'entité
-            // cb.equal(...) génère une condition d'égalité
-            predicate = cb.and(
-                    predicate,
-                    cb.equal(root.get(entry.getKey()), entry.getValue())
-            );
+        // Colonnes de la clé : sélectionnées pour retrouver quelles clés existent
+        List<Path<Object>> paths = new ArrayList<>(fields.size());
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            Path<Object> path = root.get(field);
+            paths.add(path);
+            selections.add(path);
+        }
+
+        // OR de (AND des égalités) : une branche par clé
+        Predicate[] alternatives = new Predicate[keys.size()];
+        for (int k = 0; k < alternatives.length; k++) {
+            Object[] key = keys.get(k);
+            Predicate[] equalities = new Predicate[paths.size()];
+            for (int j = 0; j < equalities.length; j++) {
+                equalities[j] = key[j] == null ? cb.isNull(paths.get(j)) : cb.equal(paths.get(j), key[j]);
+            }
+            alternatives[k] = cb.and(equalities);
         }
 
-        // 6) SELECT COUNT(e) WHERE <predicate>
-        //    On ne charge pas l'entité, on compte simplement
-        cq.select(cb.count(root)).where(predicate);
+        cq.multiselect(selections).distinct(true).where(cb.or(alternatives));
 
-        // 7) Exécution de la requête
-        //    getSingleResult() retourne toujours un Long (0 ou plus)
-        Long count = em.createQuery(cq).getSingleResult();
+        List<Tuple> rows = em.createQuery(cq).getResultList();
+        List<Object[]> found = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            found.add(row.toArray());
+        }
+        return found;
+    }
 
-        // 8) Si au moins un enregistrement existe, c'est un doublon
-        return count != null && count > 0;
+    private record ExistsQueryKey(Class<?> entityClass, List<String> fields, BitSet nulls) {
     }
 }
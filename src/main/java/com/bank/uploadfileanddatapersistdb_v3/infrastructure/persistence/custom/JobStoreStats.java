@@ -0,0 +1,32 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.time.LocalDateTime;
+
+/**
+ * Taille et évictions du stockage des jobs asynchrones (ingestion_job, ingestion_job_file).
+ *
+ * @param runningInMemory jobs en cours sur ce noeud (seul état gardé en mémoire)
+ * @param jobsStored      jobs en base (tous statuts)
+ * @param finishedStored  jobs terminés en base (candidats à l'éviction)
+ * @param filesStored     résultats par fichier en base
+ * @param ttlHours        durée de conservation d'un job terminé (0 = pas de TTL)
+ * @param maxJobs         nombre max de jobs terminés conservés (0 = pas de limite)
+ * @param evictedByTtl    jobs évincés car expirés, depuis le démarrage
+ * @param evictedBySize   jobs évincés au-delà de maxJobs, depuis le démarrage
+ * @param filesEvicted    résultats par fichier supprimés avec ces jobs
+ * @param lastRunAt       dernier passage d'éviction (null si aucun)
+ * @param lastError       erreur du dernier passage (null si OK)
+ */
+public record JobStoreStats(int runningInMemory,
+                            long jobsStored,
+                            long finishedStored,
+                            long filesStored,
+                            long ttlHours,
+                            long maxJobs,
+                            long evictedByTtl,
+                            long evictedBySize,
+                            long filesEvicted,
+                            LocalDateTime lastRunAt,
+                            String lastError) {
+}
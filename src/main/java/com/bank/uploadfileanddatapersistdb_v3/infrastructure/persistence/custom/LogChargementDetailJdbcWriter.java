@@ -0,0 +1,166 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LineStatus;
+import com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation.ValidationResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LogChargementDetailJdbcWriter
+ *
+ * Écriture en flux des détails ligne par ligne (table log_chargement_detail) :
+ * - les lignes d'un log sont tamponnées puis insérées par paquets (JdbcTemplate.batchUpdate)
+ * - le code d'erreur ("CODE - message") est extrait dans error_code, pour filtrer les lignes en SQL
+ * - un tampon ne dépasse jamais batchSize lignes : la mémoire reste constante
+ *   quelle que soit la taille du fichier (plus de collection LogChargement.details en heap)
+ * - l'ID reste en auto-incrément : l'INSERT JDBC n'a pas besoin de le relire, donc
+ *   (contrairement à Hibernate avec IDENTITY) les lignes partent en batch, en INSERT
+ *   multi-lignes avec rewriteBatchedStatements=true
+ *
+ * Mode COMPACT (appendRange) : les lignes SUCCESS consécutives sont fusionnées en une plage
+ * (table log_chargement_range) au lieu d'une ligne de détail chacune.
+ *
+ * Appelé par AsyncLogSink : depuis son thread écrivain dédié (mode asynchrone),
+ * ou depuis le thread d'ingestion (mode synchrone). Un tampon par log.
+ */
+@Component
+@RequiredArgsConstructor
+public class LogChargementDetailJdbcWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO log_chargement_detail (log_chargement_id, line_number, status, error_code, detail_problem)"
+                    + " VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_RANGE_SQL =
+            "INSERT INTO log_chargement_range (log_chargement_id, start_line, end_line, status)"
+                    + " VALUES (?, ?, ?, ?)";
+
+    /**
+     * Longueur de la colonne detail_problem (LogChargementDetail).
+     */
+    private static final int DETAIL_MAX_LENGTH = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lignes de détail insérées par batch JDBC.
+     */
+    @Value("${ingestion.log.detail-batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Lignes et plages en attente, par id de LogChargement.
+     */
+    private final Map<Long, LogBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Ajoute une ligne au tampon du log ; écrit le tampon quand il est plein.
+     */
+    public void append(Long logId, int lineNumber, LineStatus status, String detailProblem) {
+        LogBuffer buffer = bufferOf(logId);
+        buffer.details.add(new Object[]{
+                logId, lineNumber, status.name(), ValidationResult.codeOf(detailProblem), truncate(detailProblem)
+        });
+        if (buffer.details.size() >= effectiveBatchSize()) {
+            write(INSERT_SQL, buffer.details);
+        }
+    }
+
+    /**
+     * Mode COMPACT : prolonge la plage ouverte si la ligne la suit directement,
+     * sinon ferme cette plage et en ouvre une nouvelle.
+     */
+    public void appendRange(Long logId, int lineNumber, LineStatus status) {
+        LogBuffer buffer = bufferOf(logId);
+        if (buffer.rangeStatus == status && lineNumber == buffer.rangeEnd + 1) {
+            buffer.rangeEnd = lineNumber;
+            return;
+        }
+        closeRange(logId, buffer);
+        buffer.rangeStart = lineNumber;
+        buffer.rangeEnd = lineNumber;
+        buffer.rangeStatus = status;
+        if (buffer.ranges.size() >= effectiveBatchSize()) {
+            write(INSERT_RANGE_SQL, buffer.ranges);
+        }
+    }
+
+    /**
+     * Écrit les lignes et plages restantes du log et libère son tampon.
+     */
+    public void flush(Long logId) {
+        LogBuffer buffer = buffers.remove(logId);
+        if (buffer != null) {
+            closeRange(logId, buffer);
+            write(INSERT_SQL, buffer.details);
+            write(INSERT_RANGE_SQL, buffer.ranges);
+        }
+    }
+
+    /**
+     * Écrit les tampons de tous les logs (arrêt de l'application).
+     */
+    public void flushAll() {
+        for (Long logId : List.copyOf(buffers.keySet())) {
+            flush(logId);
+        }
+    }
+
+    private LogBuffer bufferOf(Long logId) {
+        return buffers.computeIfAbsent(logId, id -> new LogBuffer(effectiveBatchSize()));
+    }
+
+    private void closeRange(Long logId, LogBuffer buffer) {
+        if (buffer.rangeStatus != null) {
+            buffer.ranges.add(new Object[]{logId, buffer.rangeStart, buffer.rangeEnd, buffer.rangeStatus.name()});
+            buffer.rangeStatus = null;
+        }
+    }
+
+    private void write(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(sql, rows);
+        } finally {
+            // En cas d'échec, les lignes sont perdues mais le tampon reste borné
+            rows.clear();
+        }
+    }
+
+    private int effectiveBatchSize() {
+        return Math.max(1, batchSize);
+    }
+
+    /**
+     * Tampon d'un log : détails, plages fermées et plage ouverte (mode COMPACT).
+     */
+    private static final class LogBuffer {
+        private final List<Object[]> details;
+        private final List<Object[]> ranges = new ArrayList<>();
+
+        private int rangeStart;
+        private int rangeEnd;
+        private LineStatus rangeStatus; // null = aucune plage ouverte
+
+        private LogBuffer(int batchSize) {
+            this.details = new ArrayList<>(batchSize);
+        }
+    }
+
+    private static String truncate(String detail) {
+        if (detail == null || detail.length() <= DETAIL_MAX_LENGTH) {
+            return detail;
+        }
+        return detail.substring(0, DETAIL_MAX_LENGTH);
+    }
+}
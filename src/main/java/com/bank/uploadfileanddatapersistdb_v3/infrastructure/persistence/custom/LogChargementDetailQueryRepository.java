@@ -0,0 +1,241 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargementDetail;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LineStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * LogChargementDetailQueryRepository
+ *
+ * Lecture des lignes d'un log sans charger la collection LogChargement.details :
+ * - findPage : une page de lignes après un numéro de ligne (keyset sur line_number, sans OFFSET)
+ * - stream   : toutes les lignes, lues par un curseur serveur (MySQL : fetchSize = Integer.MIN_VALUE)
+ *   et passées une à une au consommateur ; aucune liste n'est construite
+ *
+ * Filtres optionnels : status, error_code (index (log, status, line) et (log, error_code, line)).
+ *
+ * Mode COMPACT : les lignes SUCCESS sont stockées en plages (log_chargement_range) ;
+ * avec withRanges, elles sont redéployées ligne par ligne et fusionnées dans l'ordre des numéros.
+ * stream lit les plages par pages keyset (start_line > dernière plage lue), au fil des détails :
+ * au plus RANGE_PAGE_SIZE plages en mémoire, quel que soit le nombre de plages du log.
+ * Une plage n'a pas de code d'erreur : elle est exclue dès qu'un errorCode est demandé.
+ *
+ * Les lignes retournées sont des LogChargementDetail non gérés (simples valeurs, id null pour une plage).
+ */
+@Repository
+public class LogChargementDetailQueryRepository {
+
+    /**
+     * Plages lues par requête pendant un stream.
+     */
+    private static final int RANGE_PAGE_SIZE = 1000;
+
+    private static final String DETAIL_COLUMNS = "SELECT line_number, status, error_code, detail_problem"
+            + " FROM log_chargement_detail WHERE log_chargement_id = ?";
+
+    private static final String RANGE_COLUMNS = "SELECT start_line, end_line, status"
+            + " FROM log_chargement_range WHERE log_chargement_id = ?";
+
+    private static final RowMapper<LogChargementDetail> DETAIL_ROW = (rs, i) -> LogChargementDetail.builder()
+            .lineNumber(rs.getInt("line_number"))
+            .status(LineStatus.valueOf(rs.getString("status")))
+            .errorCode(rs.getString("error_code"))
+            .detailProblem(rs.getString("detail_problem"))
+            .build();
+
+    private static final RowMapper<int[]> RANGE_ROW = (rs, i) -> new int[]{
+            rs.getInt("start_line"), rs.getInt("end_line"), LineStatus.valueOf(rs.getString("status")).ordinal()
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Même DataSource, en lecture "streaming" : le driver MySQL ne charge pas tout le résultat en mémoire.
+     */
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public LogChargementDetailQueryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Lignes du log de numéro > afterLine, par numéro croissant.
+     *
+     * @param withRanges inclure les plages SUCCESS du mode COMPACT
+     * @param limit      nombre max de lignes retournées
+     */
+    public List<LogChargementDetail> findPage(Long logId,
+                                              LineStatus status,
+                                              String errorCode,
+                                              boolean withRanges,
+                                              int afterLine,
+                                              int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = detailQuery(logId, status, errorCode, args) + " AND line_number > ? ORDER BY line_number LIMIT ?";
+        args.add(afterLine);
+        args.add(limit);
+        List<LogChargementDetail> details = jdbcTemplate.query(sql, DETAIL_ROW, args.toArray());
+
+        if (!withRanges || errorCode != null) {
+            return details;
+        }
+
+        // Chaque plage donne au moins une ligne : limit plages suffisent pour remplir la page
+        List<Object> rangeArgs = new ArrayList<>();
+        String rangeSql = rangeQuery(logId, status, rangeArgs) + " AND end_line > ? ORDER BY start_line LIMIT ?";
+        rangeArgs.add(afterLine);
+        rangeArgs.add(limit);
+        RangeExpander ranges = new RangeExpander(jdbcTemplate.query(rangeSql, RANGE_ROW, rangeArgs.toArray()), afterLine);
+
+        List<LogChargementDetail> page = new ArrayList<>(limit);
+        for (LogChargementDetail d : details) {
+            ranges.emitBefore(d.getLineNumber(), page::add, limit - page.size());
+            if (page.size() >= limit) {
+                return page;
+            }
+            page.add(d);
+        }
+        ranges.emitBefore(Integer.MAX_VALUE, page::add, limit - page.size());
+        return page;
+    }
+
+    /**
+     * Toutes les lignes du log, par numéro croissant, lues en flux (curseur serveur).
+     * Les plages (mode COMPACT) sont lues par pages de RANGE_PAGE_SIZE quand le flux les atteint
+     * (autre connexion que le curseur : un résultat MySQL en streaming bloque sa connexion).
+     */
+    public void stream(Long logId,
+                       LineStatus status,
+                       String errorCode,
+                       boolean withRanges,
+                       Consumer<LogChargementDetail> sink) {
+        RangeExpander ranges;
+        if (withRanges && errorCode == null) {
+            ranges = new RangeExpander(0, afterStart -> {
+                List<Object> rangeArgs = new ArrayList<>();
+                String rangeSql = rangeQuery(logId, status, rangeArgs) + " AND start_line > ? ORDER BY start_line LIMIT ?";
+                rangeArgs.add(afterStart);
+                rangeArgs.add(RANGE_PAGE_SIZE);
+                return jdbcTemplate.query(rangeSql, RANGE_ROW, rangeArgs.toArray());
+            });
+        } else {
+            ranges = new RangeExpander(List.of(), 0);
+        }
+
+        List<Object> args = new ArrayList<>();
+        String sql = detailQuery(logId, status, errorCode, args) + " ORDER BY line_number";
+        streamingJdbcTemplate.query(sql, rs -> {
+            LogChargementDetail d = DETAIL_ROW.mapRow(rs, 0);
+            ranges.emitBefore(d.getLineNumber(), sink, Integer.MAX_VALUE);
+            sink.accept(d);
+        }, args.toArray());
+
+        ranges.emitBefore(Integer.MAX_VALUE, sink, Integer.MAX_VALUE);
+    }
+
+    private static String detailQuery(Long logId, LineStatus status, String errorCode, List<Object> args) {
+        StringBuilder sql = new StringBuilder(DETAIL_COLUMNS);
+        args.add(logId);
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        }
+        if (errorCode != null) {
+            sql.append(" AND error_code = ?");
+            args.add(errorCode);
+        }
+        return sql.toString();
+    }
+
+    private static String rangeQuery(Long logId, LineStatus status, List<Object> args) {
+        StringBuilder sql = new StringBuilder(RANGE_COLUMNS);
+        args.add(logId);
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Parcours des plages triées, redéployées ligne par ligne à partir de afterLine + 1.
+     * Soit une liste fixe (findPage), soit des pages lues à la demande (stream).
+     */
+    private static final class RangeExpander {
+
+        private static final LineStatus[] STATUSES = LineStatus.values();
+
+        /**
+         * start_line de la dernière plage lue -> plages suivantes (null : liste fixe).
+         */
+        private final IntFunction<List<int[]>> pageAfter;
+        private List<int[]> ranges;
+        private int index;
+        private int nextLine;
+        private boolean lastPage;
+
+        RangeExpander(List<int[]> ranges, int afterLine) {
+            this.pageAfter = null;
+            this.ranges = ranges;
+            this.nextLine = afterLine + 1;
+            this.lastPage = true;
+        }
+
+        RangeExpander(int afterLine, IntFunction<List<int[]>> pageAfter) {
+            this.pageAfter = pageAfter;
+            this.ranges = List.of();
+            this.nextLine = afterLine + 1;
+        }
+
+        /**
+         * true s'il reste une plage à l'index courant (lit la page suivante au besoin).
+         */
+        private boolean hasRange() {
+            if (index < ranges.size()) {
+                return true;
+            }
+            if (lastPage) {
+                return false;
+            }
+            int afterStart = ranges.isEmpty() ? 0 : ranges.get(ranges.size() - 1)[0];
+            ranges = pageAfter.apply(afterStart);
+            index = 0;
+            lastPage = ranges.size() < RANGE_PAGE_SIZE;
+            return !ranges.isEmpty();
+        }
+
+        /**
+         * Émet les lignes des plages de numéro < line, au plus max lignes.
+         */
+        void emitBefore(int line, Consumer<LogChargementDetail> sink, int max) {
+            int emitted = 0;
+            while (emitted < max && hasRange()) {
+                int[] r = ranges.get(index);
+                int current = Math.max(nextLine, r[0]);
+                if (current > r[1]) {
+                    index++;
+                    continue;
+                }
+                if (current >= line) {
+                    return;
+                }
+                sink.accept(LogChargementDetail.builder()
+                        .lineNumber(current)
+                        .status(STATUSES[r[2]])
+                        .build());
+                emitted++;
+                nextLine = current + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LogChargementPurgeRepository
+ *
+ * Suppression des logs d'import expirés, en SQL (JdbcTemplate) et par paquets bornés :
+ * - findExpiredIds : au plus limit ids de logs créés avant la date limite (index (config_id, created_at))
+ * - deleteDetails / deleteRanges : DELETE ... LIMIT n répété jusqu'à épuisement,
+ *   pour qu'un log de plusieurs millions de lignes ne soit jamais supprimé en une seule instruction
+ * - deleteLogs : les lignes log_chargement elles-mêmes, une fois leurs détails supprimés
+ * - archive : copie des résumés dans log_chargement_archive avant suppression (INSERT IGNORE : rejouable)
+ *
+ * Aucune méthode n'est transactionnelle : appelée hors transaction, chaque instruction est
+ * commitée seule (auto-commit), les verrous sont relâchés après chaque paquet.
+ * Requêtes MySQL (DELETE ... LIMIT, INSERT IGNORE).
+ */
+@Repository
+@RequiredArgsConstructor
+public class LogChargementPurgeRepository {
+
+    private static final String ARCHIVE_SQL =
+            "INSERT IGNORE INTO log_chargement_archive (id, config_id, file_name, status, created_at, total_lines,"
+                    + " success_lines, failed_lines, log_mode, reject_file_name, error_counts_by_code,"
+                    + " error_counts_by_field, archived_at)"
+                    + " SELECT id, config_id, file_name, status, created_at, total_lines,"
+                    + " success_lines, failed_lines, log_mode, reject_file_name, error_counts_by_code,"
+                    + " error_counts_by_field, ?"
+                    + " FROM log_chargement WHERE id IN ";
+
+    /**
+     * Logs sans config connue : créés avant l'enregistrement de config_id, ou config supprimée.
+     * Purgés seulement si l'opérateur l'active (ingestion.log.retention.orphan-days > 0) : aucune config
+     * n'a consenti à leur suppression.
+     */
+    private static final String ORPHAN_SCOPE = "(config_id IS NULL OR NOT EXISTS"
+            + " (SELECT 1 FROM file_reader_config c WHERE c.id_config_fichier = log_chargement.config_id))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rétention déclarée par config (settings.logRetentionDays), null si non renseignée.
+     */
+    public Map<String, Integer> retentionDaysByConfig() {
+        Map<String, Integer> days = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id_config_fichier, log_retention_days FROM file_reader_config",
+                rs -> {
+                    int value = rs.getInt("log_retention_days");
+                    days.put(rs.getString("id_config_fichier"), rs.wasNull() ? null : value);
+                });
+        return days;
+    }
+
+    /**
+     * Ids des logs d'une config créés avant cutoff, les plus anciens d'abord.
+     *
+     * @param configId config des logs, null = logs sans config connue
+     */
+    public List<Long> findExpiredIds(String configId, LocalDateTime cutoff, int limit) {
+        if (configId == null) {
+            return jdbcTemplate.queryForList(
+                    "SELECT id FROM log_chargement WHERE " + ORPHAN_SCOPE + " AND created_at < ? ORDER BY created_at LIMIT ?",
+                    Long.class, Timestamp.valueOf(cutoff), limit);
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM log_chargement WHERE config_id = ? AND created_at < ? ORDER BY created_at LIMIT ?",
+                Long.class, configId, Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * Copie les résumés des logs dans log_chargement_archive (les logs déjà archivés sont ignorés).
+     *
+     * @return nombre de résumés archivés
+     */
+    public int archive(List<Long> logIds, LocalDateTime archivedAt) {
+        List<Object> args = new ArrayList<>(logIds.size() + 1);
+        args.add(Timestamp.valueOf(archivedAt));
+        args.addAll(logIds);
+        return jdbcTemplate.update(ARCHIVE_SQL + inClause(logIds.size()), args.toArray());
+    }
+
+    /**
+     * Supprime les lignes de détail des logs, par paquets de batchSize lignes.
+     *
+     * @return nombre de lignes supprimées
+     */
+    public long deleteDetails(List<Long> logIds, int batchSize) {
+        return deleteInBatches("log_chargement_detail", logIds, batchSize);
+    }
+
+    /**
+     * Supprime les plages SUCCESS (mode COMPACT) des logs, par paquets de batchSize lignes.
+     *
+     * @return nombre de plages supprimées
+     */
+    public long deleteRanges(List<Long> logIds, int batchSize) {
+        return deleteInBatches("log_chargement_range", logIds, batchSize);
+    }
+
+    /**
+     * Supprime les logs (leurs détails et plages doivent déjà être supprimés).
+     *
+     * @return nombre de logs supprimés
+     */
+    public int deleteLogs(List<Long> logIds) {
+        return jdbcTemplate.update("DELETE FROM log_chargement WHERE id IN " + inClause(logIds.size()), logIds.toArray());
+    }
+
+    private long deleteInBatches(String table, List<Long> logIds, int batchSize) {
+        String sql = "DELETE FROM " + table + " WHERE log_chargement_id IN " + inClause(logIds.size()) + " LIMIT ?";
+        List<Object> args = new ArrayList<>(logIds);
+        args.add(batchSize);
+        Object[] params = args.toArray();
+
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, params);
+            total += deleted;
+        } while (deleted >= batchSize);
+        return total;
+    }
+
+    private static String inClause(int size) {
+        return "(" + String.join(", ", Collections.nCopies(size, "?")) + ")";
+    }
+}
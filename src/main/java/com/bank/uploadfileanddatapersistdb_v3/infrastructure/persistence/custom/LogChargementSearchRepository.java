@@ -0,0 +1,104 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.LogChargement;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.LogStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * LogChargementSearchRepository
+ *
+ * Recherche des logs d'import en SQL (Criteria API), avec pagination par curseur (keyset) :
+ * - filtres optionnels : fileName (contains, insensible à la casse), status, createdAt dans [from, to[
+ * - tri createdAt DESC, id DESC (id départage les logs créés au même instant)
+ * - page suivante : WHERE (created_at, id) < (curseur), sans OFFSET ; la base descend l'index
+ *   (created_at, id) ou (status, created_at, id) et s'arrête après limit lignes,
+ *   quelle que soit la profondeur de la page
+ *
+ * Le filtre fileName (LIKE '%x%') ne peut pas utiliser d'index : il s'applique
+ * aux lignes parcourues dans l'ordre de l'index de tri.
+ */
+@Repository
+public class LogChargementSearchRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Une page de logs, du plus récent au plus ancien.
+     *
+     * @param fileName        filtre contains sur le nom de fichier (null/blank = ignoré)
+     * @param status          statut exact (null = ignoré)
+     * @param from            createdAt >= from (null = ignoré)
+     * @param to              createdAt < to (null = ignoré)
+     * @param afterCreatedAt  curseur : createdAt du dernier log de la page précédente (null = première page)
+     * @param afterId         curseur : id du dernier log de la page précédente
+     * @param limit           nombre max de logs retournés
+     */
+    public List<LogChargement> search(String fileName,
+                                      LogStatus status,
+                                      LocalDateTime from,
+                                      LocalDateTime to,
+                                      LocalDateTime afterCreatedAt,
+                                      Long afterId,
+                                      int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<LogChargement> cq = cb.createQuery(LogChargement.class);
+        Root<LogChargement> root = cq.from(LogChargement.class);
+
+        Path<LocalDateTime> createdAt = root.get("createdAt");
+        Path<Long> id = root.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (fileName != null && !fileName.isBlank()) {
+            where.add(cb.like(cb.lower(root.get("fileName")), containsPattern(fileName), '\\'));
+        }
+        if (status != null) {
+            where.add(cb.equal(root.get("status"), status));
+        }
+        if (from != null) {
+            where.add(cb.greaterThanOrEqualTo(createdAt, from));
+        }
+        if (to != null) {
+            where.add(cb.lessThan(createdAt, to));
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            // (createdAt, id) < (afterCreatedAt, afterId) dans l'ordre DESC
+            where.add(cb.or(
+                    cb.lessThan(createdAt, afterCreatedAt),
+                    cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, afterId))
+            ));
+        }
+
+        cq.select(root)
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+
+        return em.createQuery(cq)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * "%valeur%" en minuscules, avec % et _ saisis par l'utilisateur échappés.
+     */
+    private static String containsPattern(String value) {
+        String escaped = value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
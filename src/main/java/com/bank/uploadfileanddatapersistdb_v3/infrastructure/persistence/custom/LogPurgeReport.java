@@ -0,0 +1,29 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Bilan d'un passage de la purge de rétention des logs d'import.
+ *
+ * @param startedAt        début du passage
+ * @param durationMs       durée du passage
+ * @param logsPurged       lignes log_chargement supprimées
+ * @param detailsPurged    lignes log_chargement_detail supprimées
+ * @param rangesPurged     lignes log_chargement_range supprimées
+ * @param logsArchived     résumés copiés dans log_chargement_archive
+ * @param batches          paquets de logs traités (un paquet = quelques transactions courtes)
+ * @param logsPurgedByConfig logs supprimés par config ("" = logs sans config connue)
+ * @param error            message de l'erreur qui a interrompu le passage, null si complet
+ */
+public record LogPurgeReport(LocalDateTime startedAt,
+                             long durationMs,
+                             long logsPurged,
+                             long detailsPurged,
+                             long rangesPurged,
+                             long logsArchived,
+                             int batches,
+                             Map<String, Long> logsPurgedByConfig,
+                             String error) {
+}
@@ -0,0 +1,22 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.custom;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+/**
+ * Compteurs de AsyncLogSink.
+ *
+ * @param async          écrivain dédié actif (false = écriture sur le thread d'ingestion)
+ * @param queued         événements en attente de l'écrivain
+ * @param capacity       capacité de la file
+ * @param submitted      événements déposés depuis le démarrage
+ * @param processed      lignes passées au writer JDBC (tamponnées ou écrites)
+ * @param blockedSubmits dépôts qui ont attendu une place (file pleine)
+ * @param writeErrors    écritures en échec (lignes perdues)
+ */
+public record LogSinkStats(boolean async,
+                           int queued,
+                           int capacity,
+                           long submitted,
+                           long processed,
+                           long blockedSubmits,
+                           long writeErrors) {
+}
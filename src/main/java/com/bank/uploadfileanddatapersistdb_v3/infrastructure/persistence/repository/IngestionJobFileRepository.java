@@ -0,0 +1,33 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.IngestionJobFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data repository for IngestionJobFile entity.
+ */
+@Repository
+public interface IngestionJobFileRepository extends JpaRepository<IngestionJobFile, Long> {
+
+    /**
+     * Résultats des fichiers d'un job, dans l'ordre de traitement.
+     */
+    List<IngestionJobFile> findByJobJobIdOrderByIdAsc(String jobId);
+
+    /**
+     * Résultats des jobs évincés (supprimés avant les jobs).
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from IngestionJobFile f where f.job.jobId in :ids")
+    int deleteByJobIds(@Param("ids") Collection<String> ids);
+}
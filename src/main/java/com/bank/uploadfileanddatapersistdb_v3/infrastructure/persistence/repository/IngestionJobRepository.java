@@ -0,0 +1,138 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.persistence.repository;
+// Couche infrastructure: parsing, persistence, mapping, validation et filesystem.
+
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.entity.IngestionJob;
+import com.bank.uploadfileanddatapersistdb_v3.domain.model.enums.JobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data repository for IngestionJob entity.
+ *
+ * Les mises à jour de progression sont des UPDATE ciblés (pas de lecture préalable de l'entité) :
+ * une écriture par job et par intervalle de flush.
+ */
+@Repository
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, String> {
+
+    /**
+     * Compteurs, débits et ETA d'un job en cours ; l'estimation de durée n'est fixée qu'une fois.
+     *
+     * @return 1 si le job est encore RUNNING, 0 sinon
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update IngestionJob j
+        set j.processedRecords = :processed,
+            j.bytesRead = :bytesRead,
+            j.recordsPerSecond = :recordsPerSecond,
+            j.bytesPerSecond = :bytesPerSecond,
+            j.timeLeftSeconds = :timeLeft,
+            j.estimatedTotalSeconds = coalesce(j.estimatedTotalSeconds, :estimate),
+            j.updatedAt = :now
+        where j.jobId = :jobId and j.status = :running
+    """)
+    int updateProgress(@Param("jobId") String jobId,
+                       @Param("processed") int processed,
+                       @Param("bytesRead") long bytesRead,
+                       @Param("recordsPerSecond") double recordsPerSecond,
+                       @Param("bytesPerSecond") double bytesPerSecond,
+                       @Param("timeLeft") Long timeLeft,
+                       @Param("estimate") Long estimate,
+                       @Param("now") LocalDateTime now,
+                       @Param("running") JobStatus running);
+
+    /**
+     * Statut final d'un job (FINISHED / FAILED) avec son dernier compteur, seulement s'il est encore RUNNING :
+     * un job déjà marqué FAILED (sweep des jobs orphelins, redémarrage du noeud) garde ce statut.
+     *
+     * @return 1 si le statut a été écrit, 0 si le job n'est plus RUNNING (ou n'existe pas)
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update IngestionJob j
+        set j.status = :status,
+            j.processedRecords = :processed,
+            j.bytesRead = :bytesRead,
+            j.timeLeftSeconds = 0,
+            j.updatedAt = :now,
+            j.finishedAt = :now
+        where j.jobId = :jobId and j.status = :running
+    """)
+    int complete(@Param("jobId") String jobId,
+                 @Param("status") JobStatus status,
+                 @Param("processed") int processed,
+                 @Param("bytesRead") long bytesRead,
+                 @Param("now") LocalDateTime now,
+                 @Param("running") JobStatus running);
+
+    /**
+     * Jobs restés RUNNING sur un noeud qui redémarre : ils ne reprendront pas.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update IngestionJob j
+        set j.status = :failed, j.updatedAt = :now, j.finishedAt = :now
+        where j.node = :node and j.status = :running
+    """)
+    int failRunningOnNode(@Param("node") String node,
+                          @Param("now") LocalDateTime now,
+                          @Param("running") JobStatus running,
+                          @Param("failed") JobStatus failed);
+
+    /**
+     * Jobs RUNNING sans écriture depuis cutoff (heartbeat perdu) : leur noeud ne les exécute plus.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update IngestionJob j
+        set j.status = :failed, j.updatedAt = :now, j.finishedAt = :now
+        where j.status = :running and j.updatedAt < :cutoff
+    """)
+    int failStale(@Param("cutoff") LocalDateTime cutoff,
+                  @Param("now") LocalDateTime now,
+                  @Param("running") JobStatus running,
+                  @Param("failed") JobStatus failed);
+
+    /**
+     * Jobs terminés avant cutoff, plus anciens d'abord (éviction TTL).
+     */
+    @Query("""
+        select j.jobId from IngestionJob j
+        where j.status <> :running and j.finishedAt < :cutoff
+        order by j.finishedAt asc
+    """)
+    List<String> findFinishedIdsBefore(@Param("running") JobStatus running,
+                                       @Param("cutoff") LocalDateTime cutoff,
+                                       Pageable page);
+
+    /**
+     * Jobs terminés, plus anciens d'abord (éviction au-delà de la taille max).
+     */
+    @Query("""
+        select j.jobId from IngestionJob j
+        where j.status <> :running
+        order by j.finishedAt asc
+    """)
+    List<String> findFinishedIds(@Param("running") JobStatus running, Pageable page);
+
+    long countByStatusNot(JobStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IngestionJob j where j.jobId in :ids")
+    int deleteByJobIds(@Param("ids") Collection<String> ids);
+}
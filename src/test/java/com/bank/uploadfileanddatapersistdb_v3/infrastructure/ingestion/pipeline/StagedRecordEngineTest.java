@@ -0,0 +1,155 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StagedRecordEngine : ordre du fichier en sortie, mémoire bornée à queueDepth, erreurs des validateurs.
+ */
+class StagedRecordEngineTest {
+
+    @Test
+    @Timeout(10)
+    void writerReceivesLinesInFileOrderWhenValidatorsFinishOutOfOrder() {
+        int lines = 500;
+        StagedRecordEngine engine = new StagedRecordEngine(4, 32);
+        List<PreparedRecord> written = new ArrayList<>();
+
+        // Une ligne sur cinq est lente : les suivantes, validées par d'autres threads, la dépassent
+        engine.run(source(lines, new AtomicInteger()), () -> (line, raw) -> {
+            if (line % 5 == 0) {
+                sleep(1);
+            }
+            return new PreparedRecord(line, raw, null, null);
+        }, written::add);
+
+        assertEquals(lines, written.size());
+        for (int i = 0; i < lines; i++) {
+            PreparedRecord r = written.get(i);
+            assertEquals(i + 1, r.line());
+            assertEquals("v" + (i + 1), r.values()[0]);
+        }
+        assertEquals(0, engine.reorderBuffered());
+    }
+
+    @Test
+    @Timeout(10)
+    void readerStopsAtQueueDepthWhileWriterIsBlocked() throws Exception {
+        int queueDepth = 8;
+        StagedRecordEngine engine = new StagedRecordEngine(2, queueDepth);
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch unblockWriter = new CountDownLatch(1);
+        AtomicInteger written = new AtomicInteger();
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> run = caller.submit(() -> engine.run(source(1000, reads),
+                    () -> (line, raw) -> new PreparedRecord(line, raw, null, null),
+                    r -> {
+                        if (r.line() == 1) {
+                            writerBlocked.countDown();
+                            await(unblockWriter);
+                        }
+                        written.incrementAndGet();
+                    }));
+
+            assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+
+            // La ligne 1 est sortie du compte "en vol" : queueDepth lignes de plus, pas une de plus
+            waitUntil(() -> reads.get() == queueDepth + 1);
+            sleep(200);
+            assertEquals(queueDepth + 1, reads.get());
+            assertEquals(queueDepth, engine.inFlight());
+
+            unblockWriter.countDown();
+            run.get(5, TimeUnit.SECONDS);
+            assertEquals(1000, written.get());
+            assertEquals(1000, reads.get());
+        } finally {
+            unblockWriter.countDown();
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void validatorExceptionIsRethrownOnTheCallingThread() {
+        IllegalStateException boom = new IllegalStateException("boom");
+        StagedRecordEngine engine = new StagedRecordEngine(3, 16);
+        List<Integer> written = new ArrayList<>();
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> engine.run(source(100, new AtomicInteger()), () -> (line, raw) -> {
+                    if (line == 3) {
+                        throw boom;
+                    }
+                    return new PreparedRecord(line, raw, null, null);
+                }, r -> written.add(r.line())));
+
+        assertSame(boom, thrown);
+        // Rien n'est écrit à partir de la ligne en erreur
+        assertTrue(written.stream().allMatch(line -> line < 3), "written: " + written);
+    }
+
+    /**
+     * lines records {"v<n>"} ; reads compte les appels à next().
+     */
+    private static Iterator<String[]> source(int lines, AtomicInteger reads) {
+        return new Iterator<>() {
+            private int n;
+
+            @Override
+            public boolean hasNext() {
+                return n < lines;
+            }
+
+            @Override
+            public String[] next() {
+                reads.incrementAndGet();
+                return new String[]{"v" + (++n)};
+            }
+        };
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not reached");
+            }
+            sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bank.uploadfileanddatapersistdb_v3.infrastructure.ingestion.validation;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ValuePattern doit répondre exactement comme Pattern.matches(regex, value),
+ * que la regex soit compilée en vérificateur spécialisé ou confiée au moteur regex.
+ */
+class ValuePatternTest {
+
+    /**
+     * Valeurs testées contre chaque regex : chiffres, dates, noms accentués, blancs,
+     * caractères spéciaux de regex, surrogates (paire complète et isolés).
+     */
+    private static final List<String> VALUES = List.of(
+            "", "0", "7", "123", "12345678901234567890", "1.5", "-12",
+            "a", "ab", "abc", "Abc", "ABC", "AB12", "ab-", "a_1", "_", "x", "ax", "xx",
+            "2024-01-31", "2024-1-31", "20240131", "2024-01-31 ",
+            "a b", "O'Neil", "Jean-Luc", "Élodie", "ÿ", "À", "Ā", "éé",
+            " ", "\t", "x\n", "\u000B", "a\tb",
+            "$", "^", "[", "-", "abc$", "a$",
+            "😀", "a😀", "\uD83D", "\uDE00", "\uD83Dx"
+    );
+
+    static Stream<Arguments> specialized() {
+        return Stream.of(
+                "^[0-9]+$",
+                "^[A-Za-zÀ-ÿ' -]{2,100}$",
+                "^\\d{4}-\\d{2}-\\d{2}$",
+                "[a-z]*",
+                "[a-z]{2,}",
+                "[a-z]{0,2}",
+                "\\w+",
+                "\\s?x",
+                "\\s*",
+                "^[A-Z]{2}\\d{2}$",
+                "\\u0041\\d*",
+                "[\\u00C0-\\u00FF]+",
+                "\\$",
+                "abc\\$",
+                "a?b?c?",
+                "[\\d_]+",
+                "[a-c\\-]+",
+                "[-a]+",
+                "-\\d+",
+                "\\d+\\.",
+                "x{3}",
+                "\\^\\[",
+                ""
+        ).map(Arguments::of);
+    }
+
+    static Stream<Arguments> fallback() {
+        return Stream.of(
+                "^.+$",
+                "(ab)+",
+                "a|b",
+                "[^0-9]+",
+                "[a-z]+?",
+                "[a-z]++",
+                "\\p{L}+",
+                "[a-z&&[^c]]+",
+                "\\d+\\d",
+                "\\d+\\.\\d",
+                "[a-z]*a",
+                "[a-z]{0,3}x?",
+                "\\bx\\b",
+                "(?i)abc",
+                "[\\uD800-\\uDBFF][\\uDC00-\\uDFFF]",
+                "[\\uD83D\\uDE00]+",
+                "😀+",
+                "a😀?"
+        ).map(Arguments::of);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("specialized")
+    void specializedShapesMatchLikePattern(String regex) {
+        assertEquivalent(regex, true);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("fallback")
+    void unsupportedShapesFallBackToPattern(String regex) {
+        assertEquivalent(regex, false);
+    }
+
+    private static void assertEquivalent(String regex, boolean expectSpecialized) {
+        ValuePattern pattern = ValuePattern.compile(regex);
+        assertEquals(expectSpecialized, pattern.isSpecialized(), "isSpecialized for " + regex);
+
+        for (String value : VALUES) {
+            assertEquals(Pattern.matches(regex, value), pattern.matches(value),
+                    () -> "regex " + regex + " on value [" + value + "]");
+        }
+    }
+}